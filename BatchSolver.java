@@ -0,0 +1,102 @@
+/**
+ * Description: BatchSolver class checks a whole file of puzzles at once, for validating imported puzzle packs offline.
+ * The file holds one puzzle per line as 81 characters (digits 1-9, with '0' or '.' for empty cells). Lines are solved
+ * in parallel across every core with a parallel stream, each worker thread reusing its own solver. The solver backend
+ * (bitmask backtracking or Dancing Links) can be picked on the command line.
+ * At the end it prints how many puzzles were unique, had several solutions, had none or could not be read, and the
+ * number of puzzles solved per second.
+ *
+ * Usage: java BatchSolver <puzzle file> [bitmask|dlx]
+ *
+ * Methods:
+ * - main(String[] args): Solves every puzzle in the file named by the first argument.
+ * - solveFile(String strFileName): Solves every puzzle in a file with the bitmask solver and returns the counts as an array.
+ * - solveFile(String strFileName, byte bytBackend): Solves every puzzle in a file with the given SudokuSolver backend.
+ */
+
+// Import the file, stream and counter classes used to solve in parallel
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+public class BatchSolver {
+    // Positions of each count in the array returned by solveFile
+    public static final byte UNIQUE = 0;
+    public static final byte MULTIPLE = 1;
+    public static final byte UNSOLVABLE = 2;
+    public static final byte UNREADABLE = 3;
+
+    // Each worker thread keeps its own solver of each backend (made when first used) and board, as solvers can't be shared
+    private static final ThreadLocal<SudokuSolver[]> solvers = ThreadLocal.withInitial(() -> new SudokuSolver[2]);
+    private static final ThreadLocal<byte[][]> boards = ThreadLocal.withInitial(() -> new byte[9][9]);
+
+    /**
+     * Description: Entry point for batch solving. Takes the name of the puzzle file as the first argument and the
+     * solver backend (bitmask by default, or dlx) as the optional second, solves every puzzle and prints the counts and throughput.
+     */
+    public static void main(String[] args) throws IOException {
+        byte bytBackend = args.length > 1 ? SudokuSolver.parseBackend(args[1]) : SudokuSolver.BITMASK;
+        if (args.length < 1 || bytBackend == -1) {
+            System.out.println("Usage: java BatchSolver <puzzle file> [bitmask|dlx]");
+            return;
+        }
+
+        long lngStartTime = System.nanoTime();
+        long[] lngCounts = solveFile(args[0], bytBackend);
+        double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+        long lngTotal = lngCounts[UNIQUE] + lngCounts[MULTIPLE] + lngCounts[UNSOLVABLE] + lngCounts[UNREADABLE];
+
+        System.out.println("Puzzles: " + lngTotal);
+        System.out.println("Unique: " + lngCounts[UNIQUE]);
+        System.out.println("Multiple solutions: " + lngCounts[MULTIPLE]);
+        System.out.println("No solution: " + lngCounts[UNSOLVABLE]);
+        System.out.println("Unreadable lines: " + lngCounts[UNREADABLE]);
+        System.out.println("Time: " + String.format("%.2f", dblSeconds) + "s (" + Math.round(lngTotal / dblSeconds) + " puzzles/s)");
+    }
+
+    /**
+     * Description: Solves every puzzle in the given file in parallel with the bitmask solver.
+     * Returns the number of unique, multiple-solution, unsolvable and unreadable puzzles, indexed by the constants above.
+     */
+    public static long[] solveFile(String strFileName) throws IOException {
+        return solveFile(strFileName, SudokuSolver.BITMASK);
+    }
+
+    /**
+     * Description: Solves every puzzle in the given file in parallel with the given SudokuSolver backend. Blank lines are skipped.
+     * Each puzzle is only solved far enough to tell whether it has zero, one or several solutions.
+     * Returns the number of unique, multiple-solution, unsolvable and unreadable puzzles, indexed by the constants above.
+     */
+    public static long[] solveFile(String strFileName, byte bytBackend) throws IOException {
+        LongAdder[] counters = new LongAdder[4];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+
+        // Files.lines splits well for parallel streams, so the file is never loaded into memory at once
+        try (Stream<String> lines = Files.lines(Paths.get(strFileName))) {
+            lines.parallel().filter(strLine -> !strLine.isBlank()).forEach(strLine -> {
+                byte[][] bytBoard = boards.get();
+
+                if (!Solver.parseLine(strLine.trim(), bytBoard)) {
+                    counters[UNREADABLE].increment();
+                } else {
+                    SudokuSolver[] threadSolvers = solvers.get();
+                    if (threadSolvers[bytBackend] == null) {
+                        threadSolvers[bytBackend] = SudokuSolver.create(bytBackend);
+                    }
+                    int intCount = threadSolvers[bytBackend].countSolutions(bytBoard, 2);
+                    counters[intCount == 1 ? UNIQUE : intCount == 0 ? UNSOLVABLE : MULTIPLE].increment();
+                }
+            });
+        }
+
+        long[] lngCounts = new long[4];
+        for (int i = 0; i < counters.length; i++) {
+            lngCounts[i] = counters[i].sum();
+        }
+        return lngCounts;
+    }
+}
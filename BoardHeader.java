@@ -0,0 +1,14 @@
+/**
+ * Description: BoardHeader interface is implemented by anything that writes the line(s) shown above the board by
+ * BoardRenderer, such as the mistakes count of a GameBoard or the timer and hints of a SpecialBoard.
+ *
+ * Methods:
+ * - appendHeader(BoardRenderer renderer): Appends the header text to the renderer.
+ */
+public interface BoardHeader {
+
+    /**
+     * Description: Appends the header text (including its trailing blank line) to the renderer.
+     */
+    void appendHeader(BoardRenderer renderer);
+}
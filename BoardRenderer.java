@@ -0,0 +1,397 @@
+/**
+ * Description: BoardRenderer class draws a Sudoku board (column numbers, row numbers, box separators and cells,
+ * with "●" for empty cells) below a pluggable BoardHeader. It is shared by GameBoard and SpecialBoard.
+ * The text is written into a reusable char buffer, so toString always gives the same text whatever the platform's
+ * encoding, and writeTo encodes it into a reusable byte buffer, so a board can be printed without creating any
+ * objects once the buffers have grown to size. Each thread has its own renderer, reached through get().
+ * A board with pencil marks is drawn larger, with every cell three characters wide and three lines tall so each
+ * of its nine notes has a fixed spot (digit 1 top left, 9 bottom right); a filled cell shows its digit in the middle.
+ * Boards of other sizes (laid out by a Geometry) are drawn the same way, with every cell as wide as the largest digit.
+ *
+ * Methods:
+ * - get(): Returns the renderer for the current thread.
+ * - render(byte[] bytCells, BoardHeader header): Draws the header and board into the buffer.
+ * - render(byte[] bytCells, short[] shrNotes, BoardHeader header): Draws the board with its pencil marks, if it has any.
+ * - render(Geometry geometry, byte[] bytCells, BoardHeader header): Draws a board of any size.
+ * - append(String strText), append(int intNumber), appendTwoDigits(int intNumber): Add text to the buffer (used by headers).
+ * - writeTo(PrintStream out): Writes the buffer to a stream.
+ * - toString(): Returns the buffer as a String.
+ */
+
+// Import the classes for encoding and printing
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+public class BoardRenderer {
+    // One renderer per thread, so boards on different threads can be drawn at the same time
+    private static final ThreadLocal<BoardRenderer> renderers = ThreadLocal.withInitial(BoardRenderer::new);
+
+    // Character drawn for an empty cell
+    private static final char CHR_EMPTY_CELL = '●';
+
+    // Buffer holding the rendered text, the number of characters used, and a CharBuffer view of it for encoding
+    private char[] chrBuffer = new char[512];
+    private int intLength;
+    private CharBuffer chrView = CharBuffer.wrap(chrBuffer);
+
+    // Encoder for writeTo, in the encoding System.out uses (characters it can't show are written as '?'), and its output buffer
+    private final CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytOutput = ByteBuffer.allocate(1024);
+
+    /**
+     * Description: Returns the renderer for the current thread.
+     */
+    public static BoardRenderer get() {
+        return renderers.get();
+    }
+
+    /**
+     * Description: Draws the header followed by the board into the buffer, replacing anything drawn before.
+     * Takes in bytCells (the 81 cells of the board, row by row, 0 meaning empty) and the header to draw above it.
+     * Returns this renderer so the result can be written or turned into a String.
+     */
+    public BoardRenderer render(byte[] bytCells, BoardHeader header) {
+        intLength = 0;
+        header.appendHeader(this);
+
+        // Add spaces and column numbers
+        append("    ");
+        for (int i = 0; i < 9; i++) {
+
+            // Add extra space every 3 columns
+            if (i % 3 == 0 && i != 0) {
+                append("  ");
+            }
+            append(i + 1).append(" ");
+        }
+        append("\n   ");
+
+        // Add the top horizontal line
+        append("------------------------\n");
+
+        // Loop through each row of the board
+        for (int i = 0; i < 9; i++) {
+
+            // Add a horizontal line between every 3 rows
+            if (i % 3 == 0 && i != 0) {
+                append("    ---------------------\n");
+            }
+            append(i + 1).append(" | ");
+
+            // Loop through each cell in the row
+            for (int j = 0; j < 9; j++) {
+
+                // Add vertical separator every 3 columns
+                if (j % 3 == 0 && j != 0) {
+                    append("| ");
+                }
+
+                // Add cell value (or "●" if the cell is empty(0))
+                if (bytCells[i * 9 + j] == 0) {
+                    appendChar(CHR_EMPTY_CELL);
+                } else {
+                    append(bytCells[i * 9 + j]);
+                }
+                append(" ");
+            }
+
+            // Add the closing vertical separator
+            append(" |\n");
+        }
+
+        // Add the bottom horizontal line
+        append("   ------------------------");
+        return this;
+    }
+
+    /**
+     * Description: Draws the header followed by the board with its pencil marks into the buffer.
+     * Takes in bytCells (the 81 cells, 0 meaning empty), shrNotes (a 9-bit mask of the notes in each cell, bit 0 for
+     * digit 1, or null if the board has no notes) and the header to draw above it. Without notes the board is drawn
+     * exactly as render(bytCells, header) draws it.
+     * Returns this renderer so the result can be written or turned into a String.
+     */
+    public BoardRenderer render(byte[] bytCells, short[] shrNotes, BoardHeader header) {
+        if (shrNotes == null) {
+            return render(bytCells, header);
+        }
+
+        intLength = 0;
+        header.appendHeader(this);
+
+        // Add the column numbers over the middle of each cell
+        append("    ");
+        for (int i = 0; i < 9; i++) {
+            if (i % 3 == 0 && i != 0) {
+                append("  ");
+            }
+            append(" ").append(i + 1).append("  ");
+        }
+        append("\n   ");
+        appendLine();
+
+        // Each row of cells takes three lines, one per row of notes, with a blank line between rows of the same box
+        for (int i = 0; i < 9; i++) {
+            if (i % 3 == 0 && i != 0) {
+                append("   ");
+                appendLine();
+            } else if (i != 0) {
+                appendNotesLine(bytCells, shrNotes, i, -1);
+            }
+            for (int k = 0; k < 3; k++) {
+                appendNotesLine(bytCells, shrNotes, i, k);
+            }
+        }
+
+        // Add the bottom horizontal line, without its trailing new line to match render
+        append("   ");
+        appendLine();
+        intLength--;
+        return this;
+    }
+
+    /**
+     * Description: Draws the header followed by a board of any size into the buffer, replacing anything drawn before.
+     * Takes in the geometry of the board, bytCells (its cells row by row, 0 meaning empty) and the header to draw above it.
+     * Row numbers, column numbers and cells are padded to the width of the largest digit, so 16x16 and 25x25 boards line up.
+     * Returns this renderer so the result can be written or turned into a String.
+     */
+    public BoardRenderer render(Geometry geometry, byte[] bytCells, BoardHeader header) {
+        int intSize = geometry.getIntSize();
+        int intBoxSize = geometry.getIntBoxSize();
+        int intWidth = intSize < 10 ? 1 : 2;
+
+        // Each box is (width + 1) characters per cell, and boxes are separated by "| "
+        int intLineLength = intSize * (intWidth + 1) + (intBoxSize - 1) * 2 + 3;
+
+        intLength = 0;
+        header.appendHeader(this);
+
+        // Add spaces and column numbers
+        appendPadding(intWidth + 3);
+        for (int i = 0; i < intSize; i++) {
+            if (i % intBoxSize == 0 && i != 0) {
+                append("  ");
+            }
+            appendPadded(i + 1, intWidth).append(" ");
+        }
+        append("\n");
+
+        // Add the top horizontal line
+        appendPadding(intWidth + 1);
+        appendDashes(intLineLength);
+
+        for (int i = 0; i < intSize; i++) {
+
+            // Add a horizontal line between every band of boxes
+            if (i % intBoxSize == 0 && i != 0) {
+                appendPadding(intWidth + 3);
+                appendDashes(intLineLength - 2);
+            }
+            appendPadded(i + 1, intWidth).append(" | ");
+
+            for (int j = 0; j < intSize; j++) {
+                if (j % intBoxSize == 0 && j != 0) {
+                    append("| ");
+                }
+
+                // Add cell value (or "●" if the cell is empty(0))
+                byte bytCell = bytCells[i * intSize + j];
+                if (bytCell == 0) {
+                    appendPadding(intWidth - 1);
+                    appendChar(CHR_EMPTY_CELL);
+                } else {
+                    appendPadded(bytCell, intWidth);
+                }
+                append(" ");
+            }
+            append(" |\n");
+        }
+
+        // Add the bottom horizontal line, without its trailing new line to match render
+        appendPadding(intWidth + 1);
+        appendDashes(intLineLength);
+        intLength--;
+        return this;
+    }
+
+    /**
+     * Description: Appends a non-negative whole number right-aligned in intWidth characters.
+     * Returns this renderer so calls can be chained.
+     */
+    private BoardRenderer appendPadded(int intNumber, int intWidth) {
+        appendPadding(intWidth - (intNumber < 10 ? 1 : 2));
+        return append(intNumber);
+    }
+
+    /**
+     * Description: Appends intCount spaces.
+     */
+    private void appendPadding(int intCount) {
+        ensureCapacity(Math.max(intCount, 0));
+        for (int i = 0; i < intCount; i++) {
+            chrBuffer[intLength++] = ' ';
+        }
+    }
+
+    /**
+     * Description: Appends a horizontal line of intCount dashes, and a new line.
+     */
+    private void appendDashes(int intCount) {
+        ensureCapacity(intCount + 1);
+        for (int i = 0; i < intCount; i++) {
+            chrBuffer[intLength++] = '-';
+        }
+        chrBuffer[intLength++] = '\n';
+    }
+
+    /**
+     * Description: Appends one text line of row intRow of the notes view: line intLine (0-2) of its notes, or a blank
+     * line if intLine is -1. The row number is written on the middle line.
+     */
+    private void appendNotesLine(byte[] bytCells, short[] shrNotes, int intRow, int intLine) {
+        if (intLine == 1) {
+            append(intRow + 1).append(" | ");
+        } else {
+            append("  | ");
+        }
+
+        for (int j = 0; j < 9; j++) {
+            if (j % 3 == 0 && j != 0) {
+                append("| ");
+            }
+
+            int intCell = intRow * 9 + j;
+            if (intLine == -1) {
+                append("   ");
+            } else if (bytCells[intCell] != 0) {
+                // A filled cell shows its digit in the middle
+                if (intLine == 1) {
+                    append(" ").append(bytCells[intCell]).append(" ");
+                } else {
+                    append("   ");
+                }
+            } else {
+                // An empty cell shows the three notes of this line, with "." for each digit not noted
+                for (int m = 0; m < 3; m++) {
+                    int intDigit = intLine * 3 + m + 1;
+                    if ((shrNotes[intCell] & (1 << (intDigit - 1))) != 0) {
+                        append(intDigit);
+                    } else {
+                        append(".");
+                    }
+                }
+            }
+            append(" ");
+        }
+        append(" |\n");
+    }
+
+    /**
+     * Description: Appends a horizontal line as wide as the notes view, and a new line.
+     */
+    private void appendLine() {
+        appendDashes(43);
+    }
+
+    /**
+     * Description: Appends text to the buffer.
+     * Returns this renderer so calls can be chained.
+     */
+    public BoardRenderer append(String strText) {
+        ensureCapacity(strText.length());
+        for (int i = 0; i < strText.length(); i++) {
+            chrBuffer[intLength++] = strText.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Description: Appends a non-negative whole number to the buffer.
+     * Returns this renderer so calls can be chained.
+     */
+    public BoardRenderer append(int intNumber) {
+        // Count the digits
+        int intDigits = 1;
+        for (int intRest = intNumber / 10; intRest > 0; intRest /= 10) {
+            intDigits++;
+        }
+
+        // Write the digits from last to first
+        ensureCapacity(intDigits);
+        for (int i = intLength + intDigits - 1; i >= intLength; i--) {
+            chrBuffer[i] = (char) ('0' + intNumber % 10);
+            intNumber /= 10;
+        }
+        intLength += intDigits;
+        return this;
+    }
+
+    /**
+     * Description: Appends a non-negative whole number with a leading zero if it is a single digit (like a clock).
+     * Returns this renderer so calls can be chained.
+     */
+    public BoardRenderer appendTwoDigits(int intNumber) {
+        if (intNumber < 10) {
+            append("0");
+        }
+        return append(intNumber);
+    }
+
+    /**
+     * Description: Writes the rendered text to the stream without creating a String, encoding it a buffer at a time.
+     */
+    public void writeTo(PrintStream out) {
+        chrView.clear().limit(intLength);
+        encoder.reset();
+
+        // Encode and write until every character is out, then flush anything the encoder is holding back
+        boolean bolFlushing = false;
+        while (true) {
+            bytOutput.clear();
+            CoderResult result = bolFlushing ? encoder.flush(bytOutput) : encoder.encode(chrView, bytOutput, true);
+            out.write(bytOutput.array(), 0, bytOutput.position());
+
+            if (!result.isOverflow()) {
+                if (bolFlushing) {
+                    break;
+                }
+                bolFlushing = true;
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the rendered text as a String.
+     */
+    @Override
+    public String toString() {
+        return new String(chrBuffer, 0, intLength);
+    }
+
+    /**
+     * Description: Appends one character to the buffer.
+     */
+    private void appendChar(char chrText) {
+        ensureCapacity(1);
+        chrBuffer[intLength++] = chrText;
+    }
+
+    /**
+     * Description: Doubles the buffer until intExtra more characters fit.
+     */
+    private void ensureCapacity(int intExtra) {
+        if (intLength + intExtra > chrBuffer.length) {
+            char[] chrBigger = new char[Math.max(chrBuffer.length * 2, intLength + intExtra)];
+            System.arraycopy(chrBuffer, 0, chrBigger, 0, intLength);
+            chrBuffer = chrBigger;
+            chrView = CharBuffer.wrap(chrBuffer);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * Description: BoardValidator class checks that a board is consistent before it is played: every cell holds a digit,
+ * no row, column or box of the playing board repeats a digit, the answer board is a complete valid grid, and every
+ * filled cell of the playing board matches the answer. GameBoard runs it on every board loaded from a file, so a
+ * corrupt or hand-edited save is rejected instead of being played. GameBoard reads saves through validateFile too,
+ * so loading a file and auditing it always accept and reject the same files.
+ * Repeats are found with one 9-bit mask per unit, looked up through the PeerTable, so a board is checked in a single
+ * pass over its 81 cells; the peers are only scanned to name the other cell once a repeat has been found.
+ * The same checks can be run over every save in a directory (and its subdirectories) at once, in parallel.
+ * A validator reuses its masks, so each thread uses its own, reached through get().
+ *
+ * Usage: java BoardValidator <directory> to check every .txt save under the directory and print the problems found.
+ *
+ * Methods:
+ * - main(String[] args): Checks every save under a directory and prints the problems and counts.
+ * - get(): Returns the validator for the current thread.
+ * - validate(byte[] bytPlayingCells, byte[] bytAnswerCells): Checks a playing board and its answer board.
+ * - validateFile(Path file): Reads a save file and checks it.
+ * - validateFile(Path file, PuzzleCache cache): Reads a save file and checks it, rebuilding an ID through the given cache.
+ * - getFilePuzzle(): Returns the puzzle read by the last validateFile.
+ * - auditDirectory(String strDirectory, PrintStream out): Checks every save under a directory and returns the counts.
+ * - getIntCell(), getIntOtherCell(), getStrProblem(): Describe the problem found by the last check.
+ */
+
+// Import the classes for reading files, walking directories and counting in parallel
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+public class BoardValidator {
+    // Results of a check, which are also the positions of each count in the array returned by auditDirectory
+    public static final byte VALID = 0;
+    public static final byte UNREADABLE = 1;
+    public static final byte DUPLICATE = 2;
+    public static final byte BAD_ANSWER = 3;
+    public static final byte MISMATCH = 4;
+    public static final byte RESULTS = 5;
+
+    // One validator per thread, as the masks are reused
+    private static final ThreadLocal<BoardValidator> validators = ThreadLocal.withInitial(BoardValidator::new);
+
+    // Digits already seen in each unit (rows 0-8, columns 9-17, boxes 18-26), bit 0 for digit 1
+    private final short[] shrUnitMasks = new short[PeerTable.UNITS];
+
+    // Result of the last check, the cell (0-80) the problem was found in and the other cell of a repeat (-1 if none)
+    private byte bytResult;
+    private int intCell;
+    private int intOtherCell;
+
+    // Extra detail when a file couldn't be read
+    private String strDetail;
+
+    // Playing and answer cells read by validateFile, and the puzzle rebuilt from the file's ID (null if it had none)
+    private final byte[] bytFileCells = new byte[81];
+    private final byte[] bytFileAnswer = new byte[81];
+    private Puzzle fileSolution;
+
+    /**
+     * Description: Entry point for auditing saves. Takes a directory as the first argument, checks every .txt save
+     * under it, prints each one that has a problem, then prints the counts and the number of files checked per second.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java BoardValidator <directory>");
+            return;
+        }
+
+        long lngStartTime = System.nanoTime();
+        long[] lngCounts = auditDirectory(args[0], System.out);
+        double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+
+        long lngTotal = 0;
+        for (long lngCount : lngCounts) {
+            lngTotal += lngCount;
+        }
+
+        System.out.println("Files: " + lngTotal);
+        System.out.println("Valid: " + lngCounts[VALID]);
+        System.out.println("Unreadable: " + lngCounts[UNREADABLE]);
+        System.out.println("Repeated digits: " + lngCounts[DUPLICATE]);
+        System.out.println("Bad answer board: " + lngCounts[BAD_ANSWER]);
+        System.out.println("Cells not matching the answer: " + lngCounts[MISMATCH]);
+        System.out.println("Time: " + String.format("%.2f", dblSeconds) + "s (" + Math.round(lngTotal / dblSeconds) + " files/s)");
+    }
+
+    /**
+     * Description: Returns the validator for the current thread.
+     */
+    public static BoardValidator get() {
+        return validators.get();
+    }
+
+    /**
+     * Description: Checks every .txt save under a directory (including subdirectories) in parallel, each worker
+     * thread using its own validator. Puzzles rebuilt from IDs go into a cache of the audit's own, so an audit never
+     * pushes the games being played out of the shared PuzzleCache. If out isn't null, each file with a problem is
+     * printed to it with the problem.
+     * Returns the number of files with each result, indexed by the result constants.
+     * Throws IOException if the directory can't be read.
+     */
+    public static long[] auditDirectory(String strDirectory, PrintStream out) throws IOException {
+        LongAdder[] counters = new LongAdder[RESULTS];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+
+        PuzzleCache cache = new PuzzleCache(PuzzleCache.DEFAULT_MAX_ENTRIES, PuzzleCache.DEFAULT_MAX_BYTES);
+        try (Stream<Path> files = Files.walk(Paths.get(strDirectory))) {
+            files.filter(file -> file.toString().endsWith(".txt") && Files.isRegularFile(file)).parallel().forEach(file -> {
+                BoardValidator validator = get();
+                byte bytFileResult = validator.validateFile(file, cache);
+                counters[bytFileResult].increment();
+
+                if (bytFileResult != VALID && out != null) {
+                    out.println(file + ": " + validator.getStrProblem());
+                }
+            });
+        }
+
+        long[] lngCounts = new long[RESULTS];
+        for (int i = 0; i < RESULTS; i++) {
+            lngCounts[i] = counters[i].sum();
+        }
+        return lngCounts;
+    }
+
+    /**
+     * Description: Checks a playing board and its answer board, each given as 81 cells row by row (0 meaning empty).
+     * The checks run in order and stop at the first problem: every cell holds a digit, the playing board repeats no
+     * digit in a row, column or box, the answer board is full and repeats nothing, and each filled playing cell
+     * matches the answer.
+     * Returns VALID, UNREADABLE, DUPLICATE, BAD_ANSWER or MISMATCH.
+     */
+    public byte validate(byte[] bytPlayingCells, byte[] bytAnswerCells) {
+        intCell = -1;
+        intOtherCell = -1;
+        strDetail = null;
+
+        // Every playing cell must be empty or a digit, and every answer cell a digit
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingCells[i] < 0 || bytPlayingCells[i] > 9) {
+                return result(UNREADABLE, i);
+            }
+            if (bytAnswerCells[i] < 1 || bytAnswerCells[i] > 9) {
+                return result(BAD_ANSWER, i);
+            }
+        }
+
+        if (findRepeat(bytPlayingCells)) {
+            return result(DUPLICATE, intCell);
+        }
+        if (findRepeat(bytAnswerCells)) {
+            return result(BAD_ANSWER, intCell);
+        }
+
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingCells[i] != 0 && bytPlayingCells[i] != bytAnswerCells[i]) {
+                return result(MISMATCH, i);
+            }
+        }
+        return result(VALID, -1);
+    }
+
+    /**
+     * Description: Reads a save file written by GameBoard.saveGame and checks it.
+     * The file holds an optional "ID <hex>" line, then 9 rows of the playing board, then 9 rows of the answer board
+     * unless there was an ID, in which case the answer is rebuilt from the ID (through the shared PuzzleCache).
+     * This is the only parser of save files: GameBoard loads them with it too, through getFilePuzzle.
+     * Returns the result of validate, or UNREADABLE if the file can't be read or isn't in that format.
+     */
+    public byte validateFile(Path file) {
+        return validateFile(file, PuzzleCache.getShared());
+    }
+
+    /**
+     * Description: Reads a save file and checks it as validateFile(Path) does, but rebuilds the puzzle of an ID through
+     * the given cache. Bulk checks pass a cache of their own, so they don't fill the shared one.
+     */
+    public byte validateFile(Path file, PuzzleCache cache) {
+        intCell = -1;
+        intOtherCell = -1;
+        fileSolution = null;
+
+        String[] strLines;
+        try {
+            strLines = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).split("\r?\n");
+        } catch (IOException e) {
+            return unreadable("cannot read file");
+        }
+
+        int intLine = 0;
+        boolean bolHasId = strLines.length > 0 && strLines[0].startsWith("ID ");
+        if (bolHasId) {
+            try {
+                fileSolution = cache.getPuzzle(PuzzleId.parse(strLines[0].substring(3).trim()));
+                for (int i = 0; i < 81; i++) {
+                    bytFileAnswer[i] = fileSolution.getAnswer(i);
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return unreadable("cannot rebuild the puzzle from its ID, " + e.getMessage());
+            }
+            intLine = 1;
+        }
+
+        if (strLines.length < intLine + (bolHasId ? 9 : 18)) {
+            return unreadable("file ends early");
+        }
+        if (!readRows(strLines, intLine, bytFileCells) || (!bolHasId && !readRows(strLines, intLine + 9, bytFileAnswer))) {
+            return unreadable("a row is too short or holds something other than digits");
+        }
+        return validate(bytFileCells, bytFileAnswer);
+    }
+
+    /**
+     * Description: Returns the puzzle read by the last validateFile, which should have returned VALID. A file with an
+     * ID shares the answer of the puzzle rebuilt from it; otherwise the answer board read from the file is used.
+     */
+    public Puzzle getFilePuzzle() {
+        return fileSolution != null ? new Puzzle(bytFileCells, fileSolution) : new Puzzle(bytFileCells, bytFileAnswer, null);
+    }
+
+    /**
+     * Description: Getter methods for the cell (0-80) the last problem was found in, and the other cell of a
+     * repeated digit. Both are -1 when they don't apply.
+     */
+    public int getIntCell() {
+        return intCell;
+    }
+
+    public int getIntOtherCell() {
+        return intOtherCell;
+    }
+
+    /**
+     * Description: Returns a description of the problem found by the last check, for error messages.
+     */
+    public String getStrProblem() {
+        switch (bytResult) {
+            case VALID:
+                return "the board is valid";
+            case UNREADABLE:
+                return strDetail != null ? strDetail : "cell " + describeCell(intCell) + " doesn't hold a digit";
+            case DUPLICATE:
+                return "cells " + describeCell(intOtherCell) + " and " + describeCell(intCell) + " hold the same digit in one row, column or box";
+            case BAD_ANSWER:
+                return intOtherCell != -1 ? "the answer board repeats a digit at " + describeCell(intOtherCell) + " and " + describeCell(intCell)
+                        : "the answer board has no digit at " + describeCell(intCell);
+            default:
+                return "cell " + describeCell(intCell) + " doesn't match the answer board";
+        }
+    }
+
+    /**
+     * Description: Looks for a digit repeated within a row, column or box, with one mask per unit.
+     * On finding one, sets intCell to the second cell found and intOtherCell to the peer that already held the digit.
+     * Returns true if a digit is repeated.
+     */
+    private boolean findRepeat(byte[] bytCells) {
+        for (int i = 0; i < PeerTable.UNITS; i++) {
+            shrUnitMasks[i] = 0;
+        }
+
+        for (int i = 0; i < 81; i++) {
+            if (bytCells[i] == 0) {
+                continue;
+            }
+
+            int intBit = 1 << (bytCells[i] - 1);
+            for (byte bytUnit : PeerTable.getCellUnits(i)) {
+                if ((shrUnitMasks[bytUnit] & intBit) != 0) {
+                    // Name the earlier cell holding the same digit
+                    intCell = i;
+                    for (byte bytPeer : PeerTable.getPeers(i)) {
+                        if (bytPeer < i && bytCells[bytPeer] == bytCells[i]) {
+                            intOtherCell = bytPeer;
+                            break;
+                        }
+                    }
+                    return true;
+                }
+                shrUnitMasks[bytUnit] |= intBit;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Description: Reads 9 rows of 9 digits starting at line intFirstLine into the cells.
+     * Returns false if a row is too short or holds a character that isn't a digit.
+     */
+    private static boolean readRows(String[] strLines, int intFirstLine, byte[] bytCells) {
+        for (int i = 0; i < 9; i++) {
+            String strLine = strLines[intFirstLine + i];
+            if (strLine.length() < 9) {
+                return false;
+            }
+            for (int j = 0; j < 9; j++) {
+                char chrCell = strLine.charAt(j);
+                if (chrCell < '0' || chrCell > '9') {
+                    return false;
+                }
+                bytCells[i * 9 + j] = (byte) (chrCell - '0');
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Records the result of a check and the cell it concerns, and returns the result.
+     */
+    private byte result(byte bytResult, int intCell) {
+        this.bytResult = bytResult;
+        this.intCell = intCell;
+        return bytResult;
+    }
+
+    /**
+     * Description: Records that a file couldn't be read, with the reason, and returns UNREADABLE.
+     */
+    private byte unreadable(String strReason) {
+        strDetail = strReason;
+        return result(UNREADABLE, -1);
+    }
+
+    /**
+     * Description: Returns a cell (0-80) as "(row, column)", counting from 1 as the game does.
+     */
+    private static String describeCell(int intCell) {
+        return "(" + (intCell / 9 + 1) + ", " + (intCell % 9 + 1) + ")";
+    }
+}
@@ -2,101 +2,267 @@
  * Author: Ibraheem Dawod
  * Date: 01/17/2024
  * Description: CreateBoard class generates a completely unique Sudoku board (answer and playing boards).
- * The class includes recursive methods to populate the board, remove digits to create a playable board, and check the 3x3 matrix.
- * Every method and variable in this class is static, as it used to populate the GameBoard and SpecialBoard classes(instances of these classes).
+ * The class fills the board with an iterative bitmask search, then removes digits to create a playable board
+ * that still has exactly one solution.
+ * Each CreateBoard instance holds its own boards and search state, so one generator can be used per thread (or per request)
+ * to populate GameBoard and SpecialBoard instances in parallel. A single instance is not safe to share between threads.
+ * Every random choice comes from one seeded java.util.Random, so the same seed and difficulty always give the same
+ * puzzle, byte for byte. Each puzzle is generated from its own seed and carries a PuzzleId that rebuilds it.
+ * For EASY, MEDIUM and HARD the Grader checks every removal, so the puzzle needs exactly the human solving
+ * techniques of its difficulty: a removal that would make it harder is undone, and a grid that never gets hard
+ * enough is replaced by a new one. The default generator (difficulty 0) removes digits without grading.
+ * When metrics are enabled, the time, backtracks and solver calls of every puzzle are recorded in Metrics.
  *
  * Methods:
- * - populateBoard(): Populates the answer board with a unique solution.
- * - removeDigits(): Removes a specified number of digits to create a playable board.
- * - createBoard(): Recursive method to create a Sudoku board.
- * - check3x3Matrix(): Checks if a number already exists in the 3x3 matrix of the Sudoku board.
+ * - CreateBoard(): Creates a generator with empty boards.
+ * - CreateBoard(byte bytDifficulty): Creates a generator whose puzzles are graded at the difficulty.
+ * - CreateBoard(byte bytDifficulty, long lngSeed): Creates a generator whose sequence of puzzles is fixed by the seed.
+ * - createPuzzle(): Generates a new puzzle and returns it as an immutable Puzzle.
+ * - createPuzzle(long lngSeed): Generates the puzzle for a seed.
+ * - populateBoard(): Populates the answer board with a unique solution, retrying until the puzzle has the difficulty's grade.
+ * - removeDigits(): Removes digits to create a playable board, keeping only removals that leave a single solution
+ *   and don't grade above the difficulty.
+ * - getBytGrade(): Returns the grade of the last puzzle created.
+ * - getIntBacktracks(): Returns the backtracks made filling the answer grids of the last puzzle.
+ * - createBoard(): Fills the answer board using row, column and box bitmasks and an explicit stack (no recursion).
+ * - findMostConstrainedCell(): Finds the empty cell with the fewest candidates.
  */
 
-// Import Math to use operations
-import java.lang.Math;
-
-// Import ArrayList
-import java.util.ArrayList;
+// Import the seedable random number generator
+import java.util.Random;
 public class CreateBoard {
-    // Static arrays to store the answer and playing boards
-    private static byte[][] bytAnswerBoard = new byte[9][9];
-    private static byte[][] bytPlayingBoard = new byte[9][9];
+    // Arrays to store the answer and playing boards
+    private byte[][] bytAnswerBoard = new byte[9][9];
+    private byte[][] bytPlayingBoard = new byte[9][9];
+
+    // Boards and grade of the closest graded puzzle found so far by populateBoard, kept in case no grid reaches the target
+    private final byte[][] bytBestAnswerBoard = new byte[9][9];
+    private final byte[][] bytBestPlayingBoard = new byte[9][9];
+    private byte bytBestGrade;
+
+    // Bitmasks of the digits already used in each row, column and 3x3 box (bit 0 is digit 1, bit 8 is digit 9)
+    private short[] shrRowMasks = new short[9];
+    private short[] shrColMasks = new short[9];
+    private short[] shrBoxMasks = new short[9];
+
+    // Number of backtracks allowed before generation starts over with a cleared board
+    private static final int BACKTRACK_LIMIT = 1000;
+
+    // Difficulty levels, matching the Easy/Medium/Hard menu choices in Main
+    public static final byte EASY = 1;
+    public static final byte MEDIUM = 2;
+    public static final byte HARD = 3;
+
+    // Version of the generation algorithm, stored in every PuzzleId
+    // Must be raised whenever a change would make the same seed give a different puzzle
+    public static final short ALGORITHM_VERSION = 3;
+
+    // Most digits to remove for each difficulty (index 0 is the default generator's)
+    // The graded difficulties stop earlier if every further removal would break uniqueness or raise the grade
+    private static final byte[] BYT_DIGITS_TO_REMOVE = {40, 46, 52, 58};
 
-    // Static variables for the current row and column during board generation
-    private static byte bytRow;
-    private static byte bytCol;
+    // Number of answer grids tried for a graded puzzle before settling for the closest grade found
+    private static final int GRADE_ATTEMPTS = 50;
 
-    // ArrayList to store numbers that have been tried for a cell during board generation
-    private static ArrayList<Byte> bytNums = new ArrayList<Byte>();
+    // Difficulty (0 for the default generator) and number of digits to remove from the playable board
+    private final byte bytDifficulty;
+    private final byte bytDigitsToRemove;
 
-    // Number of digits to remove from the playable board
-    private static byte bytDigitsToRemove = 40;
+    // Source of every random choice made while generating, reseeded for each puzzle
+    private final Random random = new Random();
+
+    // Source of the seed for each puzzle made by createPuzzle()
+    private final Random seedSource;
+
+    // Solver used to check that the puzzle stays unique while digits are removed
+    private Solver solver = new Solver();
+
+    // Grader used to keep the puzzle at its difficulty while digits are removed, and the grade of the last puzzle
+    private final Grader grader = new Grader();
+    private byte bytGrade;
+
+    // Number of times the solution counter was run while removing digits from the last puzzle
+    private int intSolverCalls;
+
+    // Number of backtracks made while filling the answer grids of the last puzzle, restarts included
+    private int intBacktracks;
+
+    /**
+     * Description: Default constructor for CreateBoard class.
+     * The boards stay empty until populateBoard is called.
+     */
+    public CreateBoard() {
+        this((byte) 0);
+    }
+
+    /**
+     * Description: Constructor for CreateBoard class with a difficulty.
+     * Takes in bytDifficulty (EASY, MEDIUM or HARD), the Grader grade every puzzle is generated to.
+     */
+    public CreateBoard(byte bytDifficulty) {
+        this(bytDifficulty, new Random());
+    }
+
+    /**
+     * Description: Constructor for CreateBoard class with a difficulty and a seed.
+     * The seed fixes the seeds of every puzzle createPuzzle() returns, so the whole sequence can be reproduced.
+     */
+    public CreateBoard(byte bytDifficulty, long lngSeed) {
+        this(bytDifficulty, new Random(lngSeed));
+    }
+
+    private CreateBoard(byte bytDifficulty, Random seedSource) {
+        this.bytDifficulty = bytDifficulty;
+        this.bytDigitsToRemove = BYT_DIGITS_TO_REMOVE[bytDifficulty];
+        this.seedSource = seedSource;
+    }
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Getter methods to retrieve the playing and answer boards.
      */
-    public static byte[][] getBytAnswerBoard() {
+    public byte[][] getBytAnswerBoard() {
         return bytAnswerBoard;
     }
 
-    public static byte[][] getBytPlayingBoard() {
+    public byte[][] getBytPlayingBoard() {
         return bytPlayingBoard;
     }
 
+    /**
+     * Description: Returns how many times the solution counter ran while the last puzzle was being created.
+     */
+    public int getIntSolverCalls() {
+        return intSolverCalls;
+    }
+
+    /**
+     * Description: Returns how many backtracks were made filling the answer grids of the last puzzle, restarts included.
+     */
+    public int getIntBacktracks() {
+        return intBacktracks;
+    }
+
+    /**
+     * Description: Returns the Grader grade of the last puzzle created.
+     */
+    public byte getBytGrade() {
+        return bytGrade;
+    }
+
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Populates the answer board with a unique solution.
-     * This method initializes the row, column, and list of tried numbers.
-     * It then generates the Sudoku board using the createBoard method.
+     * This method generates the Sudoku board using the createBoard method.
      * Finally, it removes a specified number of digits to create a playable board.
+     * For a graded difficulty, removeDigits never goes above the target grade, but some grids never reach it,
+     * so new grids are tried until one does. The puzzle with the highest grade so far is kept aside, and if no grid
+     * reaches the target within GRADE_ATTEMPTS grids, that closest puzzle is put back.
      */
-    public static void populateBoard() {
-        // Initialize row, column, and the list of tried numbers
-        bytRow = 0;
-        bytCol = 0;
-        bytNums.clear();
+    public void populateBoard() {
+        // Time the whole puzzle if metrics are on
+        long lngStartTime = Metrics.ENABLED ? System.nanoTime() : 0;
+
+        // Total solver calls and backtracks over every grid tried
+        int intTotalSolverCalls = 0;
+        int intTotalBacktracks = 0;
+        bytBestGrade = 0;
+
+        for (int i = 0; i < GRADE_ATTEMPTS; i++) {
+            // Generate a complete Sudoku solution in the answer board
+            createBoard();
+            intTotalBacktracks += intBacktracks;
+
+            // Remove a specified number of digits to create a playable board
+            removeDigits();
+            intTotalSolverCalls += intSolverCalls;
+
+            // The grade can only be at or below the target, so stop once it is reached
+            if (bytDifficulty == 0 || bytGrade >= bytDifficulty) {
+                break;
+            }
 
-        // Initialize the answer board with zeros
-        for (int i = 0; i < bytAnswerBoard.length; i++) {
-            for (int j = 0; j < bytAnswerBoard[i].length; j++) {
-                bytAnswerBoard[i][j] = 0;
+            // Keep the closest puzzle so far in case no grid reaches the target
+            if (bytGrade > bytBestGrade) {
+                bytBestGrade = bytGrade;
+                copyBoard(bytAnswerBoard, bytBestAnswerBoard);
+                copyBoard(bytPlayingBoard, bytBestPlayingBoard);
+            }
+
+            // Out of attempts: go back to the closest puzzle found
+            if (i == GRADE_ATTEMPTS - 1 && bytBestGrade > bytGrade) {
+                bytGrade = bytBestGrade;
+                copyBoard(bytBestAnswerBoard, bytAnswerBoard);
+                copyBoard(bytBestPlayingBoard, bytPlayingBoard);
             }
         }
+        intSolverCalls = intTotalSolverCalls;
+        intBacktracks = intTotalBacktracks;
 
-        // Generate the Sudoku board using the createBoard method
-        // While createBoard doesn't return true, call it again with the following parameters
-        while (!createBoard(bytRow, bytCol, (byte) ((Math.random() * 9) + 1), (byte) 1)) {
-            // Update row and column based on the result of the createBoard method
+        // The default generator doesn't grade while removing, so grade the finished puzzle once
+        if (bytDifficulty == 0) {
+            bytGrade = grader.grade(bytPlayingBoard);
+        }
 
-            // If reached the end of the column, go to the next row
-            if (bytCol == 8) {
-                bytCol = 0;
-                bytRow++;
+        if (Metrics.ENABLED) {
+            Metrics.GENERATE_TIME.record(System.nanoTime() - lngStartTime);
+            Metrics.GENERATE_PUZZLES.increment();
+            Metrics.GENERATE_BACKTRACKS.add(intBacktracks);
+            Metrics.GENERATE_SOLVER_CALLS.add(intSolverCalls);
+        }
+    }
 
-                // Otherwise just increment column
-            } else {
-                bytCol++;
-            }
+    /**
+     * Description: Copies one 9x9 board into another.
+     */
+    private static void copyBoard(byte[][] bytSource, byte[][] bytTarget) {
+        for (int i = 0; i < 9; i++) {
+            System.arraycopy(bytSource[i], 0, bytTarget[i], 0, 9);
         }
+    }
+
+    /**
+     * Description: Generates a new puzzle and returns it as an immutable Puzzle.
+     * The returned Puzzle holds copies of the boards, so this generator can be reused straight away.
+     */
+    public Puzzle createPuzzle() {
+        return createPuzzle(seedSource.nextLong());
+    }
 
-        // Remove a specified number of digits to create a playable board
-        removeDigits();
+    /**
+     * Description: Generates the puzzle for a seed and returns it with the PuzzleId that rebuilds it.
+     * The same seed and difficulty always give the same puzzle.
+     */
+    public Puzzle createPuzzle(long lngSeed) {
+        random.setSeed(lngSeed);
+        populateBoard();
+        return new Puzzle(bytPlayingBoard, bytAnswerBoard, new PuzzleId(lngSeed, bytDifficulty, ALGORITHM_VERSION, PuzzleId.checksum(bytPlayingBoard, bytAnswerBoard)));
     }
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
-     * Description: Removes a specified number of digits to create a playable board.
-     * This method initializes a counter for the number of digits to remove.
-     * It copies the answer board to the playing board and randomly removes digits.
+     * Description: Removes a specified number of digits to create a playable board with exactly one solution.
+     * This method copies the answer board to the playing board and visits the cells in a random order.
+     * Each digit is removed and the solution counter is run on the result; if the puzzle no longer has
+     * a single solution the digit is put back. For a graded difficulty the digit is also put back if the puzzle
+     * would then grade above the difficulty. Stops once enough digits are removed or every cell has been tried,
+     * except that a graded puzzle keeps going past its digit count until it reaches its grade.
+     * Package-private so the benchmarks can time it separately from createBoard.
      */
-    private static void removeDigits() {
+    void removeDigits() {
         // Counter for the number of digits to remove
         byte bytCount = bytDigitsToRemove;
 
+        // Cells in the order they will be tried
+        byte[] bytOrder = new byte[81];
+
+        // Reset the solver call counter for this puzzle, and start from the grade of the full grid
+        intSolverCalls = 0;
+        bytGrade = Grader.EASY;
+
         // Copy the answer board to the playing board
         for (int i = 0; i < bytAnswerBoard.length; i++) {
             for (int j = 0; j < bytAnswerBoard[i].length; j++) {
@@ -104,17 +270,40 @@ public class CreateBoard {
             }
         }
 
-        // Randomly remove digits from the playing board
-        while (bytCount > 0) {
-            // Generate random row and column indices
-            byte bytRowElement = (byte) (Math.random() * 9);
-            byte bytColElement = (byte) (Math.random() * 9);
+        // Shuffle the cell order (Fisher-Yates)
+        for (byte i = 0; i < 81; i++) {
+            bytOrder[i] = i;
+        }
+        for (int i = 80; i > 0; i--) {
+            int intSwap = random.nextInt(i + 1);
+            byte bytTemp = bytOrder[i];
+            bytOrder[i] = bytOrder[intSwap];
+            bytOrder[intSwap] = bytTemp;
+        }
+
+        // Try removing each cell in turn, keeping the removal only if the puzzle stays unique
+        for (int i = 0; i < 81 && (bytCount > 0 || bytGrade < bytDifficulty); i++) {
+            byte bytRowElement = (byte) (bytOrder[i] / 9);
+            byte bytColElement = (byte) (bytOrder[i] % 9);
+            byte bytRemoved = bytPlayingBoard[bytRowElement][bytColElement];
 
-            // Check if the cell is not empty
-            if (bytPlayingBoard[bytRowElement][bytColElement] != 0) {
-                // Set the cell to 0 (remove digit) and decrement the counter
-                bytPlayingBoard[bytRowElement][bytColElement] = 0;
+            bytPlayingBoard[bytRowElement][bytColElement] = 0;
+
+            intSolverCalls++;
+            if (solver.countSolutions(bytPlayingBoard, 2) != 1) {
+                // More than one solution, so the digit has to stay
+                bytPlayingBoard[bytRowElement][bytColElement] = bytRemoved;
+            } else if (bytDifficulty == 0) {
                 bytCount--;
+            } else {
+                // Keep the removal only if the puzzle doesn't grade above the difficulty
+                byte bytNewGrade = grader.grade(bytPlayingBoard);
+                if (bytNewGrade <= bytDifficulty) {
+                    bytGrade = bytNewGrade;
+                    bytCount--;
+                } else {
+                    bytPlayingBoard[bytRowElement][bytColElement] = bytRemoved;
+                }
             }
         }
     }
@@ -122,206 +311,170 @@ public class CreateBoard {
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
-     * Description: Recursively generates a Sudoku board by filling cells with random values.
-     * 
-     * This method is called recursively to create a Sudoku board, attempting to fill each cell
-     * with a random value. It follows Sudoku rules, ensuring that no row, column, or 3x3 matrix
-     * contains duplicate values. If a dead-end is reached during the generation, the method backtracks
-     * and tries alternative values. This process continues until the entire board is filled.
-     * Takes in the row, column, number to be checked, and counter for recursion depth.
-     * Returns true having reached last element, otherwise returns false for the while loop in populateBoard.
+     * Description: Fills the answer board with a complete, valid Sudoku solution.
+     *
+     * Every row, column and 3x3 box keeps a 9-bit mask of the digits it already holds, so the candidates
+     * for a cell are found with a couple of bitwise operations instead of scanning 27 cells.
+     * The search always fills the most constrained empty cell next and keeps its progress on an explicit
+     * stack (one entry per filled cell), so it never recurses and its memory use is fixed at 81 entries.
+     * If an unlucky run needs more than BACKTRACK_LIMIT backtracks, the board is cleared and started again,
+     * which keeps generation time bounded.
+     * Package-private so the benchmarks can time it separately from removeDigits.
+     * Returns true once the board has been filled.
      */
-    private static boolean createBoard(byte bytRowElement, byte bytColElement, byte bytNumber, byte bytCounter) {
-
-        // As long as this current number hasn't been set, and the counter hasn't reached 9(will be explained below)
-        if(bytAnswerBoard[bytRowElement][bytColElement] == 0 || bytCounter == 9) {
-
-            // For loop to check if number is in row
-            for (int k = 0; k < 9; k++) {
-                
-                // Goes through 9 elements in the row checking if any of them are equal to the number we want to insert
-                // If they are, enter the following if statement
-                if (bytAnswerBoard[bytRowElement][k] == bytNumber) {
-
-                    // If counter has reached 9
-                    if (bytCounter == 9) {
-
-                        // Set this current element back to 0 and backtrack(trying other numbers)
-                        bytAnswerBoard[bytRowElement][bytColElement] = 0;
-
-                        // If there are elements in the bytNums array, use those elements as guesses
-                        if(bytNums.size() > 0) {
-
-                            // If at the first element, stop backtracking and enter the first element in bytNums array as guess
-                            if(bytColElement == 0 && bytRowElement == 0) {
-                                return createBoard(bytRowElement, bytColElement, bytNums.get(0), (byte)1);
-
-                                // Back track up a row
-                            } else if(bytColElement == 0) {
-                                return createBoard((byte)(bytRowElement-1), (byte)8, bytNums.get(0), bytCounter);
-
-                                // Back track to the left a column
-                            } else {
-                                return createBoard(bytRowElement, (byte)(bytColElement - 1), bytNums.get(0), bytCounter);
-                            }
-                            // If there are no elements in the bytNums array
-                        } else {
-                            // Check if in the first column, but not the first row
-                            if(bytColElement == 0 && bytRowElement != 0) {
-
-                                // Go back a row, and set column to 8
-                                return createBoard((byte)(bytRowElement - 1), (byte)8, bytNumber, bytCounter);
-                            } else {
-
-                                // Go back a column
-                                return createBoard(bytRowElement, (byte)(bytColElement - 1), bytNumber, bytCounter);
-                            }
-                        }
-                        // Counter has NOT reached 9
-                    } else {
-
-                        // If adding one to the number hoping to be added makes it greater than 9, set this back to 1
-                        if((bytNumber+1) > 9) {
-                            return createBoard(bytRowElement, bytColElement, (byte)1, bytCounter);
-
-                            // Otherwise increment the number(this ensures it goes evenly from the initial random number iterating through all numbers 1-9)
-                        } else {
-                            return createBoard(bytRowElement, bytColElement, (byte)(bytNumber + 1), bytCounter);
-                        }
-                    }
-                }
-            }
-
-            // If the counter is 9 and the current element hasn't been added to the bytNums array yet, add it
-            if(bytCounter == 9 && !bytNums.contains(bytNumber)) {
-                bytNums.add(bytNumber);
+    boolean createBoard() {
+        // Cell (0-80) filled at each depth of the stack, and the digits already tried for it
+        byte[] bytStackCells = new byte[81];
+        short[] shrStackTried = new short[81];
+
+        // Current depth of the stack (number of filled cells) and the number of backtracks made this run
+        int intDepth = 0;
+        int intRunBacktracks = 0;
+        intBacktracks = 0;
+
+        // True when the cell at the current depth still has to be chosen
+        boolean bolNewCell = true;
+
+        clearMasks();
+
+        while (intDepth < 81) {
+            if (bolNewCell) {
+                // Pick the empty cell with the fewest candidates and push it onto the stack
+                bytStackCells[intDepth] = findMostConstrainedCell();
+                shrStackTried[intDepth] = 0;
+                bolNewCell = false;
             }
 
-            // Now are checking if the number is in the column
-            for(int k=0; k<9; k++) {
-                if(bytAnswerBoard[k][bytColElement] == bytNumber) {
-                    // Number already exists in the column
-
-                    // If counter is 9
-                    if (bytCounter == 9) {
-
-                        // Set this current element back to 0 and backtrack
-                        bytAnswerBoard[bytRowElement][bytColElement] = 0;
-
-                        // Don't backtrack if it's the first element
-                        if(bytColElement == 0 && bytRowElement == 0) {
-                            return createBoard(bytRowElement, bytColElement, bytNumber, (byte)1);
-
-                            // Backtrack up a row
-                        } else if(bytColElement == 0) {
-                            return createBoard((byte)(bytRowElement-1), (byte)8, bytNumber, bytCounter);
-
-                            // Backtrack left a column
-                        } else {
-                            return createBoard(bytRowElement, (byte)(bytColElement - 1), bytNumber, bytCounter);
-                        }
-                        // If counter is not 9
-                    } else {
-
-                        // If adding one to the number hoping to be added makes it greater than 9, set this back to 1
-                        if((bytNumber+1) > 9) {
-
-                            // Here we are incrementing the counter. The counter acts as a way to see if we reach a point where no number works in that square.
-                            // What this does is it increments, and once it reaches 9(i.e the entire column), that means there is a number that works in the row but not in the column.
-                            // Since we are filling the array row by row, it is necesarry it works in the row but not immediately necesarry it works in the column
-                            // So whenever there is a bytCounter == 9, the current r value works in the row but not in the column, which makes backtracking much more efficient as it only tries numbers that work in the column
-                            return createBoard(bytRowElement, bytColElement, (byte)1, (byte)(bytCounter + 1));
-
-                            // Otherwise increment the number(this ensures it goes evenly from the initial random number iterating through all numbers 1-9)
-                        } else {
-                            return createBoard(bytRowElement, bytColElement, (byte)(bytNumber + 1), (byte)(bytCounter + 1));
-                        }
-                    }
+            byte bytCell = bytStackCells[intDepth];
+            byte bytRowElement = (byte) (bytCell / 9);
+            byte bytColElement = (byte) (bytCell % 9);
+            byte bytBox = getBox(bytRowElement, bytColElement);
+
+            // Candidates are the digits not used in the row, column or box that haven't been tried here yet
+            int intCandidates = ~(shrRowMasks[bytRowElement] | shrColMasks[bytColElement] | shrBoxMasks[bytBox]) & 0x1FF & ~shrStackTried[intDepth];
+
+            if (intCandidates == 0) {
+                // Dead end, so pop this cell off the stack and undo the digit placed in the cell before it
+                intDepth--;
+                intRunBacktracks++;
+                intBacktracks++;
+
+                // Too many backtracks, start again with a cleared board
+                if (intDepth < 0 || intRunBacktracks > BACKTRACK_LIMIT) {
+                    clearMasks();
+                    intDepth = 0;
+                    intRunBacktracks = 0;
+                    bolNewCell = true;
+                } else {
+                    removeNumber(bytStackCells[intDepth]);
                 }
-            }
-
-            // Check 3x3 matrix if number exists
-            if (!check3x3Matrix(bytRowElement, bytColElement, bytNumber)) {
-
-                // If counter is 9
-                if (bytCounter == 9) {
+            } else {
+                // Choose one of the remaining candidates at random, mark it as tried and place it
+                int intBit = pickRandomBit(intCandidates);
+                shrStackTried[intDepth] |= intBit;
+                placeNumber(bytCell, (byte) (Integer.numberOfTrailingZeros(intBit) + 1));
 
-                    // Set current cell to 0 and backtrack
-                    bytAnswerBoard[bytRowElement][bytColElement] = 0;
+                intDepth++;
+                bolNewCell = true;
+            }
+        }
 
-                    // Backtrack a row up, column to 8
-                    if(bytColElement==0) {
-                        return createBoard((byte)(bytRowElement - 1), (byte)8, bytNumber, bytCounter);
-                    } else {
+        return true;
+    }
 
-                        // Backtrack a column to the left
-                        return createBoard(bytRowElement, (byte)(bytColElement - 1), bytNumber, bytCounter);
-                    }
+    /**
+     * Description: Finds the empty cell with the fewest possible candidates.
+     * Stops early when a cell with 0 or 1 candidates is found, as no cell can be more constrained than that.
+     * Returns the index (0-80) of the chosen cell.
+     */
+    private byte findMostConstrainedCell() {
+        byte bytBestCell = -1;
+        int intBestCount = 10;
 
-                    // If counter is not 9
-                } else {
+        for (byte bytCell = 0; bytCell < 81; bytCell++) {
+            byte bytRowElement = (byte) (bytCell / 9);
+            byte bytColElement = (byte) (bytCell % 9);
 
-                    // If adding one to the number hoping to be added makes it greater than 9, set this back to 1
-                    if((bytNumber+1) > 9) {
+            // Only empty cells can be chosen
+            if (bytAnswerBoard[bytRowElement][bytColElement] == 0) {
+                int intCount = Integer.bitCount(~(shrRowMasks[bytRowElement] | shrColMasks[bytColElement] | shrBoxMasks[getBox(bytRowElement, bytColElement)]) & 0x1FF);
 
-                        // Counter increments for same reason as it does in the column for loop
-                        return createBoard(bytRowElement, bytColElement, (byte)1, (byte)(bytCounter+1));
+                if (intCount < intBestCount) {
+                    bytBestCell = bytCell;
+                    intBestCount = intCount;
 
-                        // Otherwise increment the number(this ensures it goes evenly from the initial random number iterating through all numbers 1-9)
-                    } else {
-                        return createBoard(bytRowElement, bytColElement, (byte)(bytNumber+1), (byte)(bytCounter+1));
+                    // Nothing can beat a forced or impossible cell
+                    if (intCount <= 1) {
+                        return bytBestCell;
                     }
                 }
             }
+        }
+        return bytBestCell;
+    }
+
+    /**
+     * Description: Picks one set bit of the candidate mask at random.
+     * Returns a mask with only the chosen bit set.
+     */
+    private int pickRandomBit(int intCandidates) {
+        // Choose which of the set bits to keep
+        int intSkip = random.nextInt(Integer.bitCount(intCandidates));
 
+        // Clear the lowest set bit until the chosen one is the lowest
+        for (int i = 0; i < intSkip; i++) {
+            intCandidates &= intCandidates - 1;
         }
+        return Integer.lowestOneBit(intCandidates);
+    }
 
-        // The number can be inserted in the current position
-        bytRow = bytRowElement;
-        bytCol = bytColElement;
-        bytAnswerBoard[bytRowElement][bytColElement] = bytNumber;
+    /**
+     * Description: Places a number in a cell of the answer board and marks it as used in the cell's row, column and box.
+     */
+    private void placeNumber(byte bytCell, byte bytNumber) {
+        byte bytRowElement = (byte) (bytCell / 9);
+        byte bytColElement = (byte) (bytCell % 9);
+        short shrBit = (short) (1 << (bytNumber - 1));
 
-        // Once row and column is 8, we have reached the end of the array and board is filled
-        if(bytRowElement == 8 && bytColElement == 8) {
-            return true;
+        bytAnswerBoard[bytRowElement][bytColElement] = bytNumber;
+        shrRowMasks[bytRowElement] |= shrBit;
+        shrColMasks[bytColElement] |= shrBit;
+        shrBoxMasks[getBox(bytRowElement, bytColElement)] |= shrBit;
+    }
 
-            // Return false to return to the while loop and allow it to insert the next number into the cell in order
-        } else {
-            return false;
-        }
+    /**
+     * Description: Removes the number in a cell of the answer board and frees it in the cell's row, column and box.
+     */
+    private void removeNumber(byte bytCell) {
+        byte bytRowElement = (byte) (bytCell / 9);
+        byte bytColElement = (byte) (bytCell % 9);
+        short shrBit = (short) (1 << (bytAnswerBoard[bytRowElement][bytColElement] - 1));
+
+        bytAnswerBoard[bytRowElement][bytColElement] = 0;
+        shrRowMasks[bytRowElement] &= ~shrBit;
+        shrColMasks[bytColElement] &= ~shrBit;
+        shrBoxMasks[getBox(bytRowElement, bytColElement)] &= ~shrBit;
     }
 
     /**
-     * Author: Ibraheem Dawod
-     * Date: 01/17/2024
-     * Description: Checks whether placing a specific value in a 3x3 matrix violates Sudoku rules.
-     * This method verifies if placing a given value in a 3x3 matrix starting from the specified
-     * position (i, j) would violate Sudoku rules. It checks for duplicate values within the
-     * corresponding 3x3 matrix and returns true if the placement is valid, and false otherwise.
-     * 
-     * Takes in the row, column and the number that wishes to be placed
+     * Description: Empties the answer board and resets the row, column and box masks.
      */
-    private static boolean check3x3Matrix(byte bytRowElement, byte bytColElement, byte bytNumber) {
-        // Calculate the starting row index of the 3x3 matrix based on the current row index
-        byte bytStartRow = (byte)(bytRowElement - bytRowElement % 3);
-
-        // Calculate the starting column index of the 3x3 matrix based on the current column index
-        byte bytStartCol = (byte)(bytColElement - bytColElement % 3);
-
-        // Loop through each matrix row of the 3x3 matrix
-        for (int i = 0; i < 3; i++) {
-            // Loop through each matrix column of the 3x3 matrix
-            for (int j = 0; j < 3; j++) {
-                // Check if the current number already exists in the 3x3 matrix
-                if (bytAnswerBoard[bytStartRow + i][bytStartCol + j] == bytNumber) {
-                    // Return false if the number already exists in the 3x3 matrix
-                    return false; // Number already exists in the 3x3 matrix
-                }
+    private void clearMasks() {
+        for (int i = 0; i < 9; i++) {
+            shrRowMasks[i] = 0;
+            shrColMasks[i] = 0;
+            shrBoxMasks[i] = 0;
+
+            for (int j = 0; j < 9; j++) {
+                bytAnswerBoard[i][j] = 0;
             }
         }
+    }
 
-        // If the loop completes without finding a matching number, return true
-        // This indicates that the number can be inserted in the 3x3 matrix
-        return true;
+    /**
+     * Description: Returns the index (0-8) of the 3x3 box that contains the given row and column, counting left to right, top to bottom.
+     */
+    private byte getBox(byte bytRowElement, byte bytColElement) {
+        return (byte) ((bytRowElement / 3) * 3 + bytColElement / 3);
     }
 }
\ No newline at end of file
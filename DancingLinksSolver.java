@@ -0,0 +1,299 @@
+/**
+ * Description: DancingLinksSolver class solves 9x9 boards as an exact cover problem with Knuth's Algorithm X and
+ * Dancing Links. Each of the 729 rows of the matrix places one digit in one cell, and covers 4 of its 324 columns:
+ * the cell is filled, and the digit is used in its row, its column and its box. A solution is a set of 81 rows that
+ * covers every column exactly once. The search always branches on the column with the fewest rows left.
+ * The whole matrix (one root, 324 column headers and 4 nodes per row) is built once, in parallel int arrays, when the
+ * solver is made. A search covers the givens' rows, searches, then uncovers everything in reverse, which leaves the
+ * links exactly as they were, so solving never allocates and the matrix is reused for every board.
+ * A DancingLinksSolver can't be shared between threads, so keep one per thread.
+ *
+ * Methods:
+ * - solve(byte[][] bytBoard, int intLimit): Solves a board and returns the first solution, the capped solution count and search statistics.
+ * - countSolutions(byte[][] bytBoard, int intLimit): Counts the solutions of a board, up to the limit.
+ * - getLngNodes(), getLngBacktracks(): Statistics of the last search.
+ */
+public class DancingLinksSolver implements SudokuSolver {
+    // Matrix dimensions: 729 rows (cell and digit), 324 columns in 4 groups of 81, and 4 nodes per row
+    private static final int ROWS = 729;
+    private static final int COLUMNS = 324;
+    private static final int ROOT = 0;
+    private static final int FIRST_ROW_NODE = COLUMNS + 1;
+    private static final int NODES = FIRST_ROW_NODE + ROWS * 4;
+
+    // Links of every node (left, right, up, down), its column header, and the matrix row it belongs to
+    private final int[] intLeft = new int[NODES];
+    private final int[] intRight = new int[NODES];
+    private final int[] intUp = new int[NODES];
+    private final int[] intDown = new int[NODES];
+    private final int[] intColumn = new int[NODES];
+    private final int[] intRow = new int[NODES];
+
+    // Number of rows left in each column, indexed by header node
+    private final int[] intSizes = new int[COLUMNS + 1];
+
+    // Rows chosen so far (givens first, then the search), and how many
+    private final int[] intChosen = new int[81];
+    private int intChosenCount;
+
+    // First solution found by the current search
+    private final byte[] bytSolution = new byte[81];
+
+    // Statistics for the current search: solutions found, rows tried, and dead ends reached
+    private long lngSolutions;
+    private long lngNodes;
+    private long lngBacktracks;
+
+    /**
+     * Description: Constructor for DancingLinksSolver class. Builds the full exact cover matrix once.
+     */
+    public DancingLinksSolver() {
+        // The root and column headers form one circular list
+        for (int i = 0; i <= COLUMNS; i++) {
+            intLeft[i] = i == 0 ? COLUMNS : i - 1;
+            intRight[i] = i == COLUMNS ? 0 : i + 1;
+            intUp[i] = i;
+            intDown[i] = i;
+            intColumn[i] = i;
+        }
+
+        // Add each row's 4 nodes to the bottom of their columns, and link them into a circle of their own
+        for (int intMatrixRow = 0; intMatrixRow < ROWS; intMatrixRow++) {
+            int intCell = intMatrixRow / 9;
+            int intDigit = intMatrixRow % 9;
+            int intRowElement = intCell / 9;
+            int intColElement = intCell % 9;
+            int intBox = (intRowElement / 3) * 3 + intColElement / 3;
+
+            // Header nodes are numbered from 1, after the root
+            int[] intHeaders = {
+                1 + intCell,
+                1 + 81 + intRowElement * 9 + intDigit,
+                1 + 162 + intColElement * 9 + intDigit,
+                1 + 243 + intBox * 9 + intDigit
+            };
+
+            int intFirst = FIRST_ROW_NODE + intMatrixRow * 4;
+            for (int k = 0; k < 4; k++) {
+                int intNode = intFirst + k;
+                int intHeader = intHeaders[k];
+
+                intColumn[intNode] = intHeader;
+                intRow[intNode] = intMatrixRow;
+                intUp[intNode] = intUp[intHeader];
+                intDown[intNode] = intHeader;
+                intDown[intUp[intHeader]] = intNode;
+                intUp[intHeader] = intNode;
+                intSizes[intHeader]++;
+
+                intLeft[intNode] = k == 0 ? intFirst + 3 : intNode - 1;
+                intRight[intNode] = k == 3 ? intFirst : intNode + 1;
+            }
+        }
+    }
+
+    /**
+     * Description: Solves the given board without changing it.
+     * Takes in bytBoard (the 9x9 board to solve) and intLimit (the number of solutions after which the search stops).
+     * Returns a SolverResult with the first solution (or null), the number of solutions found (at most intLimit) and the search statistics.
+     */
+    @Override
+    public SolverResult solve(byte[][] bytBoard, int intLimit) {
+        long lngStartTime = System.nanoTime();
+        int intCount = countSolutions(bytBoard, intLimit);
+        byte[][] bytSolved = null;
+
+        // Copy out the first solution if there was one
+        if (intCount > 0) {
+            bytSolved = new byte[9][9];
+            for (int i = 0; i < 81; i++) {
+                bytSolved[i / 9][i % 9] = bytSolution[i];
+            }
+        }
+
+        return new SolverResult(bytSolved, intCount, lngNodes, lngBacktracks, System.nanoTime() - lngStartTime);
+    }
+
+    /**
+     * Description: Counts the solutions of the given board, stopping as soon as the limit is reached.
+     * The givens' rows are chosen first; a given whose columns are already covered breaks the rules, so the board has 0 solutions.
+     * The matrix is always restored before returning.
+     * Returns the number of solutions found, at most intLimit.
+     */
+    @Override
+    public int countSolutions(byte[][] bytBoard, int intLimit) {
+        lngSolutions = 0;
+        lngNodes = 0;
+        lngBacktracks = 0;
+        intChosenCount = 0;
+
+        int intFound = 0;
+        boolean bolValid = true;
+
+        // Choose the row of every given, as long as none of its columns is already covered
+        for (int i = 0; i < 81 && bolValid; i++) {
+            byte bytNumber = bytBoard[i / 9][i % 9];
+            if (bytNumber != 0) {
+                int intFirst = FIRST_ROW_NODE + (i * 9 + bytNumber - 1) * 4;
+                if (isRowAvailable(intFirst)) {
+                    chooseRow(intFirst);
+                } else {
+                    bolValid = false;
+                }
+            }
+        }
+
+        int intGivens = intChosenCount;
+        if (bolValid) {
+            intFound = search(intLimit);
+        }
+
+        // Put the givens' columns back, last chosen first
+        for (int i = intGivens - 1; i >= 0; i--) {
+            unchooseRow(FIRST_ROW_NODE + intChosen[i] * 4);
+        }
+        intChosenCount = 0;
+
+        return intFound;
+    }
+
+    /**
+     * Description: Getter methods for the statistics of the last search.
+     */
+    @Override
+    public long getLngNodes() {
+        return lngNodes;
+    }
+
+    @Override
+    public long getLngBacktracks() {
+        return lngBacktracks;
+    }
+
+    /**
+     * Description: Algorithm X. Covers the column with the fewest rows, then tries each of its rows in turn.
+     * Every cover is undone before returning, so the matrix is left as it was found.
+     * Each level chooses one row, so the recursion is never deeper than 81 calls.
+     * Returns the number of solutions found below this point, at most intLimit.
+     */
+    private int search(int intLimit) {
+        // No columns left means every constraint is met; keep the first solution
+        if (intRight[ROOT] == ROOT) {
+            if (lngSolutions == 0) {
+                for (int i = 0; i < intChosenCount; i++) {
+                    bytSolution[intChosen[i] / 9] = (byte) (intChosen[i] % 9 + 1);
+                }
+            }
+            lngSolutions++;
+            return 1;
+        }
+
+        // Find the column with the fewest rows
+        int intBest = intRight[ROOT];
+        for (int c = intRight[intBest]; c != ROOT && intSizes[intBest] > 1; c = intRight[c]) {
+            if (intSizes[c] < intSizes[intBest]) {
+                intBest = c;
+            }
+        }
+
+        // A column no row can cover is a dead end
+        if (intSizes[intBest] == 0) {
+            lngBacktracks++;
+            return 0;
+        }
+
+        int intFound = 0;
+        cover(intBest);
+
+        // Try every row of the chosen column
+        for (int r = intDown[intBest]; r != intBest && intFound < intLimit; r = intDown[r]) {
+            lngNodes++;
+            intChosen[intChosenCount++] = intRow[r];
+            for (int j = intRight[r]; j != r; j = intRight[j]) {
+                cover(intColumn[j]);
+            }
+
+            intFound += search(intLimit - intFound);
+
+            for (int j = intLeft[r]; j != r; j = intLeft[j]) {
+                uncover(intColumn[j]);
+            }
+            intChosenCount--;
+        }
+
+        uncover(intBest);
+        return intFound;
+    }
+
+    /**
+     * Description: Returns true if none of the columns of the row starting at node intFirst has been covered yet.
+     * A covered column has been unlinked, so its neighbours no longer point back at it.
+     */
+    private boolean isRowAvailable(int intFirst) {
+        for (int k = 0; k < 4; k++) {
+            int intHeader = intColumn[intFirst + k];
+            if (intRight[intLeft[intHeader]] != intHeader) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Adds the row starting at node intFirst to the solution and covers its 4 columns.
+     */
+    private void chooseRow(int intFirst) {
+        intChosen[intChosenCount++] = intRow[intFirst];
+        int intNode = intFirst;
+        do {
+            cover(intColumn[intNode]);
+            intNode = intRight[intNode];
+        } while (intNode != intFirst);
+    }
+
+    /**
+     * Description: Uncovers the 4 columns of the row starting at node intFirst, in the reverse order of chooseRow.
+     */
+    private void unchooseRow(int intFirst) {
+        int intNode = intLeft[intFirst];
+        while (true) {
+            uncover(intColumn[intNode]);
+            if (intNode == intFirst) {
+                break;
+            }
+            intNode = intLeft[intNode];
+        }
+    }
+
+    /**
+     * Description: Removes a column from the header list, and every row that has a node in it from the other columns.
+     */
+    private void cover(int intHeader) {
+        intLeft[intRight[intHeader]] = intLeft[intHeader];
+        intRight[intLeft[intHeader]] = intRight[intHeader];
+
+        for (int i = intDown[intHeader]; i != intHeader; i = intDown[i]) {
+            for (int j = intRight[i]; j != i; j = intRight[j]) {
+                intUp[intDown[j]] = intUp[j];
+                intDown[intUp[j]] = intDown[j];
+                intSizes[intColumn[j]]--;
+            }
+        }
+    }
+
+    /**
+     * Description: Puts back a column removed by cover, relinking everything in exactly the reverse order.
+     */
+    private void uncover(int intHeader) {
+        for (int i = intUp[intHeader]; i != intHeader; i = intUp[i]) {
+            for (int j = intLeft[i]; j != i; j = intLeft[j]) {
+                intSizes[intColumn[j]]++;
+                intUp[intDown[j]] = j;
+                intDown[intUp[j]] = j;
+            }
+        }
+
+        intRight[intLeft[intHeader]] = intHeader;
+        intLeft[intRight[intHeader]] = intHeader;
+    }
+}
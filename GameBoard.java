@@ -4,14 +4,50 @@
  * Description: GameBoard class serves as the fundamental structure for a Sudoku game, managing core functionalities.
  * It handles the game boards (answer and playing boards), player mistakes, and offers methods for various game operations,
  * including move validation, game saving, and checking if the board is completely filled.
+ * The playing board is kept as one flat array of 81 cells, and the answer board is never copied: it is read from the
+ * immutable Puzzle being played, which every board playing that puzzle shares. This keeps each live board to a
+ * handful of small arrays, so a server can hold many sessions at once.
+ * A board can have a MoveJournal, which records every correct move, hint and mistake: it gives the board undo and
+ * redo, and if it has a file it autosaves each move by appending it.
+ * Players can also pencil in notes: each cell has a 9-bit mask of noted digits, and when a cell is filled its digit
+ * is struck from the notes of its 20 peers, read from the PeerTable, so updating the notes costs the same 20 steps
+ * whatever the state of the board. The notes array is only made once the first note is added.
+ * Saves are written by the shared SaveQueue on a background thread, from a copy of the board taken when the save is made.
+ * Loads, saves, moves, mistakes and renders are counted and timed in Metrics when metrics are enabled.
  * 
  * Methods:
- * - GameBoard(): Default constructor that populates the boards using the CreateBoard class.
+ * - GameBoard(): Default constructor that populates the boards using a new CreateBoard generator.
+ * - GameBoard(CreateBoard generator): Constructor that populates the boards using the given generator.
+ * - GameBoard(Puzzle puzzle): Constructor that copies the boards from a ready-made puzzle.
  * - GameBoard(String strFileName): Constructor with a parameter for loading a game from a file.
+ * - GameBoard(PuzzleBank bank, long lngIndex): Constructor that loads puzzle N from a binary puzzle bank.
+ * - GameBoard(PuzzleId puzzleId): Constructor that rebuilds a generated puzzle from its ID.
+ * - getPuzzle(): Returns a copy of the boards as a Puzzle.
+ * - getPuzzleId(): Returns the ID of the puzzle being played, if it was generated.
+ * - getCell(int intRow, int intCol): Returns the digit in a cell of the playing board.
  * - populateBoard(String strFileName): Populates the boards from a specified file.
- * - validateMove(byte bytUserRow, byte bytUserCol, byte bytAns): Validates a player's move on the board.
- * - saveGame(): Saves the current game state to a file.
- * - isBoardFilled(): Checks if the Sudoku board is completely filled.
+ * - makeMove(byte bytUserRow, byte bytUserCol, byte bytAns): Applies a player's move without any console input or output.
+ * - validateMove(byte bytUserRow, byte bytUserCol, byte bytAns): Validates a player's move on the board and reports it on the console.
+ * - startJournal(String strFileName): Starts recording moves for undo and redo, autosaving them to a file if one is named.
+ * - getJournal(): Returns the board's MoveJournal, or null if it has none.
+ * - undo(), redo(): Undo the last move or hint, or redo the last one undone. Mistakes can't be undone.
+ * - toggleNote(int intRow, int intCol, int intDigit): Adds or removes a pencil mark.
+ * - getNotes(int intRow, int intCol): Returns the pencil marks of a cell as a 9-bit mask.
+ * - fillNotes(), clearNotes(): Pencil in every possible digit of every empty cell, or remove every pencil mark.
+ * - saveGame(): Prompts for a file name and saves the current game state to it.
+ * - saveGame(String strFileName): Saves the current game state to the named file, waiting until it is written.
+ * - saveGameAsync(String strFileName): Queues a save of the current game state and returns a future for it.
+ * - getSaveBytes(): Returns the text of a save file for the current game state.
+ * - isBoardFilled(): Checks if the Sudoku board is completely filled, using the count of empty cells.
+ * - getBytEmptyCells(), getBytProgress(): Return the empty cells left and the percentage of the puzzle completed.
+ * - isRowComplete(), isColComplete(), isBoxComplete(): Check whether a unit is completely filled.
+ * - revealCell(int intRow, int intCol): Reveals a cell and updates the fill counters and empty-cell list.
+ * - hideCell(int intCell): Empties a revealed cell again, undoing revealCell.
+ * - applyRecord(int intRecord), undoRecord(int intRecord): Apply or undo a MoveJournal record.
+ * - setRandom(Random random): Sets a seeded source of random numbers for hints.
+ * - getRandomEmptyCell(), getMostConstrainedEmptyCell(): Pick an empty cell for a hint.
+ * - appendHeader(BoardRenderer renderer): Appends the mistakes header shown above the board.
+ * - print(PrintStream out): Prints the board to a stream without building a String.
  * - toString(): Overrides the default toString method to represent the GameBoard as a formatted string.
  */
 
@@ -20,12 +56,29 @@ import java.io.*;
 
 // Imports all java utilities
 import java.util.*;
-public class GameBoard
+
+// Import the per-thread random number generator
+import java.util.concurrent.ThreadLocalRandom;
+
+// Import the path, charset and future classes used by saves
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+public class GameBoard implements BoardHeader
 {
-    // Two-dimensional arrays representing the answer and playing boards
-    // These are protected so that they can't be accessed outside of this class except to children of GameBoard(SpecialBoard)
-    protected byte[][] bytAnswerBoard = new byte[9][9];
-    protected byte[][] bytPlayingBoard = new byte[9][9];
+    // Playing board as 81 cells, row by row (0 means empty)
+    // This is protected so that it can't be accessed outside of this class except to children of GameBoard(SpecialBoard)
+    protected byte[] bytPlayingCells = new byte[81];
+
+    // Puzzle being played, which holds the answer board and the puzzle's ID
+    // Puzzles are immutable, so every board playing the same puzzle shares one copy of its answer
+    private Puzzle puzzle;
+
+    // Puzzle used when a board couldn't be loaded: every cell empty, with no answers
+    private static final Puzzle EMPTY_PUZZLE = new Puzzle(new byte[81], new byte[81], null);
 
     // Number of mistakes made by the player
     // This is protected so that it can't be accessed outside of this class except to children of GameBoard(SpecialBoard)
@@ -34,41 +87,125 @@ public class GameBoard
     // Flag indicating whether the game is won
     private boolean bolGameWon;
 
+    // Number of empty cells left, and the number that were empty when the game started
+    private byte bytEmptyCells;
+    private byte bytStartingEmptyCells;
+
+    // Dense list of the empty cells (0-80) in the first 81 entries, of which the first bytEmptyCells are used, then
+    // the position of every cell in that list (-1 once filled) in the next 81, so a cell can be removed by swapping
+    // in the last entry. Both halves share one array to keep the board small
+    private byte[] bytEmptyIndex = new byte[162];
+    private static final int EMPTY_POSITION = 81;
+
+    // Source of random numbers for hints; null means ThreadLocalRandom
+    private Random random;
+
+    // Number of filled cells in each row (entries 0-8), column (9-17) and 3x3 box (18-26), kept up to date as cells are revealed
+    private byte[] bytUnitFill = new byte[27];
+    private static final int COL_FILL = 9;
+    private static final int BOX_FILL = 18;
+
+    // Units completed by the last correct move
+    private byte bytLastCompleted;
+
+    // History of the moves made, for undo, redo and autosave; null until a journal is started
+    private MoveJournal journal;
+
+    // Pencil marks of every cell as a 9-bit mask (bit 0 is digit 1); null until the first note is added
+    private short[] shrNotes;
+
+    // Results returned by makeMove
+    public static final byte MOVE_CORRECT = 0;
+    public static final byte MOVE_ALREADY_REVEALED = 1;
+    public static final byte MOVE_WRONG = 2;
+    public static final byte MOVE_OUT_OF_MISTAKES = 3;
+
+    // Flags returned by revealCell for the units a reveal completed
+    public static final byte ROW_COMPLETED = 1;
+    public static final byte COL_COMPLETED = 2;
+    public static final byte BOX_COMPLETED = 4;
+
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Default constructor for GameBoard class.
-     * Populates the game boards using the CreateBoard class.
+     * Populates the game boards using a new CreateBoard generator.
      */
     public GameBoard() {
-        
-        // Call the populateBoard method in CreateBOard
-        CreateBoard.populateBoard();
-        
+        this(new CreateBoard());
+    }
+
+    /**
+     * Description: Constructor for GameBoard class with a generator.
+     * Populates the game boards using the provided CreateBoard instance, so each thread can reuse its own generator.
+     * Takes in generator, the CreateBoard used to generate the puzzle.
+     */
+    public GameBoard(CreateBoard generator) {
+        this(generator.createPuzzle());
+    }
+
+    /**
+     * Description: Constructor for GameBoard class with a ready-made puzzle.
+     * Copies the playing board out of the puzzle, which is how boards taken from the PuzzlePool are created.
+     * The answer board isn't copied: the board keeps a reference to the immutable puzzle instead.
+     * Takes in puzzle, the Puzzle to play.
+     */
+    public GameBoard(Puzzle puzzle) {
+
         // Reset mistakes
         this.bytMistakes = 0;
-        
-        // Copy both arrays from the CreateBoard class to this class
-        for (int i = 0; i < bytAnswerBoard.length; i++) {
-            for (int j = 0; j < bytAnswerBoard[i].length; j++) {
-                this.bytPlayingBoard[i][j] = CreateBoard.getBytPlayingBoard()[i][j];
-                this.bytAnswerBoard[i][j] = CreateBoard.getBytAnswerBoard()[i][j];
-            }
-        }
+
+        // Copy the playing board from the puzzle to this class, and share its answer board
+        puzzle.copyPlayingCells(this.bytPlayingCells);
+        this.puzzle = puzzle;
+
+        // Count the filled cells of the new board
+        countFilledCells();
     }
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Constructor for GameBoard class with a file name.
-     * Populates the game boards using the provided file.
+     * Populates the game boards using the provided file. Files are looked up in the shared PuzzleCache first, so a
+     * file that has already been loaded (and hasn't changed since) is copied from memory instead of being reparsed.
      * Takes in strFileName, the name of the file containing the Sudoku puzzle.
      */
     public GameBoard(String strFileName) {
         this.bytMistakes = 0;
-     
-        // call the function to populate board
-        populateBoard(strFileName);
+
+        // Use the cached copy of the file if there is one
+        PuzzleCache cache = PuzzleCache.getShared();
+        String strKey = PuzzleCache.fileKey(strFileName);
+        Puzzle puzzle = cache.get(strKey);
+
+        if (puzzle != null) {
+            puzzle.copyPlayingCells(this.bytPlayingCells);
+            this.puzzle = puzzle;
+            countFilledCells();
+        } else if (populateBoard(strFileName) && strKey != null && strKey.equals(PuzzleCache.fileKey(strFileName))) {
+            // call the function to populate board, then cache the puzzle it read, unless the file changed while it was read
+            cache.put(strKey, this.puzzle);
+        }
+    }
+
+    /**
+     * Description: Constructor for GameBoard class with a puzzle bank and index.
+     * Populates the game boards straight from the binary record of puzzle lngIndex in the bank.
+     * Takes in bank (an open PuzzleBank) and lngIndex (the number of the puzzle, starting at 0).
+     */
+    public GameBoard(PuzzleBank bank, long lngIndex) {
+        this(bank.getPuzzle(lngIndex));
+    }
+
+    /**
+     * Description: Constructor for GameBoard class with a puzzle ID.
+     * Rebuilds the generated puzzle the ID names, so a shared or stored ID gives the same board again.
+     * The puzzle comes from the shared PuzzleCache if it has been built before.
+     * Takes in puzzleId, the PuzzleId of the puzzle to play.
+     */
+    public GameBoard(PuzzleId puzzleId) {
+        this(PuzzleCache.getShared().getPuzzle(puzzleId));
     }
 
     /**
@@ -81,123 +218,353 @@ public class GameBoard
         return bolGameWon;
     }
 
+    /**
+     * Description: Returns a copy of the current playing board and the answer board as an immutable Puzzle.
+     */
+    public Puzzle getPuzzle() {
+        return new Puzzle(bytPlayingCells, puzzle);
+    }
+
+    /**
+     * Description: Returns the ID of the puzzle being played, or null if it wasn't generated by CreateBoard.
+     */
+    public PuzzleId getPuzzleId() {
+        return puzzle.getPuzzleId();
+    }
+
+    /**
+     * Description: Returns the digit in a cell of the playing board (row and column 0-8), or 0 if it is empty.
+     */
+    public byte getCell(int intRow, int intCol) {
+        return bytPlayingCells[intRow * 9 + intCol];
+    }
+
+    /**
+     * Description: Returns the answer for a cell (0-80). Used by MoveJournal to check records as it replays them.
+     */
+    byte getAnswer(int intCell) {
+        return puzzle.getAnswer(intCell);
+    }
+
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Populates the game boards from a file.
      * The method reads the provided file and fills both the answer and playing boards.
+     * If the file starts with an "ID" line, the answer board is rebuilt from the puzzle ID and only the playing board
+     * follows; otherwise the playing board is followed by the answer board.
+     * The file is read and checked by BoardValidator.validateFile, the same parser the save audit uses, so a corrupt or
+     * hand-edited file (short rows, repeated digits, a broken answer board, or givens that don't match the answer) is
+     * rejected like an unreadable one, and a file loads exactly when the audit accepts it.
      * Takes in strFileNam, the name of the file containing the Sudoku puzzle.
+     * Returns true if the file was read, or false if it couldn't be (the error has already been printed).
      */
-    public void populateBoard(String strFileName) {
-        
-        // Variable String to store the read-in line
-        String strLine;
-
-        // Create a try-catch block to catch any IO, EOF, or FileNotFoundException exceptions
-        try 
-        {
-            // Create a new file reader using a Scanner to read from the specified file
-            Scanner in = new Scanner(new FileReader(strFileName));
-
-            // Loop through each row of the playing board
-            for(int i = 0; i < bytPlayingBoard.length; i++) {
-                // Set strLine to the next line of the file
-                strLine = in.nextLine();
-
-                // Loop through each column of the playing board
-                for(int j = 0; j < bytPlayingBoard[i].length; j++) {
-                    // Convert each character in the line to a numeric value and set it in the playing board
-                    bytPlayingBoard[i][j] = (byte)(Character.getNumericValue(strLine.charAt(j)));
-                }
-            }
+    public boolean populateBoard(String strFileName) {
+        // Time the load if metrics are on
+        long lngStartTime = Metrics.ENABLED ? System.nanoTime() : 0;
 
-            // Loop through each row of the answer board
-            for(int i = 0; i < bytAnswerBoard.length; i++) {
-                // Set strLine to the next line of the file
-                strLine = in.nextLine();
+        // Set once the whole file has been read
+        boolean bolLoaded = false;
 
-                // Loop through each column of the answer board
-                for(int j = 0; j < bytAnswerBoard[i].length; j++) {
-                    // Convert each character in the line to a numeric value and set it in the answer board
-                    bytAnswerBoard[i][j] = (byte)(Character.getNumericValue(strLine.charAt(j)));
-                }
+        // Read and check the file with the same parser the save audit uses
+        BoardValidator validator = BoardValidator.get();
+        byte bytResult;
+        String strProblem;
+        try {
+            bytResult = validator.validateFile(Paths.get(strFileName));
+            strProblem = validator.getStrProblem();
+        } catch (InvalidPathException e) {
+            bytResult = BoardValidator.UNREADABLE;
+            strProblem = "the name isn't a valid file name";
+        }
+
+        if (bytResult == BoardValidator.VALID) {
+            // Keep the boards as an immutable puzzle (sharing the one rebuilt from the ID, if there was one)
+            puzzle = validator.getFilePuzzle();
+            puzzle.copyPlayingCells(bytPlayingCells);
+            bolLoaded = true;
+        } else if (bytResult == BoardValidator.UNREADABLE) {
+            // Handle the case where the file is missing, ends early or isn't in the save format
+            System.out.println("Error: Cannot read the board from the file, " + strProblem);
+        } else {
+            // Handle the case where the file was read but the boards in it don't add up
+            System.out.println("Error: The board in the file is invalid, " + strProblem);
+        }
+
+        // If loading failed, start from an empty board
+        if (!bolLoaded) {
+            Arrays.fill(bytPlayingCells, (byte) 0);
+            puzzle = EMPTY_PUZZLE;
+        }
+
+        // Notes belong to the board that was there before, and the filled cells have to be counted again
+        shrNotes = null;
+        countFilledCells();
+
+        if (Metrics.ENABLED) {
+            Metrics.LOAD_TIME.record(System.nanoTime() - lngStartTime);
+            if (bolLoaded) {
+                Metrics.LOAD_BYTES.add(new File(strFileName).length());
+            } else {
+                Metrics.LOAD_ERRORS.increment();
             }
+        }
+        return bolLoaded;
+    }
+
+    /**
+     * Description: Applies the user's move to the game state without printing or prompting anything.
+     * This is the part of validateMove that doesn't touch the console, so other front ends (like GameSession) can use it.
+     * Takes in bytUserRow(row of move, 1-9), bytUserCol(column of move, 1-9), bytAns(users guess)
+     * Returns MOVE_CORRECT, MOVE_ALREADY_REVEALED, MOVE_WRONG, or MOVE_OUT_OF_MISTAKES when the guess was the third mistake.
+     */
+    public byte makeMove(byte bytUserRow, byte bytUserCol, byte bytAns) {
+        bytLastCompleted = 0;
+        if (Metrics.ENABLED) {
+            Metrics.MOVES.increment();
+        }
+
+        int intCell = (bytUserRow - 1) * 9 + bytUserCol - 1;
+
+        // The number being guessed has already been revealed
+        if (bytPlayingCells[intCell] != 0) {
+            return MOVE_ALREADY_REVEALED;
+        }
 
-            // Close the file reader to release the associated resources
-            in.close();
+        // Correct guess, so reveal it and remember which units it completed
+        if (puzzle.getAnswer(intCell) == bytAns) {
+            bytLastCompleted = revealCell(bytUserRow - 1, bytUserCol - 1);
+            recordMove(MoveJournal.REVEAL, intCell, bytAns);
+            return MOVE_CORRECT;
         }
-        catch (FileNotFoundException e) 
-        {
-            // Handle the case where the specified file is not found
-            System.out.println("Error: Cannot open file for reading");
-        } 
-        catch (NoSuchElementException e) 
-        {
-            // Handle the case where the end of the file is reached prematurely
-            System.out.println("Error: EOF encountered, file may be corrupt");
-        } 
-        catch (IOException e) 
-        {
-            // Handle the case where an IO exception occurs
-            System.out.println("Error: Cannot read from file");
+
+        // Wrong guess, so count the mistake (3 is the maximum allowed)
+        bytMistakes++;
+        recordMove(MoveJournal.MISTAKE, intCell, bytAns);
+        if (Metrics.ENABLED) {
+            Metrics.MISTAKES.increment();
         }
+        return bytMistakes == 3 ? MOVE_OUT_OF_MISTAKES : MOVE_WRONG;
+    }
+
+    /**
+     * Description: Returns the units completed by the last correct move, as a combination of ROW_COMPLETED, COL_COMPLETED and BOX_COMPLETED.
+     */
+    public byte getBytLastCompleted() {
+        return bytLastCompleted;
+    }
+
+    /**
+     * Description: Getter method for the number of mistakes made.
+     */
+    public byte getBytMistakes() {
+        return bytMistakes;
     }
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Validates the user's move and updates the game state.
-     * This method checks if the user's move is correct and updates the playing board accordingly.
+     * This method checks if the user's move is correct and updates the playing board accordingly (through makeMove).
      * It also handles mistakes and provides feedback to the user.
      * Takes in bytUserRow(row index of move), bytUserCol, bytAns(users guess)
      * Returns true if the move is valid, false otherwise.
      */
     public boolean validateMove(byte bytUserRow, byte bytUserCol, byte bytAns) {
-        // Check if the user's guess matches the answer at the specified position
-        // Also make sure that the user isn't guessing a number already been revaled
-        if (bytAnswerBoard[bytUserRow - 1][bytUserCol - 1] == bytAns && bytPlayingBoard[bytUserRow - 1][bytUserCol - 1] == 0) {
-            // Display a message indicating that the guess is correct
-            System.out.println("\nYour guess is correct! (" + bytUserRow + ", " + bytUserCol + ") has been revealed to be " + bytAns + ".");
+        byte bytResult = makeMove(bytUserRow, bytUserCol, bytAns);
 
-            // Update the playing board with the correct answer
-            bytPlayingBoard[bytUserRow - 1][bytUserCol - 1] = bytAns;
+        if (bytResult == MOVE_CORRECT) {
+            // Display a message indicating that the guess is correct, and any row, column or box it completed
+            System.out.println("\nYour guess is correct! (" + bytUserRow + ", " + bytUserCol + ") has been revealed to be " + bytAns + ".");
+            printCompletedUnits(bytLastCompleted, bytUserRow - 1, bytUserCol - 1);
 
             // Return true to allow the game to keep going
             return true;
         
         // If the number being guessed has already been revealed
-        } else if(bytPlayingBoard[bytUserRow - 1][bytUserCol - 1] != 0){
+        } else if (bytResult == MOVE_ALREADY_REVEALED) {
             
             System.out.println("That number has already been revealed - you can't guess it again!");
             
             // Return true to allow the game to keep going
             return true;
+        } else if (bytResult == MOVE_OUT_OF_MISTAKES) {
+            // Prompt the user for further action when three mistakes are made
+            if (PlayerInput.getNumInput("\nUnfortunately, that guess is incorrect. Would you like to save your game to play later or end the game?\n1: Save your game\n2: End the game", (byte) 1, (byte) 2) == 1) {
+                // Reset the mistakes score to 0 and return true to continue the game
+                bytMistakes = 0;
+                saveGame();
+                return false;
+            } else {
+                // Return false to indicate the user wants to return to the main menu
+                return false;
+            }
         } else {
-            // Increment the mistakes counter
-            bytMistakes++;
+            // Display a message indicating an incorrect guess and the remaining mistakes
+            System.out.println("\nUnfortunately, that guess is incorrect. You have " + (3 - bytMistakes) + " mistakes remaining.");
 
-            // Check if the user has reached the maximum allowed mistakes (3)
-            if (bytMistakes == 3) {
-                // Prompt the user for further action when three mistakes are made
-                if (PlayerInput.getNumInput("\nUnfortunately, that guess is incorrect. Would you like to save your game to play later or end the game?\n1: Save your game\n2: End the game", (byte) 1, (byte) 2) == 1) {
-                    // Reset the mistakes score to 0 and return true to continue the game
-                    bytMistakes = 0;
-                    saveGame();
-                    return false;
-                } else {
-                    // Return false to indicate the user wants to return to the main menu
-                    return false;
-                }
-            } else {
-                // Display a message indicating an incorrect guess and the remaining mistakes
-                System.out.println("\nUnfortunately, that guess is incorrect. You have " + (3 - bytMistakes) + " mistakes remaining.");
+            // Return true to allow the user to continue making moves
+            return true;
+        }
+    }
+
+    /**
+     * Description: Adds the pencil mark for a digit (1-9) to an empty cell (row and column 0-8), or removes it if it is already there.
+     * Returns true if the cell now has the note, or false if it was removed or the cell is already filled.
+     */
+    public boolean toggleNote(int intRow, int intCol, int intDigit) {
+        int intCell = intRow * 9 + intCol;
+        if (bytPlayingCells[intCell] != 0) {
+            return false;
+        }
 
-                // Return true to allow the user to continue making moves
-                return true;
+        if (shrNotes == null) {
+            shrNotes = new short[81];
+        }
+        shrNotes[intCell] ^= 1 << (intDigit - 1);
+        return (shrNotes[intCell] & (1 << (intDigit - 1))) != 0;
+    }
+
+    /**
+     * Description: Returns the pencil marks of a cell (row and column 0-8) as a 9-bit mask, bit 0 for digit 1 (0 if none).
+     */
+    public short getNotes(int intRow, int intCol) {
+        return shrNotes == null ? 0 : shrNotes[intRow * 9 + intCol];
+    }
+
+    /**
+     * Description: Pencils in every digit that could still go in each empty cell, replacing any notes already there.
+     * Builds a digit mask for every row, column and box once, so each cell's notes are a couple of bitwise operations.
+     */
+    public void fillNotes() {
+        short[] shrRowMasks = new short[9];
+        short[] shrColMasks = new short[9];
+        short[] shrBoxMasks = new short[9];
+
+        if (shrNotes == null) {
+            shrNotes = new short[81];
+        }
+
+        // Mark the digits used in every row, column and box
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingCells[i] != 0) {
+                short shrBit = (short) (1 << (bytPlayingCells[i] - 1));
+                shrRowMasks[PeerTable.getRow(i)] |= shrBit;
+                shrColMasks[PeerTable.getCol(i)] |= shrBit;
+                shrBoxMasks[PeerTable.getBox(i)] |= shrBit;
+            }
+        }
+
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingCells[i] == 0) {
+                shrNotes[i] = (short) (~(shrRowMasks[PeerTable.getRow(i)] | shrColMasks[PeerTable.getCol(i)] | shrBoxMasks[PeerTable.getBox(i)]) & 0x1FF);
+            } else {
+                shrNotes[i] = 0;
             }
         }
     }
 
+    /**
+     * Description: Removes every pencil mark, which also takes the board back to its normal size when drawn.
+     */
+    public void clearNotes() {
+        shrNotes = null;
+    }
+
+    /**
+     * Description: Starts recording every move, hint and mistake in a new MoveJournal, which gives the board undo and redo.
+     * If strFileName isn't null, the journal is also written to that file: the board as it is now, then one small
+     * record appended per move, so the game can be picked up again with MoveJournal.resume after a crash.
+     * Any journal the board already had is closed first.
+     * Throws IOException if the file can't be created.
+     */
+    public void startJournal(String strFileName) throws IOException {
+        closeJournal();
+        journal = strFileName == null ? new MoveJournal() : MoveJournal.create(strFileName, this);
+    }
+
+    /**
+     * Description: Getter method for the board's MoveJournal, which is null if no journal has been started.
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Description: Attaches a journal that has already been replayed into this board. Used by MoveJournal.resume.
+     */
+    void setJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Description: Closes the journal's file and stops recording moves.
+     */
+    public void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Description: Undoes the last correct move or hint, which empties the cell again. Mistakes are never undone, so a
+     * wrong guess can't be taken back and tried again; and once the game is lost, nothing can be undone.
+     * Returns false if there is no journal, the game is lost or there is nothing left to undo.
+     */
+    public boolean undo() {
+        int intRecord = journal == null || bytMistakes >= 3 ? -1 : journal.undo();
+        if (intRecord == -1) {
+            return false;
+        }
+        undoRecord(intRecord);
+        return true;
+    }
+
+    /**
+     * Description: Redoes the last move or hint that was undone.
+     * Returns false if there is no journal, the game is lost or there is nothing to redo (a new move clears what could be redone).
+     */
+    public boolean redo() {
+        int intRecord = journal == null || bytMistakes >= 3 ? -1 : journal.redo();
+        if (intRecord == -1) {
+            return false;
+        }
+        applyRecord(intRecord);
+        return true;
+    }
+
+    /**
+     * Description: Records a move, hint or mistake in the journal, if the board has one.
+     */
+    protected void recordMove(byte bytType, int intCell, byte bytDigit) {
+        if (journal != null) {
+            journal.append(bytType, intCell, bytDigit);
+        }
+    }
+
+    /**
+     * Description: Applies a MoveJournal record to the board, for a redo or a replay: a reveal or hint fills its cell
+     * with the answer and a replayed mistake is counted again. SpecialBoard overrides this to take the hint back off its count.
+     */
+    protected void applyRecord(int intRecord) {
+        int intCell = MoveJournal.getCell(intRecord);
+
+        if (MoveJournal.getType(intRecord) == MoveJournal.MISTAKE) {
+            bytMistakes++;
+        } else {
+            revealCell(intCell / 9, intCell % 9);
+        }
+    }
+
+    /**
+     * Description: Undoes a MoveJournal record, which is always a reveal or hint (the journal never undoes a mistake),
+     * by emptying its cell again. SpecialBoard overrides this to give an undone hint back.
+     */
+    protected void undoRecord(int intRecord) {
+        hideCell(MoveJournal.getCell(intRecord));
+    }
+
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
@@ -231,139 +598,332 @@ public class GameBoard
 
         } while (!bolRightFormat);
 
+        // Write the boards to the chosen file
+        saveGame(strFileName);
+    }
+
+    /**
+     * Description: Writes the current playing board and answer board to strFileName + ".txt" without prompting.
+     * The save goes through saveGameAsync; this waits for it to reach the disk and reports a failure on the console.
+     * Takes in strFileName, the name of the file to save to (without the .txt extension).
+     */
+    public void saveGame(String strFileName) {
         try {
+            saveGameAsync(strFileName).join();
+        } catch (CompletionException e) {
 
-            // Create a new file writer with the provided or default file name
-            PrintWriter out = new PrintWriter(new FileWriter(strFileName + ".txt"));
+            // Display an error message if writing to the file fails
+            System.out.println("Error: Cannot write to file");
+        }
+    }
 
-            // Write the playing board to the file
-            for (int i = 0; i < bytPlayingBoard.length; i++) {
-                for (int j = 0; j < bytPlayingBoard[i].length; j++) {
-                    out.print(bytPlayingBoard[i][j]);
-                }
-                out.println(); // Move to the next line after each row
-            }
+    /**
+     * Description: Saves the current game state to strFileName + ".txt" without waiting for the disk.
+     * The board is copied into the file's text on this thread, so it can keep changing straight away, and the text is
+     * written by the shared SaveQueue, which replaces the file atomically. Saving the same file again before it has been
+     * written only writes the latest board.
+     * Returns a future that completes with the file once it is written, or exceptionally if it couldn't be.
+     */
+    public CompletableFuture<Path> saveGameAsync(String strFileName) {
+        return SaveQueue.getShared().submit(Paths.get(strFileName + ".txt"), getSaveBytes());
+    }
 
-            // Write the answer board to the file
-            for (int i = 0; i < bytAnswerBoard.length; i++) {
-                for (int j = 0; j < bytAnswerBoard[i].length; j++) {
-                    out.print(bytAnswerBoard[i][j]);
-                }
-                out.println(); // Move to the next line after each row
-            }
+    /**
+     * Description: Returns the save file's text for the current game: the playing board, then the answer board, nine
+     * digits to a line. If the puzzle was generated, an "ID" line with its 16-byte ID is written first in place of the
+     * answer board, which is rebuilt on load.
+     */
+    public byte[] getSaveBytes() {
+        // One byte per digit plus the line breaks, and room for the ID line
+        String strNewLine = System.lineSeparator();
+        StringBuilder strOutput = new StringBuilder(200);
+
+        // Write the puzzle ID first if there is one
+        PuzzleId puzzleId = puzzle.getPuzzleId();
+        if (puzzleId != null) {
+            strOutput.append("ID ").append(puzzleId).append(strNewLine);
+        }
 
-            // Close the file writer
-            out.close();
-        } catch (IOException e) {
+        // Write the playing board
+        for (int i = 0; i < 81; i++) {
+            strOutput.append((char) ('0' + bytPlayingCells[i]));
+            if (i % 9 == 8) {
+                strOutput.append(strNewLine); // Move to the next line after each row
+            }
+        }
 
-            // Display an error message if writing to the file fails
-            System.out.println("Error: Cannot write to file");
+        // Write the answer board, unless the ID can rebuild it
+        for (int i = 0; puzzleId == null && i < 81; i++) {
+            strOutput.append((char) ('0' + puzzle.getAnswer(i)));
+            if (i % 9 == 8) {
+                strOutput.append(strNewLine); // Move to the next line after each row
+            }
         }
+
+        return strOutput.toString().getBytes(StandardCharsets.US_ASCII);
     }
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: Checks if the game board is completely filled.
-     * This method iterates through each cell of the playing board and checks if any cell is still empty (value 0).
-     * If an empty cell is found, the method returns false, indicating the board is not fully filled.
-     * If no empty cells are found, it sets the 'bolGameWon' variable to true and returns true, indicating
-     * the board is fully filled.
+     * This method checks the count of empty cells, which is kept up to date as cells are revealed, so it takes
+     * the same time however full the board is. If there are no empty cells, it sets the 'bolGameWon' variable
+     * to true and returns true, indicating the board is fully filled.
      */
     public boolean isBoardFilled() {
         
-        // Iterate through each row of the playing board
-        for (int i = 0; i < bytPlayingBoard.length; i++) {
-            
-            // Iterate through each cell in the row
-            for (int j = 0; j < bytPlayingBoard[i].length; j++) {
-                
-                // Check if the current cell is empty (value 0)
-                if (bytPlayingBoard[i][j] == 0) {
-                    
-                    // Return false if an empty cell is found
-                    return bolGameWon;
-                }
-            }
+        // If no empty cells are left, set 'bolGameWon' to true
+        if (bytEmptyCells == 0) {
+            bolGameWon = true;
         }
-
-        // If no empty cells are found, set 'bolGameWon' to true and return true
-        bolGameWon = true;
         return bolGameWon;
     }
 
     /**
-     * Author: Ibraheem Dawod
-     * Date: 01/17/2024
-     * Description: Overrides the toString method to represent the GameBoard as a string.
-     * Formats the output with mistakes and the Sudoku board.
-     * Returns String representation of the GameBoard.
+     * Description: Getter methods for the progress of the game.
+     * getBytEmptyCells returns the number of empty cells left, and getBytProgress returns the percentage (0-100)
+     * of the cells that were empty at the start which have since been filled.
      */
-    @Override
-    public String toString() {
-        
-        // Create a string to represent the output, including mistakes
-        String strOutput = "\nMistakes: " + bytMistakes + "/3\n\n";
+    public byte getBytEmptyCells() {
+        return bytEmptyCells;
+    }
 
-        // Add spaces and column numbers to the output string
-        strOutput += "    ";
-        for(int i=0; i<9; i++){
+    public byte getBytProgress() {
+        if (bytStartingEmptyCells == 0) {
+            return 100;
+        }
+        return (byte) ((bytStartingEmptyCells - bytEmptyCells) * 100 / bytStartingEmptyCells);
+    }
 
-            // Add extra space every 3 columns
-            if(i%3 == 0 && i!=0) {
-                strOutput += "  ";
-            }
+    /**
+     * Description: Returns true if every cell of the given row, column or 3x3 box (0-8) is filled.
+     */
+    public boolean isRowComplete(int intRow) {
+        return bytUnitFill[intRow] == 9;
+    }
+
+    public boolean isColComplete(int intCol) {
+        return bytUnitFill[COL_FILL + intCol] == 9;
+    }
+
+    public boolean isBoxComplete(int intBox) {
+        return bytUnitFill[BOX_FILL + intBox] == 9;
+    }
 
-            // Add the column number to the output
-            strOutput += (i+1) + " ";
+    /**
+     * Description: Reveals the answer in an empty cell of the playing board and updates the fill counters.
+     * Used by validateMove for correct guesses and by SpecialBoard for hints.
+     * Takes in the row and column of the cell (0-8).
+     * Returns the units the reveal completed, as a combination of ROW_COMPLETED, COL_COMPLETED and BOX_COMPLETED (0 if none).
+     */
+    protected byte revealCell(int intRow, int intCol) {
+        int intBox = (intRow / 3) * 3 + intCol / 3;
+        byte bytCompleted = 0;
+
+        int intCell = intRow * 9 + intCol;
+        bytPlayingCells[intCell] = puzzle.getAnswer(intCell);
+
+        // Strike the digit from the notes of the cell and its peers
+        if (shrNotes != null) {
+            int intBit = 1 << (bytPlayingCells[intCell] - 1);
+            shrNotes[intCell] = 0;
+            for (byte bytPeer : PeerTable.getPeers(intCell)) {
+                shrNotes[bytPeer] &= ~intBit;
+            }
         }
-        strOutput += "\n   ";
 
-        // Add horizontal lines to the output
-        for(int i=0; i<12; i++){
-            strOutput += "--";
+        // Remove the cell from the empty list by moving the last empty cell into its place
+        byte bytPosition = bytEmptyIndex[EMPTY_POSITION + intCell];
+        byte bytLastCell = bytEmptyIndex[--bytEmptyCells];
+        bytEmptyIndex[bytPosition] = bytLastCell;
+        bytEmptyIndex[EMPTY_POSITION + bytLastCell] = bytPosition;
+        bytEmptyIndex[EMPTY_POSITION + intCell] = -1;
+
+        // Count the cell in its row, column and box, noting any that are now full
+        if (++bytUnitFill[intRow] == 9) {
+            bytCompleted |= ROW_COMPLETED;
         }
-        strOutput += "\n";
+        if (++bytUnitFill[COL_FILL + intCol] == 9) {
+            bytCompleted |= COL_COMPLETED;
+        }
+        if (++bytUnitFill[BOX_FILL + intBox] == 9) {
+            bytCompleted |= BOX_COMPLETED;
+        }
+        return bytCompleted;
+    }
 
-        // Loop through each row of the playing board
-        for (int i = 0; i < bytPlayingBoard.length; i++) {
+    /**
+     * Description: Empties a revealed cell (0-80) of the playing board again and updates the fill counters, undoing revealCell.
+     * The cell goes back on the end of the empty list. A board that had been won is no longer won.
+     * Notes struck out when the cell was revealed aren't pencilled back in.
+     */
+    protected void hideCell(int intCell) {
+        int intRow = intCell / 9;
+        int intCol = intCell % 9;
 
-            // Add extra space and horizontal line every 3 rows
-            if((i)%3 == 0 && i!=0) {
-                strOutput += "    ";
-                for(int k=0; k<21; k++){
-                    strOutput += "-";
-                }
-                strOutput += "\n" + (i+1) + " | ";
-            } else {
+        bytPlayingCells[intCell] = 0;
 
-                // Add row number and separator to the output
-                strOutput += (i+1) + " | ";
-            }
+        // Add the cell to the end of the empty list
+        bytEmptyIndex[bytEmptyCells] = (byte) intCell;
+        bytEmptyIndex[EMPTY_POSITION + intCell] = bytEmptyCells;
+        bytEmptyCells++;
 
-            // Loop through each cell in the row
-            for (int j = 0; j < bytPlayingBoard[i].length; j++) {
+        bytUnitFill[intRow]--;
+        bytUnitFill[COL_FILL + intCol]--;
+        bytUnitFill[BOX_FILL + (intRow / 3) * 3 + intCol / 3]--;
+        bolGameWon = false;
+    }
 
-                // Add vertical separator every 3 columns
-                if((j)%3 == 0 && j!=0) {
-                    strOutput += "| ";
-                }
+    /**
+     * Description: Sets the source of random numbers used to pick hints, so a game can be replayed exactly.
+     * Passing null goes back to ThreadLocalRandom.
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
 
-                // Add cell value (or "●" if the cell is empty(0)) to the output
-                strOutput += (bytPlayingBoard[i][j] == 0 ? "●" : bytPlayingBoard[i][j])  + " ";
+    /**
+     * Description: Returns a random whole number from 0 up to (but not including) intBound.
+     * Every random choice on the board goes through here, using the seeded source if one was set.
+     */
+    protected int nextRandom(int intBound) {
+        return random == null ? ThreadLocalRandom.current().nextInt(intBound) : random.nextInt(intBound);
+    }
+
+    /**
+     * Description: Picks a random empty cell in one step from the empty list.
+     * Returns the cell (0-80), or -1 if the board has no empty cells.
+     */
+    protected int getRandomEmptyCell() {
+        if (bytEmptyCells == 0) {
+            return -1;
+        }
+        return bytEmptyIndex[nextRandom(bytEmptyCells)];
+    }
+
+    /**
+     * Description: Finds the empty cell with the fewest candidates, given the digits already on the playing board.
+     * Builds a digit mask for every row, column and box, then checks only the cells in the empty list.
+     * Ties are broken at random so the same cell isn't always chosen.
+     * Returns the cell (0-80), or -1 if the board has no empty cells.
+     */
+    protected int getMostConstrainedEmptyCell() {
+        short[] shrRowMasks = new short[9];
+        short[] shrColMasks = new short[9];
+        short[] shrBoxMasks = new short[9];
+        int intBestCell = -1;
+        int intBestCount = 10;
+        int intTies = 0;
+
+        // Mark the digits used in every row, column and box
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingCells[i] != 0) {
+                short shrBit = (short) (1 << (bytPlayingCells[i] - 1));
+                shrRowMasks[i / 9] |= shrBit;
+                shrColMasks[i % 9] |= shrBit;
+                shrBoxMasks[(i / 27) * 3 + (i % 9) / 3] |= shrBit;
             }
+        }
 
-            // Add the closing vertical separator and new line to the output
-            strOutput += " |\n";
+        for (int i = 0; i < bytEmptyCells; i++) {
+            int intCell = bytEmptyIndex[i];
+            int intRow = intCell / 9;
+            int intCol = intCell % 9;
+            int intCount = Integer.bitCount(~(shrRowMasks[intRow] | shrColMasks[intCol] | shrBoxMasks[(intRow / 3) * 3 + intCol / 3]) & 0x1FF);
+
+            if (intCount < intBestCount) {
+                intBestCell = intCell;
+                intBestCount = intCount;
+                intTies = 1;
+            } else if (intCount == intBestCount && nextRandom(++intTies) == 0) {
+                // Each tied cell replaces the choice with probability 1/ties, so all of them are equally likely
+                intBestCell = intCell;
+            }
         }
+        return intBestCell;
+    }
+
+    /**
+     * Description: Prints a message for each unit completed by revealing the cell at the given row and column (0-8).
+     * Takes in the flags returned by revealCell.
+     */
+    protected void printCompletedUnits(byte bytCompleted, int intRow, int intCol) {
+        if ((bytCompleted & ROW_COMPLETED) != 0) {
+            System.out.println("You completed row " + (intRow + 1) + "!");
+        }
+        if ((bytCompleted & COL_COMPLETED) != 0) {
+            System.out.println("You completed column " + (intCol + 1) + "!");
+        }
+        if ((bytCompleted & BOX_COMPLETED) != 0) {
+            System.out.println("You completed a 3x3 box!");
+        }
+    }
+
+    /**
+     * Description: Counts the empty cells and the filled cells of every row, column and box from scratch.
+     * Called once whenever a whole board is loaded; after that the counts are updated one cell at a time.
+     */
+    protected void countFilledCells() {
+        bytEmptyCells = 0;
+        Arrays.fill(bytUnitFill, (byte) 0);
+
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                if (bytPlayingCells[i * 9 + j] == 0) {
+                    // Add the cell to the end of the empty list
+                    bytEmptyIndex[bytEmptyCells] = (byte) (i * 9 + j);
+                    bytEmptyIndex[EMPTY_POSITION + i * 9 + j] = bytEmptyCells;
+                    bytEmptyCells++;
+                } else {
+                    bytEmptyIndex[EMPTY_POSITION + i * 9 + j] = -1;
+                    bytUnitFill[i]++;
+                    bytUnitFill[COL_FILL + j]++;
+                    bytUnitFill[BOX_FILL + (i / 3) * 3 + j / 3]++;
+                }
+            }
+        }
+        bytStartingEmptyCells = bytEmptyCells;
+    }
+
+    /**
+     * Description: Appends the header shown above the board: the number of mistakes.
+     * SpecialBoard overrides this to add its timer and hints.
+     */
+    @Override
+    public void appendHeader(BoardRenderer renderer) {
+        renderer.append("\nMistakes: ").append(bytMistakes).append("/3\n\n");
+    }
 
-        // Add horizontal lines to the bottom of the output
-        strOutput += "   ";
-        for(int i=0; i<12; i++){
-            strOutput += "--";
+    /**
+     * Description: Prints the board (with its header) followed by a new line to the given stream.
+     * Draws through the shared BoardRenderer straight to the stream, so no String is built.
+     */
+    public void print(PrintStream out) {
+        long lngStartTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        BoardRenderer renderer = BoardRenderer.get().render(bytPlayingCells, shrNotes, this);
+        if (Metrics.ENABLED) {
+            Metrics.RENDER_TIME.record(System.nanoTime() - lngStartTime);
         }
 
-        // Return the final string representation of the SpecialBoard
-        return strOutput;
+        renderer.writeTo(out);
+        out.println();
+    }
+
+    /**
+     * Author: Ibraheem Dawod
+     * Date: 01/17/2024
+     * Description: Overrides the toString method to represent the GameBoard as a string.
+     * Formats the output with the header and the Sudoku board using the shared BoardRenderer, including any pencil marks.
+     * Returns String representation of the GameBoard.
+     */
+    @Override
+    public String toString() {
+        long lngStartTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        BoardRenderer renderer = BoardRenderer.get().render(bytPlayingCells, shrNotes, this);
+        if (Metrics.ENABLED) {
+            Metrics.RENDER_TIME.record(System.nanoTime() - lngStartTime);
+        }
+        return renderer.toString();
     }
 }
@@ -0,0 +1,165 @@
+/**
+ * Description: GameServer class hosts many Sudoku games from one JVM. Players connect over a local TCP socket and
+ * talk the line protocol described in GameSession. Each connection gets its own GameSession and its own thread:
+ * a virtual thread when the JVM supports them (Java 21 and later), otherwise a platform thread with a small stack.
+ * Puzzles for every session come from one shared PuzzlePool. The time taken to handle each command is recorded in
+ * a LatencyHistogram, and MOVE commands in a second one of their own, so the move latency isn't mixed up with NEW
+ * commands waiting on the pool or generating a puzzle. Both are printed every 10 seconds along with the number of
+ * open sessions. The histograms are registered in Metrics, so with -Dsudoku.metrics=true they are also in the
+ * metrics snapshot and over JMX.
+ *
+ * Usage: java GameServer [port] (5555 by default)
+ *
+ * Methods:
+ * - main(String[] args): Starts the server.
+ * - newSessionExecutor(): Returns an executor that runs each task on its own virtual thread if possible.
+ * - getCommandLatency(), getMoveLatency(): Return the histograms of handling times for every command and for MOVE.
+ */
+
+// Import the socket, stream and thread classes
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameServer {
+    // Port used when none is given
+    public static final int DEFAULT_PORT = 5555;
+
+    // Stack size for platform session threads; sessions need very little stack
+    private static final long SESSION_STACK_SIZE = 256 * 1024;
+
+    // Time taken to handle each command, time taken by MOVE commands alone, and the number of sessions currently connected
+    private static final LatencyHistogram commandLatency = Metrics.histogram("server.command.time");
+    private static final LatencyHistogram moveLatency = Metrics.histogram("server.move.time");
+    private static final AtomicInteger intOpenSessions = new AtomicInteger();
+
+    /**
+     * Description: Entry point for the server. Listens on the given port (or 5555) and starts a session for every connection.
+     */
+    public static void main(String[] args) throws IOException {
+        int intPort = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Metrics.start();
+
+        // Shared pool of ready-made puzzles, filled by one producer per core
+        PuzzlePool puzzlepool = new PuzzlePool(256, 64, Runtime.getRuntime().availableProcessors());
+        ExecutorService sessions = newSessionExecutor();
+
+        // Print the latency and session count every 10 seconds
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(10_000);
+                    System.out.println("Sessions: " + intOpenSessions.get() + "\tCommands: " + commandLatency + "\tMoves: " + moveLatency);
+                }
+            } catch (InterruptedException e) {
+                // Stop reporting
+            }
+        }, "latency-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+
+        try (ServerSocket server = new ServerSocket(intPort, 4096)) {
+            System.out.println("Sudoku server listening on port " + intPort);
+
+            while (true) {
+                Socket socket = server.accept();
+                sessions.execute(() -> runSession(socket, puzzlepool));
+            }
+        }
+    }
+
+    /**
+     * Description: Returns an executor that runs each task on a new virtual thread if the JVM supports them.
+     * Virtual threads arrived in Java 21, so they are looked up by reflection; on older JVMs each task gets a new
+     * daemon platform thread with a small stack instead.
+     */
+    public static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, "session", SESSION_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Description: Getter methods for the histograms of handling times for every command and for MOVE commands alone.
+     */
+    public static LatencyHistogram getCommandLatency() {
+        return commandLatency;
+    }
+
+    public static LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Description: Returns a writer for the responses to a socket, in US-ASCII. PrintWriter's own stream constructor
+     * adds a BufferedWriter and an encoder with 8 KB buffers each; responses are one short line flushed at once, so
+     * the writer here only keeps an encoder buffer of InputSource.SOCKET_BUFFER_SIZE bytes.
+     */
+    private static PrintWriter newSocketWriter(Socket socket) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.US_ASCII.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new PrintWriter(Channels.newWriter(Channels.newChannel(socket.getOutputStream()), encoder, InputSource.SOCKET_BUFFER_SIZE));
+    }
+
+    /**
+     * Description: Runs one connection: reads command lines, hands them to a GameSession and writes back the responses,
+     * until the player quits or disconnects.
+     */
+    private static void runSession(Socket socket, PuzzlePool puzzlepool) {
+        GameSession session = new GameSession(puzzlepool);
+        intOpenSessions.incrementAndGet();
+
+        try (Socket connection = socket;
+             InputSource in = InputSource.fromSocket(connection);
+             PrintWriter out = newSocketWriter(connection)) {
+            String strLine;
+
+            while (session.isOpen() && (strLine = in.readLine()) != null) {
+                if (strLine.isBlank()) {
+                    continue;
+                }
+
+                // Time only the game's own work, not the network
+                long lngStartTime = System.nanoTime();
+                String strResponse = session.handle(strLine);
+                long lngTime = System.nanoTime() - lngStartTime;
+
+                commandLatency.record(lngTime);
+                if (isMove(strLine)) {
+                    moveLatency.record(lngTime);
+                }
+
+                out.print(strResponse);
+                out.print('\n');
+                out.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The player disconnected, so the session just ends
+        } finally {
+            intOpenSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Description: Returns true if the command line is a MOVE command (in any case, as GameSession accepts).
+     */
+    private static boolean isMove(String strLine) {
+        String strCommand = strLine.trim();
+        return strCommand.regionMatches(true, 0, "MOVE", 0, 4) && (strCommand.length() == 4 || Character.isWhitespace(strCommand.charAt(4)));
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Description: GameSession class runs one player's game without the console, so many games can be hosted at once
+ * by GameServer. It takes one command line at a time and returns one response line, using GameBoard.makeMove and
+ * SpecialBoard.useHint rather than the printing versions. A session only holds a reference to its board and the
+ * shared puzzle pool, so idle sessions cost little more than the board itself. Each game keeps its moves in a
+ * MoveJournal held in memory, for undo and redo.
+ *
+ * Protocol (one command per line, one response per line, cells numbered 1-9):
+ * - NEW EASY|MEDIUM|HARD|SPECIAL: Starts a new game.                  -> BOARD <81 cells> <mistakes> <hints>
+ * - MOVE <row> <col> <digit>: Makes a guess.                          -> CORRECT|REVEALED|WRONG|LOST [WON]
+ * - HINT / SMARTHINT: Uses a hint in a special game.                  -> HINT <row> <col> <digit> [WON], LOST or ERR
+ * - UNDO / REDO: Undoes or redoes the last move or hint.              -> BOARD <81 cells> <mistakes> <hints>, LOST or ERR
+ * - NOTE <row> <col> <digit>: Adds or removes a pencil mark.          -> NOTE <row> <col> <digits>
+ * - NOTES [FILL|CLEAR]: Shows, fills in or clears all pencil marks.   -> NOTES <81 cells of digits>
+ * - SHOW: Shows the current board.                                    -> BOARD <81 cells> <mistakes> <hints>
+ * - SAVE <name>: Queues a save of the game as <name>.txt.             -> SAVING <name>
+ * - QUIT: Ends the session.                                           -> BYE
+ * The 81 cells are written row by row with '.' for empty cells; hints is -1 for a standard game.
+ * Mistakes can't be undone, and a lost game (three mistakes) answers LOST to every move, hint, undo and redo.
+ * SAVE answers as soon as the board is copied, without waiting for the disk; the file is written by the shared SaveQueue.
+ * Each session saves into its own new directory under SAVE_DIRECTORY, so a client can only ever overwrite its own
+ * saves, never another player's or the server's own files.
+ * Pencil marks are written as the noted digits of a cell in order, or '-' for none; NOTES lists all 81, separated by spaces.
+ *
+ * Methods:
+ * - GameSession(PuzzlePool puzzlepool): Creates a session with no game started.
+ * - handle(String strLine): Runs one command and returns the response.
+ * - isOpen(): Returns false once the player has quit.
+ */
+// Import the file classes used for the session's save directory
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class GameSession {
+    // Directory holding a subdirectory of saves for each session that has saved
+    public static final String SAVE_DIRECTORY = "saves";
+
+    // Pool new games are taken from, shared by every session
+    private final PuzzlePool puzzlepool;
+
+    // Current game (a SpecialBoard for special games), or null before the first NEW
+    private GameBoard gameboard;
+
+    // False once the player has quit
+    private boolean bolOpen = true;
+
+    // This session's own save directory, made on its first SAVE
+    private Path saveDirectory;
+
+    /**
+     * Description: Constructor for GameSession class. Takes in the puzzle pool new games are taken from.
+     */
+    public GameSession(PuzzlePool puzzlepool) {
+        this.puzzlepool = puzzlepool;
+    }
+
+    /**
+     * Description: Returns false once the player has quit.
+     */
+    public boolean isOpen() {
+        return bolOpen;
+    }
+
+    /**
+     * Description: Runs one command line and returns the response line. Unknown or badly formed commands get an ERR response.
+     */
+    public String handle(String strLine) {
+        String[] strParts = strLine.trim().split("\\s+");
+        String strCommand = strParts[0].toUpperCase();
+
+        switch (strCommand) {
+            case "NEW":
+                return newGame(strParts);
+            case "MOVE":
+                return move(strParts);
+            case "HINT":
+                return hint(false);
+            case "SMARTHINT":
+                return hint(true);
+            case "UNDO":
+                return gameboard == null ? "ERR no game started" : isLost() ? "LOST" : gameboard.undo() ? describeBoard() : "ERR nothing to undo";
+            case "REDO":
+                return gameboard == null ? "ERR no game started" : isLost() ? "LOST" : gameboard.redo() ? describeBoard() : "ERR nothing to redo";
+            case "NOTE":
+                return note(strParts);
+            case "NOTES":
+                return notes(strParts);
+            case "SAVE":
+                return save(strParts);
+            case "SHOW":
+                return gameboard == null ? "ERR no game started" : describeBoard();
+            case "QUIT":
+                bolOpen = false;
+                return "BYE";
+            default:
+                return "ERR unknown command";
+        }
+    }
+
+    /**
+     * Description: Starts a new game of the requested kind with a puzzle from the pool.
+     */
+    private String newGame(String[] strParts) {
+        if (strParts.length < 2) {
+            return "ERR usage: NEW EASY|MEDIUM|HARD|SPECIAL";
+        }
+
+        switch (strParts[1].toUpperCase()) {
+            case "EASY":
+                gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.EASY));
+                break;
+            case "MEDIUM":
+                gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
+                break;
+            case "HARD":
+                gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.HARD));
+                break;
+            case "SPECIAL":
+                gameboard = new SpecialBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
+                break;
+            default:
+                return "ERR unknown difficulty";
+        }
+
+        // Keep the moves in memory so they can be undone
+        gameboard.setJournal(new MoveJournal());
+        return describeBoard();
+    }
+
+    /**
+     * Description: Makes a guess on the current game and reports the result.
+     */
+    private String move(String[] strParts) {
+        if (gameboard == null) {
+            return "ERR no game started";
+        }
+
+        byte bytRow, bytCol, bytGuess;
+        try {
+            bytRow = Byte.parseByte(strParts[1]);
+            bytCol = Byte.parseByte(strParts[2]);
+            bytGuess = Byte.parseByte(strParts[3]);
+        } catch (RuntimeException e) {
+            return "ERR usage: MOVE <row> <col> <digit>";
+        }
+        if (bytRow < 1 || bytRow > 9 || bytCol < 1 || bytCol > 9 || bytGuess < 1 || bytGuess > 9) {
+            return "ERR row, column and digit must be between 1 and 9";
+        }
+
+        // A game that was lost takes no more moves
+        if (isLost()) {
+            return "LOST";
+        }
+
+        switch (gameboard.makeMove(bytRow, bytCol, bytGuess)) {
+            case GameBoard.MOVE_CORRECT:
+                return gameboard.isBoardFilled() ? "CORRECT WON" : "CORRECT";
+            case GameBoard.MOVE_ALREADY_REVEALED:
+                return "REVEALED";
+            case GameBoard.MOVE_WRONG:
+                return "WRONG " + gameboard.getBytMistakes();
+            default:
+                return "LOST";
+        }
+    }
+
+    /**
+     * Description: Queues a save of the current game into this session's own save directory. The name must be
+     * alphanumeric, as in GameBoard.saveGame(), so a player can't write outside that directory. A save that fails is
+     * reported on the server's console.
+     */
+    private String save(String[] strParts) {
+        if (gameboard == null) {
+            return "ERR no game started";
+        }
+        if (strParts.length < 2 || !strParts[1].matches("^[a-zA-Z0-9]+$")) {
+            return "ERR usage: SAVE <alphanumeric name>";
+        }
+
+        // Make a directory no other session can be given, the first time this session saves
+        if (saveDirectory == null) {
+            try {
+                Path root = Files.createDirectories(Paths.get(SAVE_DIRECTORY));
+                saveDirectory = Files.createTempDirectory(root, "session-");
+            } catch (IOException e) {
+                return "ERR cannot create a save directory";
+            }
+        }
+
+        String strFileName = saveDirectory.resolve(strParts[1]).toString();
+        gameboard.saveGameAsync(strFileName).whenComplete((file, e) -> {
+            if (e != null) {
+                System.out.println("Error: Cannot write to file " + strFileName + ".txt, " + e.getMessage());
+            }
+        });
+        return "SAVING " + strParts[1];
+    }
+
+    /**
+     * Description: Returns true if the current game has been lost to three mistakes.
+     */
+    private boolean isLost() {
+        return gameboard.getBytMistakes() >= 3;
+    }
+
+    /**
+     * Description: Uses a hint on the current special game and reports the cell revealed.
+     */
+    private String hint(boolean bolSmart) {
+        if (!(gameboard instanceof SpecialBoard)) {
+            return "ERR hints are only available in special games";
+        }
+        if (isLost()) {
+            return "LOST";
+        }
+
+        int intCell = ((SpecialBoard) gameboard).useHint(bolSmart);
+        if (intCell == SpecialBoard.HINT_NONE_LEFT) {
+            return "ERR no hints left";
+        } else if (intCell == SpecialBoard.HINT_BOARD_FULL) {
+            return "ERR no empty cells left";
+        }
+
+        return "HINT " + (intCell / 9 + 1) + " " + (intCell % 9 + 1) + " " + gameboard.getCell(intCell / 9, intCell % 9) + (gameboard.isBoardFilled() ? " WON" : "");
+    }
+
+    /**
+     * Description: Adds or removes a pencil mark on the current game and reports the cell's notes.
+     */
+    private String note(String[] strParts) {
+        if (gameboard == null) {
+            return "ERR no game started";
+        }
+
+        byte bytRow, bytCol, bytDigit;
+        try {
+            bytRow = Byte.parseByte(strParts[1]);
+            bytCol = Byte.parseByte(strParts[2]);
+            bytDigit = Byte.parseByte(strParts[3]);
+        } catch (RuntimeException e) {
+            return "ERR usage: NOTE <row> <col> <digit>";
+        }
+        if (bytRow < 1 || bytRow > 9 || bytCol < 1 || bytCol > 9 || bytDigit < 1 || bytDigit > 9) {
+            return "ERR row, column and digit must be between 1 and 9";
+        }
+        if (gameboard.getCell(bytRow - 1, bytCol - 1) != 0) {
+            return "ERR that cell is already filled";
+        }
+
+        gameboard.toggleNote(bytRow - 1, bytCol - 1, bytDigit);
+        StringBuilder strOutput = new StringBuilder(20);
+        strOutput.append("NOTE ").append(bytRow).append(' ').append(bytCol).append(' ');
+        appendNotes(strOutput, gameboard.getNotes(bytRow - 1, bytCol - 1));
+        return strOutput.toString();
+    }
+
+    /**
+     * Description: Fills in or clears every pencil mark if asked, then reports the notes of all 81 cells.
+     */
+    private String notes(String[] strParts) {
+        if (gameboard == null) {
+            return "ERR no game started";
+        }
+
+        if (strParts.length > 1) {
+            if (strParts[1].equalsIgnoreCase("FILL")) {
+                gameboard.fillNotes();
+            } else if (strParts[1].equalsIgnoreCase("CLEAR")) {
+                gameboard.clearNotes();
+            } else {
+                return "ERR usage: NOTES [FILL|CLEAR]";
+            }
+        }
+
+        StringBuilder strOutput = new StringBuilder(400);
+        strOutput.append("NOTES");
+        for (int i = 0; i < 81; i++) {
+            strOutput.append(' ');
+            appendNotes(strOutput, gameboard.getNotes(i / 9, i % 9));
+        }
+        return strOutput.toString();
+    }
+
+    /**
+     * Description: Appends the digits in a notes mask in order, or '-' if there are none.
+     */
+    private static void appendNotes(StringBuilder strOutput, short shrNotes) {
+        if (shrNotes == 0) {
+            strOutput.append('-');
+        }
+        for (int i = 0; i < 9; i++) {
+            if ((shrNotes & (1 << i)) != 0) {
+                strOutput.append((char) ('1' + i));
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the BOARD response for the current game: the 81 cells, the mistakes and the hints left.
+     */
+    private String describeBoard() {
+        StringBuilder strOutput = new StringBuilder(100);
+        strOutput.append("BOARD ");
+
+        for (int i = 0; i < 81; i++) {
+            byte bytCell = gameboard.getCell(i / 9, i % 9);
+            strOutput.append(bytCell == 0 ? '.' : (char) ('0' + bytCell));
+        }
+
+        strOutput.append(' ').append(gameboard.getBytMistakes()).append(' ');
+        strOutput.append(gameboard instanceof SpecialBoard ? ((SpecialBoard) gameboard).getBytHints() : -1);
+        return strOutput.toString();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Description: Geometry class holds the layout of a square Sudoku board of any size, worked out once per size so the
+ * solver, generator and board for that size can read it from tables instead of redoing the maths.
+ * The size is set by the box size n: the board is n*n cells wide, holds the digits 1 to n*n and is split into n*n
+ * boxes of n by n cells. Box size 2 gives 4x4, 3 gives the classic 9x9, 4 gives 16x16 and 5 gives 25x25.
+ * Cells are numbered row by row from 0. Units are numbered rows first, then columns, then boxes, as in PeerTable,
+ * which stays as the faster fixed table for the classic board. Digit masks are ints, bit 0 for digit 1, which holds
+ * every size up to 25x25.
+ * A Geometry never changes once built, so one is shared per size through of().
+ *
+ * Methods:
+ * - of(int intBoxSize): Returns the shared geometry for a box size.
+ * - getIntBoxSize(), getIntSize(), getIntCells(), getIntUnits(), getIntAllDigits(): Return the dimensions.
+ * - getRow(int intCell), getCol(int intCell), getBox(int intCell): Return the row, column or box of a cell.
+ * - getUnit(int intUnit): Returns the cells of a unit.
+ * - getPeers(int intCell): Returns the cells that share a row, column or box with a cell.
+ * - getCellUnits(int intCell): Returns the 3 units (row, column, box) a cell belongs to.
+ */
+public class Geometry {
+    // Smallest and largest box sizes supported (4x4 up to 25x25, as digit masks are ints)
+    public static final int MIN_BOX_SIZE = 2;
+    public static final int MAX_BOX_SIZE = 5;
+
+    // Geometry for each box size, built the first time it is asked for
+    private static final Geometry[] GEOMETRIES = new Geometry[MAX_BOX_SIZE + 1];
+
+    // Box size, side length (number of digits), number of cells and number of units
+    private final int intBoxSize;
+    private final int intSize;
+    private final int intCells;
+    private final int intUnits;
+
+    // Row, column and box of every cell
+    private final int[] intRows;
+    private final int[] intCols;
+    private final int[] intBoxes;
+
+    // Cells of every unit, peers of every cell, and units of every cell
+    private final int[][] intUnitCells;
+    private final int[][] intPeers;
+    private final int[][] intCellUnits;
+
+    /**
+     * Description: Builds the tables for a box size. Private, as geometries are shared through of().
+     */
+    private Geometry(int intBoxSize) {
+        this.intBoxSize = intBoxSize;
+        this.intSize = intBoxSize * intBoxSize;
+        this.intCells = intSize * intSize;
+        this.intUnits = 3 * intSize;
+
+        intRows = new int[intCells];
+        intCols = new int[intCells];
+        intBoxes = new int[intCells];
+        intUnitCells = new int[intUnits][intSize];
+        intCellUnits = new int[intCells][3];
+        int[] intUnitSizes = new int[intUnits];
+
+        for (int i = 0; i < intCells; i++) {
+            intRows[i] = i / intSize;
+            intCols[i] = i % intSize;
+            intBoxes[i] = (intRows[i] / intBoxSize) * intBoxSize + intCols[i] / intBoxSize;
+
+            intCellUnits[i][0] = intRows[i];
+            intCellUnits[i][1] = intSize + intCols[i];
+            intCellUnits[i][2] = 2 * intSize + intBoxes[i];
+
+            for (int intUnit : intCellUnits[i]) {
+                intUnitCells[intUnit][intUnitSizes[intUnit]++] = i;
+            }
+        }
+
+        // Peers are every other cell sharing a row, column or box: (size - 1) in the row and column, and the rest of the box
+        int intPeerCount = 2 * (intSize - 1) + (intBoxSize - 1) * (intBoxSize - 1);
+        intPeers = new int[intCells][intPeerCount];
+        for (int i = 0; i < intCells; i++) {
+            int intFound = 0;
+            for (int j = 0; j < intCells; j++) {
+                if (j != i && (intRows[i] == intRows[j] || intCols[i] == intCols[j] || intBoxes[i] == intBoxes[j])) {
+                    intPeers[i][intFound++] = j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the shared geometry for a box size (MIN_BOX_SIZE to MAX_BOX_SIZE), building it the first time.
+     * Throws IllegalArgumentException for an unsupported box size.
+     */
+    public static synchronized Geometry of(int intBoxSize) {
+        if (intBoxSize < MIN_BOX_SIZE || intBoxSize > MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("box size must be between " + MIN_BOX_SIZE + " and " + MAX_BOX_SIZE + ", not " + intBoxSize);
+        }
+        if (GEOMETRIES[intBoxSize] == null) {
+            GEOMETRIES[intBoxSize] = new Geometry(intBoxSize);
+        }
+        return GEOMETRIES[intBoxSize];
+    }
+
+    /**
+     * Description: Getter methods for the box size, side length (also the number of digits), number of cells,
+     * number of units, and the mask with a bit set for every digit.
+     */
+    public int getIntBoxSize() {
+        return intBoxSize;
+    }
+
+    public int getIntSize() {
+        return intSize;
+    }
+
+    public int getIntCells() {
+        return intCells;
+    }
+
+    public int getIntUnits() {
+        return intUnits;
+    }
+
+    public int getIntAllDigits() {
+        return (1 << intSize) - 1;
+    }
+
+    /**
+     * Description: Return the row, column and box of a cell, each counting from 0.
+     */
+    public int getRow(int intCell) {
+        return intRows[intCell];
+    }
+
+    public int getCol(int intCell) {
+        return intCols[intCell];
+    }
+
+    public int getBox(int intCell) {
+        return intBoxes[intCell];
+    }
+
+    /**
+     * Description: Returns the cells of a unit. The array is shared, so it must not be changed.
+     */
+    public int[] getUnit(int intUnit) {
+        return intUnitCells[intUnit];
+    }
+
+    /**
+     * Description: Returns the peers of a cell. The array is shared, so it must not be changed.
+     */
+    public int[] getPeers(int intCell) {
+        return intPeers[intCell];
+    }
+
+    /**
+     * Description: Returns the row, column and box units of a cell, in that order. The array is shared, so it must not be changed.
+     */
+    public int[] getCellUnits(int intCell) {
+        return intCellUnits[intCell];
+    }
+}
@@ -0,0 +1,474 @@
+/**
+ * Description: Grader class rates how hard a puzzle is for a person, by solving it the way a person would.
+ * It keeps a 9-bit candidate mask for every cell and applies logical techniques in order of difficulty, always going
+ * back to the easiest one that still makes progress:
+ * - naked singles and hidden singles (Easy),
+ * - pointing pairs/triples and box-line reduction (Medium),
+ * - naked pairs and X-wings (Hard).
+ * The grade is the hardest technique the puzzle needed. A puzzle these techniques can't finish is graded Expert, as
+ * it needs guessing or harder chains; a puzzle whose givens contradict each other is graded Invalid. A score adds up
+ * a weight for every technique used, to order puzzles within a grade.
+ * Candidates are updated through the PeerTable and units are scanned with bitmasks, so a puzzle is graded in a few
+ * microseconds with no allocation. A Grader reuses its own arrays, so each thread should have its own.
+ *
+ * Usage: java Grader <puzzle file> (one puzzle per line, 81 characters) to grade a whole file and print the counts.
+ *
+ * Methods:
+ * - main(String[] args): Grades every puzzle in a file.
+ * - grade(byte[][] bytBoard): Grades a 9x9 board.
+ * - grade(byte[] bytBoard): Grades a board given as 81 cells.
+ * - getIntScore(): Returns the score of the last puzzle graded.
+ * - getIntTechniqueCount(int intTechnique): Returns how many times a technique was used on the last puzzle.
+ * - getGradeName(byte bytGrade), getTechniqueName(int intTechnique): Return names for printing.
+ */
+
+// Import the exception thrown when the puzzle file can't be read
+import java.io.IOException;
+
+public class Grader {
+    // Grades, matching the CreateBoard difficulties
+    public static final byte INVALID = 0;
+    public static final byte EASY = CreateBoard.EASY;
+    public static final byte MEDIUM = CreateBoard.MEDIUM;
+    public static final byte HARD = CreateBoard.HARD;
+    public static final byte EXPERT = 4;
+
+    // Techniques, in the order they are tried
+    public static final int NAKED_SINGLE = 0;
+    public static final int HIDDEN_SINGLE = 1;
+    public static final int POINTING = 2;
+    public static final int BOX_LINE = 3;
+    public static final int NAKED_PAIR = 4;
+    public static final int X_WING = 5;
+    public static final int TECHNIQUES = 6;
+
+    // Grade each technique belongs to, and the score added each time it is used
+    private static final byte[] BYT_TECHNIQUE_GRADES = {EASY, EASY, MEDIUM, MEDIUM, HARD, HARD};
+    private static final int[] INT_TECHNIQUE_WEIGHTS = {1, 2, 5, 5, 10, 20};
+
+    // Score added when the techniques get stuck
+    private static final int EXPERT_WEIGHT = 100;
+
+    // Names for printing
+    private static final String[] STR_GRADE_NAMES = {"Invalid", "Easy", "Medium", "Hard", "Expert"};
+    private static final String[] STR_TECHNIQUE_NAMES = {"Naked single", "Hidden single", "Pointing", "Box-line reduction", "Naked pair", "X-wing"};
+
+    // Digits in every cell (0 means empty) and the candidate mask of every empty cell (bit 0 is digit 1)
+    private final byte[] bytCells = new byte[81];
+    private final short[] shrCandidates = new short[81];
+
+    // Number of empty cells left, and set when the board turns out to contradict itself
+    private int intEmpty;
+    private boolean bolContradiction;
+
+    // Number of times each technique was used on the last puzzle, and its score
+    private final int[] intTechniqueCounts = new int[TECHNIQUES];
+    private int intScore;
+
+    // Where a digit can go in each row or column, used by the X-wing search
+    private final int[] intPositions = new int[9];
+
+    /**
+     * Description: Entry point for grading a file. Takes the name of a puzzle file (one puzzle per line) as the first
+     * argument, grades every puzzle in it and prints how many fell in each grade and the puzzles graded per second.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java Grader <puzzle file>");
+            return;
+        }
+
+        Grader grader = new Grader();
+        byte[][] bytBoard = new byte[9][9];
+        long[] lngCounts = new long[STR_GRADE_NAMES.length];
+        long lngStartTime = System.nanoTime();
+
+        try (PuzzleLineReader reader = new PuzzleLineReader(args[0])) {
+            while (reader.next(bytBoard)) {
+                lngCounts[grader.grade(bytBoard)]++;
+            }
+
+            double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+            System.out.println("Puzzles: " + reader.getLngPuzzles() + " (" + reader.getLngInvalid() + " unreadable lines skipped)");
+            for (byte i = EASY; i <= EXPERT; i++) {
+                System.out.println(STR_GRADE_NAMES[i] + ": " + lngCounts[i]);
+            }
+            System.out.println(STR_GRADE_NAMES[INVALID] + ": " + lngCounts[INVALID]);
+            System.out.println("Time: " + String.format("%.2f", dblSeconds) + "s (" + Math.round(reader.getLngPuzzles() / dblSeconds) + " puzzles/s)");
+        }
+    }
+
+    /**
+     * Description: Grades a 9x9 board (0 meaning empty). The board isn't changed.
+     * Returns EASY, MEDIUM, HARD, EXPERT, or INVALID if the givens contradict each other.
+     */
+    public byte grade(byte[][] bytBoard) {
+        for (int i = 0; i < 81; i++) {
+            bytCells[i] = bytBoard[i / 9][i % 9];
+        }
+        return solve();
+    }
+
+    /**
+     * Description: Grades a board given as 81 cells, row by row (0 meaning empty). The board isn't changed.
+     */
+    public byte grade(byte[] bytBoard) {
+        System.arraycopy(bytBoard, 0, bytCells, 0, 81);
+        return solve();
+    }
+
+    /**
+     * Description: Getter methods for the score of the last puzzle graded and how often it used each technique.
+     */
+    public int getIntScore() {
+        return intScore;
+    }
+
+    public int getIntTechniqueCount(int intTechnique) {
+        return intTechniqueCounts[intTechnique];
+    }
+
+    /**
+     * Description: Return the name of a grade or a technique, for printing.
+     */
+    public static String getGradeName(byte bytGrade) {
+        return STR_GRADE_NAMES[bytGrade];
+    }
+
+    public static String getTechniqueName(int intTechnique) {
+        return STR_TECHNIQUE_NAMES[intTechnique];
+    }
+
+    /**
+     * Description: Solves the board in bytCells with the techniques, easiest first, and returns its grade.
+     * After any technique makes progress the search goes back to naked singles, so a harder technique is only
+     * counted when nothing easier would do.
+     */
+    private byte solve() {
+        // Start with every digit possible in every cell, then place the givens
+        intEmpty = 81;
+        intScore = 0;
+        bolContradiction = false;
+        for (int i = 0; i < TECHNIQUES; i++) {
+            intTechniqueCounts[i] = 0;
+        }
+        for (int i = 0; i < 81; i++) {
+            shrCandidates[i] = 0x1FF;
+        }
+        for (int i = 0; i < 81; i++) {
+            if (bytCells[i] != 0) {
+                place(i, bytCells[i]);
+            }
+        }
+
+        // Apply the easiest technique that makes progress until the board is solved or nothing works
+        while (intEmpty > 0 && !bolContradiction) {
+            if (!applyNakedSingles() && !applyHiddenSingles() && !applyPointing() && !applyBoxLine() && !applyNakedPairs() && !applyXWing()) {
+                break;
+            }
+        }
+
+        if (bolContradiction) {
+            return INVALID;
+        }
+
+        // The grade is the hardest technique used, or Expert if the techniques got stuck
+        byte bytGrade = EASY;
+        for (int i = 0; i < TECHNIQUES; i++) {
+            if (intTechniqueCounts[i] > 0 && BYT_TECHNIQUE_GRADES[i] > bytGrade) {
+                bytGrade = BYT_TECHNIQUE_GRADES[i];
+            }
+            intScore += intTechniqueCounts[i] * INT_TECHNIQUE_WEIGHTS[i];
+        }
+        if (intEmpty > 0) {
+            bytGrade = EXPERT;
+            intScore += EXPERT_WEIGHT;
+        }
+        return bytGrade;
+    }
+
+    /**
+     * Description: Places a digit in a cell and removes it from the candidates of every peer.
+     * Flags a contradiction if the digit isn't a candidate there (it is already used by a peer).
+     */
+    private void place(int intCell, int intDigit) {
+        int intBit = 1 << (intDigit - 1);
+        if ((shrCandidates[intCell] & intBit) == 0) {
+            bolContradiction = true;
+            return;
+        }
+
+        bytCells[intCell] = (byte) intDigit;
+        shrCandidates[intCell] = 0;
+        intEmpty--;
+
+        for (byte bytPeer : PeerTable.getPeers(intCell)) {
+            shrCandidates[bytPeer] &= ~intBit;
+        }
+    }
+
+    /**
+     * Description: Removes the candidates in intMask from an empty cell. Returns true if anything was removed.
+     */
+    private boolean eliminate(int intCell, int intMask) {
+        if (bytCells[intCell] == 0 && (shrCandidates[intCell] & intMask) != 0) {
+            shrCandidates[intCell] &= ~intMask;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Description: Naked singles: fills every empty cell that has only one candidate left.
+     * An empty cell with no candidates left is a contradiction. Returns true if anything was placed.
+     */
+    private boolean applyNakedSingles() {
+        boolean bolProgress = false;
+
+        for (int i = 0; i < 81; i++) {
+            if (bytCells[i] == 0) {
+                int intCandidates = shrCandidates[i];
+                if (intCandidates == 0) {
+                    bolContradiction = true;
+                    return false;
+                }
+                if ((intCandidates & (intCandidates - 1)) == 0) {
+                    place(i, Integer.numberOfTrailingZeros(intCandidates) + 1);
+                    intTechniqueCounts[NAKED_SINGLE]++;
+                    bolProgress = true;
+                }
+            }
+        }
+        return bolProgress;
+    }
+
+    /**
+     * Description: Hidden singles: fills every digit that can only go in one cell of a row, column or box.
+     * The digits that appear once in a unit are found with two masks (seen once, seen more than once) in one pass.
+     * A digit that can't go anywhere in a unit is a contradiction. Returns true if anything was placed.
+     */
+    private boolean applyHiddenSingles() {
+        boolean bolProgress = false;
+
+        for (int intUnit = 0; intUnit < PeerTable.UNITS; intUnit++) {
+            byte[] bytUnit = PeerTable.getUnit(intUnit);
+            int intOnce = 0;
+            int intTwice = 0;
+            int intPlaced = 0;
+
+            for (byte bytCell : bytUnit) {
+                if (bytCells[bytCell] == 0) {
+                    intTwice |= intOnce & shrCandidates[bytCell];
+                    intOnce |= shrCandidates[bytCell];
+                } else {
+                    intPlaced |= 1 << (bytCells[bytCell] - 1);
+                }
+            }
+
+            // Every digit must either be placed or have somewhere to go
+            if (((intOnce | intPlaced) & 0x1FF) != 0x1FF) {
+                bolContradiction = true;
+                return false;
+            }
+
+            // Place each digit that has exactly one spot
+            int intSingles = intOnce & ~intTwice;
+            while (intSingles != 0) {
+                int intBit = Integer.lowestOneBit(intSingles);
+                intSingles &= intSingles - 1;
+
+                for (byte bytCell : bytUnit) {
+                    if (bytCells[bytCell] == 0 && (shrCandidates[bytCell] & intBit) != 0) {
+                        place(bytCell, Integer.numberOfTrailingZeros(intBit) + 1);
+                        intTechniqueCounts[HIDDEN_SINGLE]++;
+                        bolProgress = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return bolProgress;
+    }
+
+    /**
+     * Description: Pointing pairs and triples: if a digit's only spots in a box all lie in one row (or column), it
+     * can't go anywhere else in that row (or column). Returns true if any candidate was removed.
+     */
+    private boolean applyPointing() {
+        boolean bolProgress = false;
+
+        for (int intBox = 0; intBox < 9; intBox++) {
+            byte[] bytBox = PeerTable.getUnit(PeerTable.BOX_UNITS + intBox);
+
+            for (int intBit = 1; intBit < 0x200; intBit <<= 1) {
+                // Rows and columns of the box where the digit can go
+                int intRows = 0;
+                int intCols = 0;
+                for (byte bytCell : bytBox) {
+                    if (bytCells[bytCell] == 0 && (shrCandidates[bytCell] & intBit) != 0) {
+                        intRows |= 1 << PeerTable.getRow(bytCell);
+                        intCols |= 1 << PeerTable.getCol(bytCell);
+                    }
+                }
+
+                boolean bolRemoved = false;
+                if (intRows != 0 && (intRows & (intRows - 1)) == 0) {
+                    bolRemoved |= eliminateOutsideBox(PeerTable.getUnit(Integer.numberOfTrailingZeros(intRows)), intBox, intBit);
+                }
+                if (intCols != 0 && (intCols & (intCols - 1)) == 0) {
+                    bolRemoved |= eliminateOutsideBox(PeerTable.getUnit(PeerTable.COL_UNITS + Integer.numberOfTrailingZeros(intCols)), intBox, intBit);
+                }
+                if (bolRemoved) {
+                    intTechniqueCounts[POINTING]++;
+                    bolProgress = true;
+                }
+            }
+        }
+        return bolProgress;
+    }
+
+    /**
+     * Description: Removes a candidate from every cell of a row or column that lies outside the given box.
+     */
+    private boolean eliminateOutsideBox(byte[] bytLine, int intBox, int intBit) {
+        boolean bolRemoved = false;
+        for (byte bytCell : bytLine) {
+            if (PeerTable.getBox(bytCell) != intBox) {
+                bolRemoved |= eliminate(bytCell, intBit);
+            }
+        }
+        return bolRemoved;
+    }
+
+    /**
+     * Description: Box-line reduction: if a digit's only spots in a row (or column) all lie in one box, it can't go
+     * anywhere else in that box. Returns true if any candidate was removed.
+     */
+    private boolean applyBoxLine() {
+        boolean bolProgress = false;
+
+        for (int intLine = 0; intLine < PeerTable.BOX_UNITS; intLine++) {
+            byte[] bytLine = PeerTable.getUnit(intLine);
+
+            for (int intBit = 1; intBit < 0x200; intBit <<= 1) {
+                // Boxes of the line where the digit can go
+                int intBoxes = 0;
+                for (byte bytCell : bytLine) {
+                    if (bytCells[bytCell] == 0 && (shrCandidates[bytCell] & intBit) != 0) {
+                        intBoxes |= 1 << PeerTable.getBox(bytCell);
+                    }
+                }
+                if (intBoxes == 0 || (intBoxes & (intBoxes - 1)) != 0) {
+                    continue;
+                }
+
+                // Remove the digit from the rest of the box
+                boolean bolRemoved = false;
+                for (byte bytCell : PeerTable.getUnit(PeerTable.BOX_UNITS + Integer.numberOfTrailingZeros(intBoxes))) {
+                    if (PeerTable.getCellUnits(bytCell)[intLine < PeerTable.COL_UNITS ? 0 : 1] != intLine) {
+                        bolRemoved |= eliminate(bytCell, intBit);
+                    }
+                }
+                if (bolRemoved) {
+                    intTechniqueCounts[BOX_LINE]++;
+                    bolProgress = true;
+                }
+            }
+        }
+        return bolProgress;
+    }
+
+    /**
+     * Description: Naked pairs: if two cells of a unit have the same two candidates, those digits must go in those
+     * two cells, so they can be removed from the rest of the unit. Returns true if any candidate was removed.
+     */
+    private boolean applyNakedPairs() {
+        boolean bolProgress = false;
+
+        for (int intUnit = 0; intUnit < PeerTable.UNITS; intUnit++) {
+            byte[] bytUnit = PeerTable.getUnit(intUnit);
+
+            for (int i = 0; i < 9; i++) {
+                int intPair = shrCandidates[bytUnit[i]];
+                if (bytCells[bytUnit[i]] != 0 || Integer.bitCount(intPair) != 2) {
+                    continue;
+                }
+
+                for (int j = i + 1; j < 9; j++) {
+                    if (bytCells[bytUnit[j]] == 0 && shrCandidates[bytUnit[j]] == intPair) {
+                        // Found the pair, so clear its digits from every other cell of the unit
+                        boolean bolRemoved = false;
+                        for (int k = 0; k < 9; k++) {
+                            if (k != i && k != j) {
+                                bolRemoved |= eliminate(bytUnit[k], intPair);
+                            }
+                        }
+                        if (bolRemoved) {
+                            intTechniqueCounts[NAKED_PAIR]++;
+                            bolProgress = true;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return bolProgress;
+    }
+
+    /**
+     * Description: X-wings: if a digit can only go in the same two columns in two different rows, it must take those
+     * columns in those rows, so it can be removed from the rest of both columns (and the same with rows and columns
+     * swapped). Returns true if any candidate was removed.
+     */
+    private boolean applyXWing() {
+        boolean bolProgress = false;
+
+        for (int intBit = 1; intBit < 0x200; intBit <<= 1) {
+            // Rows first (positions are columns), then columns (positions are rows)
+            for (int intOrientation = 0; intOrientation < 2; intOrientation++) {
+                int intFirstUnit = intOrientation == 0 ? 0 : PeerTable.COL_UNITS;
+                int intCrossUnit = intOrientation == 0 ? PeerTable.COL_UNITS : 0;
+
+                // Where the digit can go within each line
+                for (int i = 0; i < 9; i++) {
+                    intPositions[i] = 0;
+                    byte[] bytLine = PeerTable.getUnit(intFirstUnit + i);
+                    for (int j = 0; j < 9; j++) {
+                        if (bytCells[bytLine[j]] == 0 && (shrCandidates[bytLine[j]] & intBit) != 0) {
+                            intPositions[i] |= 1 << j;
+                        }
+                    }
+                }
+
+                for (int i = 0; i < 9; i++) {
+                    if (Integer.bitCount(intPositions[i]) != 2) {
+                        continue;
+                    }
+                    for (int j = i + 1; j < 9; j++) {
+                        if (intPositions[j] != intPositions[i]) {
+                            continue;
+                        }
+
+                        // Remove the digit from both crossing lines, except in lines i and j
+                        boolean bolRemoved = false;
+                        int intCross = intPositions[i];
+                        while (intCross != 0) {
+                            byte[] bytCrossLine = PeerTable.getUnit(intCrossUnit + Integer.numberOfTrailingZeros(intCross));
+                            intCross &= intCross - 1;
+                            for (int k = 0; k < 9; k++) {
+                                if (k != i && k != j) {
+                                    bolRemoved |= eliminate(bytCrossLine[k], intBit);
+                                }
+                            }
+                        }
+                        if (bolRemoved) {
+                            intTechniqueCounts[X_WING]++;
+                            bolProgress = true;
+                        }
+                    }
+                }
+            }
+        }
+        return bolProgress;
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Description: InputSource class reads a player's input from the console, a script file or a socket.
+ * One InputSource should be kept for the whole session: it owns the only buffer over the underlying stream, so
+ * input that has been read ahead (such as the rest of a piped script) is never lost between prompts.
+ * Numbers are parsed straight out of the buffer by a small tokenizer instead of a Scanner, so reading a number
+ * costs no regular expressions and no allocation.
+ *
+ * Methods:
+ * - InputSource(InputStream in): Reads from a stream in the platform's default charset.
+ * - InputSource(InputStream in, Charset charset): Reads from a stream in the given charset.
+ * - InputSource(Reader reader): Reads from a Reader.
+ * - InputSource(Reader reader, int intBufferSize): Reads from a Reader through a buffer of the given size.
+ * - fromFile(String strFileName): Reads from a script file.
+ * - fromSocket(Socket socket): Reads from a socket, with small buffers.
+ * - nextInt(): Reads the next whitespace-separated token as a number.
+ * - readLine(): Reads the next line.
+ * - close(): Closes the underlying stream.
+ */
+
+// Import the stream classes and the exceptions used to report bad input
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+public class InputSource implements Closeable {
+    // Size of the character buffer for consoles and files
+    private static final int BUFFER_SIZE = 8192;
+
+    // Size of every buffer kept for a socket: commands are under 30 characters and a server holds thousands of sockets
+    public static final int SOCKET_BUFFER_SIZE = 256;
+
+    // Underlying reader and the buffer over it
+    private final Reader reader;
+    private final char[] chrBuffer;
+    private int intPosition = 0;
+    private int intLimit = 0;
+
+    // True when the last thing read was a number, so the end of its line is still waiting to be skipped
+    private boolean bolAfterToken = false;
+
+    /**
+     * Description: Constructors for InputSource class. Take in the stream (and optionally its charset) or the Reader
+     * to read from, and optionally the size of the buffer (8192 characters by default).
+     */
+    public InputSource(InputStream in) {
+        this(new InputStreamReader(in, Charset.defaultCharset()));
+    }
+
+    public InputSource(InputStream in, Charset charset) {
+        this(new InputStreamReader(in, charset));
+    }
+
+    public InputSource(Reader reader) {
+        this(reader, BUFFER_SIZE);
+    }
+
+    public InputSource(Reader reader, int intBufferSize) {
+        this.reader = reader;
+        this.chrBuffer = new char[intBufferSize];
+    }
+
+    /**
+     * Description: Returns an InputSource that reads a script file, such as a recorded game to replay.
+     */
+    public static InputSource fromFile(String strFileName) throws IOException {
+        return new InputSource(new FileInputStream(strFileName));
+    }
+
+    /**
+     * Description: Returns an InputSource that reads what a client sends over a socket, in US-ASCII.
+     * An InputStreamReader would keep an 8 KB byte buffer per socket, so the bytes are decoded through a channel
+     * reader whose buffer, like the InputSource's own, is only SOCKET_BUFFER_SIZE long.
+     */
+    public static InputSource fromSocket(Socket socket) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.US_ASCII.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        Reader reader = Channels.newReader(Channels.newChannel(socket.getInputStream()), decoder, SOCKET_BUFFER_SIZE);
+        return new InputSource(reader, SOCKET_BUFFER_SIZE);
+    }
+
+    /**
+     * Description: Reads the next whitespace-separated token and returns it as a number.
+     * The token may start with + or -. If it is not a number that fits in an int, the token is still used up and an
+     * InputMismatchException is thrown, so the caller can just ask again. Throws NoSuchElementException once the
+     * input has ended, so a script that runs out can't make a prompt loop forever.
+     */
+    public int nextInt() {
+        // Skip the whitespace before the token
+        int intChar = read();
+        while (intChar != -1 && Character.isWhitespace(intChar)) {
+            intChar = read();
+        }
+        if (intChar == -1) {
+            throw new NoSuchElementException("End of input");
+        }
+
+        // Read the sign, if there is one
+        boolean bolNegative = intChar == '-';
+        if (intChar == '-' || intChar == '+') {
+            intChar = read();
+        }
+
+        // Build up the number digit by digit; keep reading to the end of the token even if it is invalid
+        long lngValue = 0;
+        boolean bolValid = intChar >= '0' && intChar <= '9';
+        while (intChar != -1 && !Character.isWhitespace(intChar)) {
+            if (intChar >= '0' && intChar <= '9' && lngValue <= Integer.MAX_VALUE + 1L) {
+                lngValue = lngValue * 10 + (intChar - '0');
+            } else {
+                bolValid = false;
+            }
+            intChar = read();
+        }
+
+        // Leave the character after the token (the end of the line, if that's what it was) to be read again
+        if (intChar != -1) {
+            intPosition--;
+        }
+        bolAfterToken = true;
+
+        if (bolNegative) {
+            lngValue = -lngValue;
+        }
+        if (!bolValid || lngValue > Integer.MAX_VALUE || lngValue < Integer.MIN_VALUE) {
+            throw new InputMismatchException("Not a number");
+        }
+        return (int) lngValue;
+    }
+
+    /**
+     * Description: Reads the next line, without its line ending. Returns null once the input has ended.
+     * If the last thing read was a number and nothing but spaces follows it on its line, that line is finished and
+     * the one after it is read, so a name prompt after a menu choice gets the name rather than an empty line.
+     */
+    public String readLine() {
+        // Skip what is left of the line a number was read from, if it's only spaces
+        if (bolAfterToken) {
+            bolAfterToken = false;
+            int intChar = read();
+            while (intChar == ' ' || intChar == '\t') {
+                intChar = read();
+            }
+            if (intChar == '\r') {
+                skipLineFeed();
+            } else if (intChar != '\n' && intChar != -1) {
+                intPosition--;
+            }
+        }
+
+        int intChar = read();
+        if (intChar == -1) {
+            return null;
+        }
+
+        StringBuilder strLine = new StringBuilder();
+        while (intChar != -1 && intChar != '\n' && intChar != '\r') {
+            strLine.append((char) intChar);
+            intChar = read();
+        }
+        if (intChar == '\r') {
+            skipLineFeed();
+        }
+        return strLine.toString();
+    }
+
+    /**
+     * Description: Closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Description: Skips the \n of a \r\n line ending.
+     */
+    private void skipLineFeed() {
+        int intChar = read();
+        if (intChar != '\n' && intChar != -1) {
+            intPosition--;
+        }
+    }
+
+    /**
+     * Description: Returns the next character, refilling the buffer when it runs out, or -1 at the end of the input.
+     * After a character has been read, stepping intPosition back by one un-reads it.
+     */
+    private int read() {
+        if (intPosition == intLimit) {
+            try {
+                int intRead = reader.read(chrBuffer, 0, chrBuffer.length);
+                if (intRead <= 0) {
+                    return -1;
+                }
+                intPosition = 0;
+                intLimit = intRead;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chrBuffer[intPosition++];
+    }
+}
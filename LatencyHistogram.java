@@ -0,0 +1,132 @@
+/**
+ * Description: LatencyHistogram class records durations (in nanoseconds) from many threads at once and reports
+ * percentiles such as p50 and p99. Like an HDR histogram, it uses buckets whose width grows with the value: every
+ * power of two is split into 16 sub-buckets, so any recorded value is reported to within about 6%.
+ * Recording is a couple of bit operations and one atomic increment, with no locking and no allocation.
+ *
+ * Methods:
+ * - record(long lngNanos): Records one duration.
+ * - getLngCount(): Returns the number of durations recorded.
+ * - getPercentile(double dblPercentile): Returns the duration at the given percentile (0-100).
+ * - getLngMax(): Returns the largest duration recorded.
+ * - reset(): Clears every recorded duration.
+ * - toString(): Summarizes the count, p50, p90, p99, p99.9 and max.
+ */
+
+// Import the atomic counters used by the buckets
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    // Number of sub-buckets each power of two is split into (as a power of two)
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Counts for every bucket, covering every non-negative long value
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    // Number of values recorded and the largest one
+    private final AtomicLong lngCount = new AtomicLong();
+    private final AtomicLong lngMax = new AtomicLong();
+
+    /**
+     * Description: Records one duration in nanoseconds. Negative values are counted as 0.
+     */
+    public void record(long lngNanos) {
+        if (lngNanos < 0) {
+            lngNanos = 0;
+        }
+
+        buckets.incrementAndGet(getBucket(lngNanos));
+        lngCount.incrementAndGet();
+
+        // Raise the maximum if this value is bigger
+        long lngCurrentMax = lngMax.get();
+        while (lngNanos > lngCurrentMax && !lngMax.compareAndSet(lngCurrentMax, lngNanos)) {
+            lngCurrentMax = lngMax.get();
+        }
+    }
+
+    /**
+     * Description: Getter methods for the number of values recorded and the largest value.
+     */
+    public long getLngCount() {
+        return lngCount.get();
+    }
+
+    public long getLngMax() {
+        return lngMax.get();
+    }
+
+    /**
+     * Description: Returns the duration (in nanoseconds) below which the given percentage of recorded values fall.
+     * The value returned is the upper edge of the bucket the percentile lands in. Returns 0 if nothing was recorded.
+     */
+    public long getPercentile(double dblPercentile) {
+        long lngTotal = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            lngTotal += buckets.get(i);
+        }
+        if (lngTotal == 0) {
+            return 0;
+        }
+
+        // Walk the buckets until enough values have been passed
+        long lngTarget = Math.max(1, (long) Math.ceil(lngTotal * dblPercentile / 100.0));
+        long lngSeen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            lngSeen += buckets.get(i);
+            if (lngSeen >= lngTarget) {
+                return Math.min(getBucketTop(i), lngMax.get());
+            }
+        }
+        return lngMax.get();
+    }
+
+    /**
+     * Description: Clears every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        lngCount.set(0);
+        lngMax.set(0);
+    }
+
+    /**
+     * Description: Overrides the toString method to summarize the histogram in microseconds on one line.
+     */
+    @Override
+    public String toString() {
+        return "count=" + getLngCount() + " p50=" + getPercentile(50) / 1000 + "us p90=" + getPercentile(90) / 1000 + "us p99=" + getPercentile(99) / 1000
+            + "us p99.9=" + getPercentile(99.9) / 1000 + "us max=" + getLngMax() / 1000 + "us";
+    }
+
+    /**
+     * Description: Returns the bucket a value belongs in.
+     * Values below SUB_BUCKETS get a bucket each; above that, the position of the highest set bit picks the power of two
+     * and the next SUB_BUCKET_BITS bits pick the sub-bucket within it.
+     */
+    private static int getBucket(long lngValue) {
+        if (lngValue < SUB_BUCKETS) {
+            return (int) lngValue;
+        }
+        int intHighBit = 63 - Long.numberOfLeadingZeros(lngValue);
+        int intSubBucket = (int) (lngValue >>> (intHighBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (intHighBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + intSubBucket;
+    }
+
+    /**
+     * Description: Returns the largest value that falls in the given bucket.
+     */
+    private static long getBucketTop(int intBucket) {
+        if (intBucket < SUB_BUCKETS) {
+            return intBucket;
+        }
+        int intHighBit = intBucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lngSubBucket = intBucket % SUB_BUCKETS;
+        long lngBottom = (1L << intHighBit) | (lngSubBucket << (intHighBit - SUB_BUCKET_BITS));
+        return lngBottom + (1L << (intHighBit - SUB_BUCKET_BITS)) - 1;
+    }
+}
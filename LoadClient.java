@@ -0,0 +1,116 @@
+/**
+ * Description: LoadClient class is a load generator for GameServer. It opens many sessions at once, each on its own
+ * (virtual, where available) thread. Every session starts a new game, solves the board it is sent with Solver, then
+ * plays correct moves until the game is won, measuring the round-trip time of each move. Once every session has
+ * finished it prints the number of sessions, moves per second and the move latency percentiles.
+ *
+ * Usage: java LoadClient [host] [port] [sessions] [difficulty] (localhost 5555 1000 MEDIUM by default)
+ *
+ * Methods:
+ * - main(String[] args): Runs the load test.
+ */
+
+// Import the socket, stream and thread classes
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadClient {
+    // Round-trip time of every move, and the number of sessions that failed
+    private static final LatencyHistogram moveLatency = new LatencyHistogram();
+    private static final AtomicInteger intFailures = new AtomicInteger();
+
+    /**
+     * Description: Entry point for the load test. Starts every session, waits for them all to finish and prints the results.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String strHost = args.length > 0 ? args[0] : "localhost";
+        int intPort = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int intSessions = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        String strDifficulty = args.length > 3 ? args[3] : "MEDIUM";
+
+        ExecutorService clients = GameServer.newSessionExecutor();
+        CountDownLatch finished = new CountDownLatch(intSessions);
+        long lngStartTime = System.nanoTime();
+
+        for (int i = 0; i < intSessions; i++) {
+            clients.execute(() -> {
+                try {
+                    playGame(strHost, intPort, strDifficulty);
+                } catch (IOException | RuntimeException e) {
+                    intFailures.incrementAndGet();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+
+        double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+        System.out.println("Sessions: " + intSessions + " (" + intFailures.get() + " failed) in " + String.format("%.2f", dblSeconds) + "s");
+        System.out.println("Moves: " + moveLatency.getLngCount() + " (" + Math.round(moveLatency.getLngCount() / dblSeconds) + " moves/s)");
+        System.out.println("Move round trip: " + moveLatency);
+        clients.shutdown();
+    }
+
+    /**
+     * Description: Plays one full game over its own connection: starts a game, solves it locally and sends a correct
+     * move for every empty cell, timing each one.
+     */
+    private static void playGame(String strHost, int intPort, String strDifficulty) throws IOException {
+        try (Socket socket = new Socket(strHost, intPort);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+
+            // Start a game and read the board out of the response
+            String strResponse = send(out, in, "NEW " + strDifficulty);
+            byte[][] bytBoard = new byte[9][9];
+            // The response is "BOARD <81 cells> <mistakes> <hints>", so the cells are the second word
+            String[] strWords = strResponse.split(" ");
+            if (!strWords[0].equals("BOARD") || strWords.length < 2 || !Solver.parseLine(strWords[1], bytBoard)) {
+                throw new IOException("Unexpected response: " + strResponse);
+            }
+
+            byte[][] bytSolution = new Solver().solve(bytBoard, 1).getBytSolution();
+
+            // Fill every empty cell with its answer
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    if (bytBoard[i][j] == 0) {
+                        long lngStartTime = System.nanoTime();
+                        strResponse = send(out, in, "MOVE " + (i + 1) + " " + (j + 1) + " " + bytSolution[i][j]);
+                        moveLatency.record(System.nanoTime() - lngStartTime);
+
+                        if (!strResponse.startsWith("CORRECT")) {
+                            throw new IOException("Unexpected response: " + strResponse);
+                        }
+                    }
+                }
+            }
+
+            send(out, in, "QUIT");
+        }
+    }
+
+    /**
+     * Description: Sends one command line and returns the response line.
+     */
+    private static String send(PrintWriter out, BufferedReader in, String strCommand) throws IOException {
+        out.print(strCommand);
+        out.print('\n');
+        out.flush();
+
+        String strResponse = in.readLine();
+        if (strResponse == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return strResponse;
+    }
+}
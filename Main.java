@@ -5,31 +5,54 @@
  * This class handles the main game loop, allowing the player to choose the difficulty level,
  * play a standard Sudoku game or a special game, and manage game options such as saving,
  * exiting, and getting hints.
+ * If a file name is given on the command line, the player's input is read from that file instead of the console,
+ * so a recorded game can be replayed.
+ * Every game is autosaved to a move journal as it is played, so moves can be undone and redone, and a game that was
+ * left (or interrupted by a crash) can be resumed from the main menu.
+ * Boards of other sizes (4x4, 16x16 and 25x25) can also be played, as simpler games without saving or hints.
  * 
  * Methods:
  * - main(): The main method of the Sudoku program.
+ * - pencilMark(GameBoard board): Asks for a pencil mark to add or remove on the board.
+ * - askToQuit(String strPlayerName): Asks if the player wants to quit or return to the main menu.
+ * - playVariant(String strPlayerName): Plays a game on a 4x4, 16x16 or 25x25 board.
  */
+
+// Import the exception thrown if the replay script can't be opened
+import java.io.IOException;
+
 public class Main {
+    // Journal file every game is autosaved to
+    private static final String AUTOSAVE_FILE = "autosave.journal";
 
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
      * Description: The main method of the program, entry point for the Sudoku game.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         String strPlayerName, strFileName;
         byte bytMenuChoice;
         boolean bolGameRunning;
         boolean bolProgramRunning;
 
-        GameBoard gameboard; // Instance of the standard Sudoku GameBoard
-        gameboard = new GameBoard();
+        // Every menu choice sets the board it plays, so none is generated up front
+        GameBoard gameboard = null; // Instance of the standard Sudoku GameBoard
+        SpecialBoard specialboard = null; // Instance of the special Sudoku SpecialBoard
 
-        SpecialBoard specialboard; // Instance of the special Sudoku SpecialBoard
-        specialboard = new SpecialBoard();
+        // Pool that generates puzzles in the background so new games are ready straight away
+        PuzzlePool puzzlepool = new PuzzlePool(8, 3, 1);
 
         bolProgramRunning = true;
 
+        // Publish the metrics, if they were enabled with -Dsudoku.metrics=true
+        Metrics.start();
+
+        // Replay the input from a script file if one was given
+        if (args.length > 0) {
+            PlayerInput.setInputSource(InputSource.fromFile(args[0]));
+        }
+
         // Get player's name
         strPlayerName = PlayerInput.getStringInput("Hello and welcome to Sudoku! Please enter in your name below: ");
 
@@ -37,39 +60,74 @@ public class Main {
             bolGameRunning = true;
 
             // Choose difficulty or game type
-            bytMenuChoice = PlayerInput.getNumInput("\nHello " + strPlayerName + "! What difficulty of Sudoku would you like to play?\n\n1: Easy\n2: Medium\n3: Hard\n4: Create a new game\n5: Special game\n6: Play a saved game", (byte)1, (byte)6);
+            bytMenuChoice = PlayerInput.getNumInput("\nHello " + strPlayerName + "! What difficulty of Sudoku would you like to play?\n\n1: Easy\n2: Medium\n3: Hard\n4: Create a new game\n5: Special game\n6: Play a saved game\n7: Resume your last game\n8: Play a different size (4x4, 16x16 or 25x25)", (byte)1, (byte)8);
 
             // Create a new game based on the chosen difficulty or type
             switch (bytMenuChoice) {
                 case 1:
-                    gameboard = new GameBoard("easyboard.txt");
+                    gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.EASY));
                     break;
                 case 2:
-                    gameboard = new GameBoard("mediumboard.txt");
+                    gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
                     break;
                 case 3:
-                    gameboard = new GameBoard("hardboard.txt");
+                    gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.HARD));
                     break;
                 case 4:
-                    gameboard = new GameBoard();
+                    gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
                     break;
                 case 5:
-                    specialboard = new SpecialBoard();
+                    specialboard = new SpecialBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
                     break;
-                default:
+                case 6:
                     gameboard = new GameBoard(PlayerInput.getFileInput("\n\nWhich file would you like to play from?"));
+                    break;
+                case 8:
+                    // Other sizes have their own simpler game, with no autosave, then go straight to the menu prompt
+                    playVariant(strPlayerName);
+                    bolProgramRunning = !askToQuit(strPlayerName);
+                    continue;
+                default:
+                    // Rebuild the last game from its autosave journal, or start a new game if there isn't one
+                    try {
+                        GameBoard resumed = MoveJournal.resume(AUTOSAVE_FILE);
+                        if (resumed instanceof SpecialBoard) {
+                            specialboard = (SpecialBoard) resumed;
+                            bytMenuChoice = 5;
+                        } else {
+                            gameboard = resumed;
+                        }
+                    } catch (IOException e) {
+                        System.out.println("\nThere is no game to resume, so here is a new one.");
+                        gameboard = new GameBoard(puzzlepool.takePuzzle(CreateBoard.MEDIUM));
+                        bytMenuChoice = 4;
+                    }
             }
 
+            // Autosave the new game to the journal, which also lets moves be undone (a resumed game already has one)
+            GameBoard currentboard = bytMenuChoice != 5 ? gameboard : specialboard;
+            if (currentboard.getJournal() == null) {
+                try {
+                    currentboard.startJournal(AUTOSAVE_FILE);
+                } catch (IOException e) {
+                    System.out.println("Error: Cannot create the autosave file, this game won't be autosaved");
+                    currentboard.startJournal(null);
+                }
+            }
+
+            // Set when the game is lost, so its autosave is thrown away
+            boolean bolGameLost = false;
+
             // Check if it's a special game or standard game
             if (bytMenuChoice != 5) {
                 // Standard Sudoku game
                 System.out.println("\n\nHere is your board. To make a guess, enter the row, column, and number you would like to guess.\n");
                 do {
-                    System.out.println(gameboard.toString());
+                    gameboard.print(System.out);
 
                     if (!gameboard.isBoardFilled()) {
                         // Save game, exit this board, or make a guess
-                        byte bytGameChoice = PlayerInput.getNumInput("\n\nWould you like to:\n1: Make a guess\n2: Save this game to a file\n3: Exit the board", (byte)1, (byte)3);
+                        byte bytGameChoice = PlayerInput.getNumInput("\n\nWould you like to:\n1: Make a guess\n2: Save this game to a file\n3: Exit the board\n4: Undo your last move\n5: Redo the move you undid\n6: Add or remove a pencil mark", (byte)1, (byte)6);
 
                         if (bytGameChoice == 1) {
                             // Make a guess
@@ -80,12 +138,26 @@ public class Main {
 
                                 if (!gameboard.validateMove(bytRow, bytCol, bytGuess)) {
                                     bolGameRunning = false;
+                                    bolGameLost = true;
                                 }
                             }
                         } else if (bytGameChoice == 2) {
                             // Save game
                             gameboard.saveGame();
                             bolGameRunning = false;
+                        } else if (bytGameChoice == 4) {
+                            // Undo
+                            if (!gameboard.undo()) {
+                                System.out.println("\nThere is nothing to undo.");
+                            }
+                        } else if (bytGameChoice == 5) {
+                            // Redo
+                            if (!gameboard.redo()) {
+                                System.out.println("\nThere is nothing to redo.");
+                            }
+                        } else if (bytGameChoice == 6) {
+                            // Pencil mark
+                            pencilMark(gameboard);
                         } else {
                             // Exit the board
                             bolGameRunning = false;
@@ -103,11 +175,11 @@ public class Main {
                 // Special Sudoku game
                 System.out.println("\n\nHere is your board. To make a guess, enter the row, column, and number you would like to guess.\n");
                 do {
-                    System.out.println(specialboard.toString());
+                    specialboard.print(System.out);
 
                     if (!specialboard.isBoardFilled()) {
-                        // Save game, exit this board, get a hint, or make a guess
-                        byte bytGameChoice = PlayerInput.getNumInput("Would you like to:\n1: Make a guess\n2: Get a  hint\n3: Save this game to a file\n4: Exit the board", (byte)1, (byte)4);
+                        // Save game, exit this board, get a hint (random or smart), or make a guess
+                        byte bytGameChoice = PlayerInput.getNumInput("Would you like to:\n1: Make a guess\n2: Get a  hint\n3: Get a smart hint (the most constrained cell)\n4: Save this game to a file\n5: Exit the board\n6: Undo your last move or hint\n7: Redo the move you undid\n8: Add or remove a pencil mark", (byte)1, (byte)8);
 
                         if (bytGameChoice == 1) {
                             // Make a guess
@@ -118,15 +190,32 @@ public class Main {
 
                                 if (!specialboard.validateMove(bytRow, bytCol, bytGuess)) {
                                     bolGameRunning = false;
+                                    bolGameLost = true;
                                 }
                             }
                         } else if (bytGameChoice == 2) {
                             // Get a hint
                             specialboard.getHint();
                         } else if (bytGameChoice == 3) {
+                            // Get a smart hint
+                            specialboard.getSmartHint();
+                        } else if (bytGameChoice == 4) {
                             // Save game
                             specialboard.saveGame();
                             bolGameRunning = false;
+                        } else if (bytGameChoice == 6) {
+                            // Undo
+                            if (!specialboard.undo()) {
+                                System.out.println("\nThere is nothing to undo.");
+                            }
+                        } else if (bytGameChoice == 7) {
+                            // Redo
+                            if (!specialboard.redo()) {
+                                System.out.println("\nThere is nothing to redo.");
+                            }
+                        } else if (bytGameChoice == 8) {
+                            // Pencil mark
+                            pencilMark(specialboard);
                         } else {
                             // Exit the board
                             bolGameRunning = false;
@@ -142,11 +231,82 @@ public class Main {
                 }
             }
 
-            // Ask the player if they want to quit or return to the main menu
-            if (PlayerInput.getNumInput("\n\nWould you like to quit the game, or return to the main menu?\n1: Quit\n2: Return to the main menu", (byte)1, (byte)2) == 1) {
-                System.out.println("\n\nThank you for playing Sudoku " + strPlayerName + "! Goodbye.");
-                bolProgramRunning = false;
+            // A finished game can't be resumed, so delete its autosave; otherwise keep it for next time
+            if (currentboard.getBolGameWon() || bolGameLost) {
+                currentboard.getJournal().delete();
             }
+            currentboard.closeJournal();
+
+            // Ask the player if they want to quit or return to the main menu
+            bolProgramRunning = !askToQuit(strPlayerName);
         } while (bolProgramRunning);
+
+        // Stop generating puzzles in the background
+        puzzlepool.shutdown();
+    }
+
+    /**
+     * Description: Asks the player if they want to quit or return to the main menu, saying goodbye if they quit.
+     * Returns true if the player wants to quit.
+     */
+    private static boolean askToQuit(String strPlayerName) {
+        if (PlayerInput.getNumInput("\n\nWould you like to quit the game, or return to the main menu?\n1: Quit\n2: Return to the main menu", (byte)1, (byte)2) == 1) {
+            System.out.println("\n\nThank you for playing Sudoku " + strPlayerName + "! Goodbye.");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Description: Asks for a board size, generates a VariantBoard of that size and plays it until it is won, lost or left.
+     */
+    private static void playVariant(String strPlayerName) {
+        byte bytSize = PlayerInput.getNumInput("\nWhich size would you like to play?\n1: 4x4\n2: 16x16\n3: 25x25 (takes a moment to create)", (byte)1, (byte)3);
+        VariantBoard variantboard = new VariantBoard(bytSize == 1 ? 2 : bytSize + 2);
+        byte bytMax = (byte) variantboard.getGeometry().getIntSize();
+        boolean bolGameRunning = true;
+
+        System.out.println("\n\nHere is your board. To make a guess, enter the row, column, and number you would like to guess.\n");
+        while (bolGameRunning && !variantboard.isBoardFilled()) {
+            variantboard.print(System.out);
+
+            if (PlayerInput.getNumInput("\n\nWould you like to:\n1: Make a guess\n2: Exit the board", (byte)1, (byte)2) == 1) {
+                byte bytRow = PlayerInput.getNumInput("\nOnce ready, enter in the row of the number you would like to guess: ", (byte)1, bytMax);
+                byte bytCol = PlayerInput.getNumInput("\nOnce ready, enter in the column of the number you would like to guess: ", (byte)1, bytMax);
+                byte bytGuess = PlayerInput.getNumInput("\nOnce ready, enter in the number you would like to guess: ", (byte)1, bytMax);
+                bolGameRunning = variantboard.validateMove(bytRow, bytCol, bytGuess);
+            } else {
+                bolGameRunning = false;
+            }
+        }
+
+        // If the game is won, show the finished board and let the user know
+        if (variantboard.getBolGameWon()) {
+            variantboard.print(System.out);
+            System.out.println("\nCongrats " + strPlayerName + ", you've won!");
+        }
+    }
+
+    /**
+     * Description: Asks for a cell and a digit and adds or removes that pencil mark on the board.
+     * Entering 0 as the row pencils in every possible digit of every empty cell instead.
+     */
+    private static void pencilMark(GameBoard board) {
+        byte bytRow = PlayerInput.getNumInput("\nEnter the row of the pencil mark (or 0 to pencil in every possible digit): ", (byte)0, (byte)9);
+        if (bytRow == 0) {
+            board.fillNotes();
+            return;
+        }
+
+        byte bytCol = PlayerInput.getNumInput("\nEnter the column of the pencil mark: ");
+        byte bytDigit = PlayerInput.getNumInput("\nEnter the digit to add or remove: ");
+
+        if (board.getCell(bytRow - 1, bytCol - 1) != 0) {
+            System.out.println("\nThat cell is already filled.");
+        } else if (board.toggleNote(bytRow - 1, bytCol - 1, bytDigit)) {
+            System.out.println("\nPencilled in " + bytDigit + " at (" + bytRow + ", " + bytCol + ").");
+        } else {
+            System.out.println("\nRubbed out " + bytDigit + " at (" + bytRow + ", " + bytCol + ").");
+        }
     }
-}
\ No newline at end of file
+}
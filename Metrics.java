@@ -0,0 +1,187 @@
+/**
+ * Description: Metrics class is the registry of counters and latency histograms for the game's hot paths: puzzle
+ * generation, loading and saving boards, moves, hints and rendering. Counters are LongAdders, which many threads can
+ * add to without contending, and timings go into LatencyHistograms. Any code can register more by name.
+ * Metrics are off unless the JVM is started with -Dsudoku.metrics=true. ENABLED is a static final flag, so when it is
+ * false the JIT removes every "if (Metrics.ENABLED)" block, and the instrumented code runs exactly as if it weren't
+ * there: no clock reads, no counting.
+ * Once started, the registry is published over JMX as "sudoku:type=Metrics" and written as a text snapshot to
+ * sudoku.metrics.file (metrics.txt by default) every sudoku.metrics.period seconds (10 by default) and when the JVM
+ * exits. The snapshot is written to a temporary file and renamed over the old one, so a reader never sees half of one.
+ *
+ * Methods:
+ * - start(): Publishes the registry over JMX and starts the snapshot writer, if metrics are enabled.
+ * - counter(String strName): Returns the counter with that name, registering it the first time.
+ * - histogram(String strName): Returns the histogram with that name, registering it the first time.
+ * - snapshot(): Returns every metric as text, one per line, in name order.
+ * - writeSnapshot(Path file): Writes a snapshot to a file, replacing it atomically.
+ * - getSnapshot(), getCounter(String strName), getPercentile(String strName, double dblPercentile): MetricsMBean methods for JMX.
+ */
+
+// Import the file, JMX and concurrent collection classes
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class Metrics implements MetricsMBean {
+    // True if the JVM was started with -Dsudoku.metrics=true; fixed for the life of the JVM so the JIT can fold it away
+    public static final boolean ENABLED = Boolean.getBoolean("sudoku.metrics");
+
+    // Every counter and histogram, by name, kept in name order for the snapshot
+    private static final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    // Puzzle generation (CreateBoard.populateBoard): time per puzzle, grids filled, backtracks and solver calls
+    public static final LatencyHistogram GENERATE_TIME = histogram("generate.time");
+    public static final LongAdder GENERATE_PUZZLES = counter("generate.puzzles");
+    public static final LongAdder GENERATE_BACKTRACKS = counter("generate.backtracks");
+    public static final LongAdder GENERATE_SOLVER_CALLS = counter("generate.solverCalls");
+
+    // Loading a board from a file (GameBoard.populateBoard): time, bytes read and files that couldn't be loaded
+    public static final LatencyHistogram LOAD_TIME = histogram("load.time");
+    public static final LongAdder LOAD_BYTES = counter("load.bytes");
+    public static final LongAdder LOAD_ERRORS = counter("load.errors");
+
+    // Writing a saved board to a file (SaveQueue): time, bytes written and saves that failed
+    public static final LatencyHistogram SAVE_TIME = histogram("save.time");
+    public static final LongAdder SAVE_BYTES = counter("save.bytes");
+    public static final LongAdder SAVE_ERRORS = counter("save.errors");
+
+    // Moves checked (GameBoard.makeMove), the wrong ones, and hints used (SpecialBoard.useHint)
+    public static final LongAdder MOVES = counter("game.moves");
+    public static final LongAdder MISTAKES = counter("game.mistakes");
+    public static final LongAdder HINTS = counter("game.hints");
+
+    // Drawing a board (GameBoard.print and toString)
+    public static final LatencyHistogram RENDER_TIME = histogram("render.time");
+
+    // Set once start has run, so it only runs once
+    private static boolean bolStarted;
+
+    /**
+     * Description: Private constructor, used only for the JMX view of the registry.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Description: If metrics are enabled, publishes the registry over JMX and starts a daemon thread that writes a
+     * snapshot to the metrics file every period, plus a last one when the JVM exits.
+     * Does nothing if metrics are disabled or it has already run.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || bolStarted) {
+            return;
+        }
+        bolStarted = true;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Metrics(), new ObjectName("sudoku:type=Metrics"));
+        } catch (JMException e) {
+            System.out.println("Error: Cannot publish the metrics over JMX, " + e.getMessage());
+        }
+
+        Path file = Paths.get(System.getProperty("sudoku.metrics.file", "metrics.txt"));
+        long lngPeriodMillis = Long.getLong("sudoku.metrics.period", 10) * 1000;
+
+        // Write a snapshot every period until the JVM exits
+        Thread writer = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(lngPeriodMillis);
+                    try {
+                        writeSnapshot(file);
+                    } catch (IOException e) {
+                        System.out.println("Error: Cannot write the metrics snapshot, " + e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Stop writing
+            }
+        }, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        // Write a last snapshot as the JVM exits, so short runs leave one too
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                writeSnapshot(file);
+            } catch (IOException e) {
+                // Nothing can be reported this late
+            }
+        }, "metrics-final-snapshot"));
+    }
+
+    /**
+     * Description: Returns the counter with the given name, registering a new one the first time the name is used.
+     * Callers on hot paths should keep the counter in a static final field rather than looking it up every time.
+     */
+    public static LongAdder counter(String strName) {
+        return counters.computeIfAbsent(strName, strKey -> new LongAdder());
+    }
+
+    /**
+     * Description: Returns the histogram with the given name, registering a new one the first time the name is used.
+     * Callers on hot paths should keep the histogram in a static final field rather than looking it up every time.
+     */
+    public static LatencyHistogram histogram(String strName) {
+        return histograms.computeIfAbsent(strName, strKey -> new LatencyHistogram());
+    }
+
+    /**
+     * Description: Returns every metric as text: a timestamp line, then one line per counter ("name value") and per
+     * histogram ("name count=... p50=...us ..."), each group in name order.
+     */
+    public static String snapshot() {
+        StringBuilder strOutput = new StringBuilder(1024);
+        strOutput.append("# Sudoku metrics at ").append(Instant.now()).append('\n');
+
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            strOutput.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            strOutput.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        return strOutput.toString();
+    }
+
+    /**
+     * Description: Writes a snapshot to the given file. It is written to a temporary file next to it first and then
+     * renamed over it, so the file always holds one whole snapshot.
+     */
+    public static void writeSnapshot(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, snapshot().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Description: MetricsMBean methods, reading the registry for JMX.
+     */
+    @Override
+    public String getSnapshot() {
+        return snapshot();
+    }
+
+    @Override
+    public long getCounter(String strName) {
+        LongAdder counter = counters.get(strName);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public long getPercentile(String strName, double dblPercentile) {
+        LatencyHistogram histogram = histograms.get(strName);
+        return histogram == null ? 0 : histogram.getPercentile(dblPercentile);
+    }
+}
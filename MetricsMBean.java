@@ -0,0 +1,26 @@
+/**
+ * Description: MetricsMBean interface is what JMX tools (such as JConsole or VisualVM) see of Metrics, under the
+ * name "sudoku:type=Metrics". It only reads the registry, so it can be called from any thread at any time.
+ *
+ * Methods:
+ * - getSnapshot(): Returns every metric as text, one per line.
+ * - getCounter(String strName): Returns the value of a counter, or 0 if there is no counter by that name.
+ * - getPercentile(String strName, double dblPercentile): Returns a percentile of a histogram in nanoseconds.
+ */
+public interface MetricsMBean {
+
+    /**
+     * Description: Returns every metric as text, one per line, in the same format as the snapshot file.
+     */
+    String getSnapshot();
+
+    /**
+     * Description: Returns the value of a counter, or 0 if there is no counter by that name.
+     */
+    long getCounter(String strName);
+
+    /**
+     * Description: Returns a percentile (0-100) of a histogram in nanoseconds, or 0 if there is no histogram by that name.
+     */
+    long getPercentile(String strName, double dblPercentile);
+}
@@ -0,0 +1,459 @@
+/**
+ * Description: MoveJournal class keeps the history of one game as an append-only list of fixed-size records: one per
+ * correct move, hint, mistake, undo and redo. The history gives the board undo and redo, and when the journal has a
+ * file every record is appended to it as soon as it is made, so autosaving a move costs one 4-byte sequential write
+ * instead of rewriting the whole save file. Replaying the file rebuilds the board exactly as it was left, including
+ * what can still be undone and redone. Mistakes stay in the history but are never undone: undo and redo step over
+ * them, so a wrong guess can't be taken back to try another digit.
+ *
+ * File layout (all single bytes):
+ * - Header: 'S' 'J' 'N' 'L', version, flags (1 = puzzle ID follows, 2 = special game), mistakes, hints left,
+ *   seconds played in a special game (2 bytes, high byte first), the 81 cells of the playing board when the journal
+ *   started, then the 16-byte PuzzleId or the 81 answer cells. Version 1 files have no seconds and are still read.
+ * - Records, 4 bytes each: type, cell (0-80), digit, check byte.
+ * A record cut short by a crash, or one whose check byte doesn't match, ends the replay. The file is cut back to the
+ * last good record, so new records are appended in step. The seconds played are written when the journal is started
+ * and updated in place when the special game leaves the board, so a resumed game carries on with its clock.
+ *
+ * Methods:
+ * - MoveJournal(): Creates a journal kept in memory only, for undo and redo.
+ * - create(String strFileName, GameBoard board): Starts a journal file for a board and writes its header.
+ * - resume(String strFileName): Replays a journal file and returns the rebuilt board, with the journal attached.
+ * - append(byte bytType, int intCell, byte bytDigit): Records a move, dropping anything that could have been redone.
+ * - undo(), redo(): Step back or forward through the history and record the step.
+ * - canUndo(), canRedo(): Check whether there is a move or hint to undo or redo.
+ * - getIntRecords(): Returns the number of records written to the file.
+ * - writeElapsedTime(short shrSeconds): Updates the seconds played in the file's header.
+ * - setBolSync(boolean bolSync): Sets whether each record is forced to disk before the move returns.
+ * - close(), delete(): Close the file, and also delete it.
+ * - getType(int intRecord), getCell(int intRecord), getDigit(int intRecord): Unpack a record.
+ */
+
+// Import the classes for reading and writing the journal file
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class MoveJournal {
+    // Record types
+    public static final byte REVEAL = 1;
+    public static final byte MISTAKE = 2;
+    public static final byte HINT = 3;
+    public static final byte UNDO = 4;
+    public static final byte REDO = 5;
+
+    // Size of each record in the file, the offset of the seconds played and the size of the header before the puzzle
+    public static final int RECORD_BYTES = 4;
+    private static final int ELAPSED_OFFSET = 8;
+    private static final int HEADER_BYTES = 10 + 81;
+
+    // File format marker and version; version 1 had no seconds played, so its cells start 2 bytes earlier
+    private static final byte[] BYT_MAGIC = {'S', 'J', 'N', 'L'};
+    private static final byte VERSION = 2;
+    private static final byte VERSION_NO_ELAPSED = 1;
+
+    // Header flags
+    private static final byte FLAG_PUZZLE_ID = 1;
+    private static final byte FLAG_SPECIAL = 2;
+
+    // Moves, hints and mistakes made so far, packed as (type << 16) | (cell << 8) | digit
+    // The first intApplied are on the board; the rest, up to intSize, have been undone and can be redone (apart from
+    // mistakes among them, which an undo stepped over but which still count on the board)
+    private int[] intHistory = new int[16];
+    private int intApplied;
+    private int intSize;
+
+    // File the records are appended to (null for a journal kept in memory), and the number of records in it
+    private String strFileName;
+    private FileOutputStream out;
+    private int intRecords;
+
+    // Whether every record is forced to disk before append returns
+    private boolean bolSync;
+
+    // Buffer holding the record being written
+    private final byte[] bytRecord = new byte[RECORD_BYTES];
+
+    /**
+     * Description: Default constructor for MoveJournal class. Creates a journal kept in memory only, which gives a
+     * board undo and redo without writing anything.
+     */
+    public MoveJournal() {
+    }
+
+    /**
+     * Description: Starts a journal file for a board, replacing any file of the same name.
+     * The header holds the board as it is now (cells, mistakes, hints left and seconds played) and either the puzzle ID
+     * or the answer board, so the file can rebuild the game on its own. The header is written in one write.
+     */
+    public static MoveJournal create(String strFileName, GameBoard board) throws IOException {
+        PuzzleId puzzleId = board.getPuzzleId();
+        byte[] bytHeader = new byte[HEADER_BYTES + (puzzleId != null ? PuzzleId.BYTES : 81)];
+
+        System.arraycopy(BYT_MAGIC, 0, bytHeader, 0, 4);
+        bytHeader[4] = VERSION;
+        bytHeader[5] = (byte) ((puzzleId != null ? FLAG_PUZZLE_ID : 0) | (board instanceof SpecialBoard ? FLAG_SPECIAL : 0));
+        bytHeader[6] = board.getBytMistakes();
+        bytHeader[7] = board instanceof SpecialBoard ? ((SpecialBoard) board).getBytHints() : 0;
+        short shrElapsed = board instanceof SpecialBoard ? ((SpecialBoard) board).getShrElapsedTime() : 0;
+        bytHeader[ELAPSED_OFFSET] = (byte) (shrElapsed >> 8);
+        bytHeader[ELAPSED_OFFSET + 1] = (byte) shrElapsed;
+        System.arraycopy(board.bytPlayingCells, 0, bytHeader, HEADER_BYTES - 81, 81);
+
+        // The puzzle ID rebuilds the answer board, so it is only written out when there is no ID
+        if (puzzleId != null) {
+            System.arraycopy(puzzleId.toBytes(), 0, bytHeader, HEADER_BYTES, PuzzleId.BYTES);
+        } else {
+            for (int i = 0; i < 81; i++) {
+                bytHeader[HEADER_BYTES + i] = board.getAnswer(i);
+            }
+        }
+
+        MoveJournal journal = new MoveJournal();
+        journal.strFileName = strFileName;
+        journal.out = new FileOutputStream(strFileName);
+        journal.out.write(bytHeader);
+        return journal;
+    }
+
+    /**
+     * Description: Replays a journal file and returns the board it describes, with the journal attached so further
+     * moves are appended to the same file.
+     * Every record is checked against the board as it is replayed; the replay stops at the first record that is cut
+     * short, fails its check byte or doesn't fit the board, and the file is cut back to the records before it.
+     * Throws IOException if the file can't be read, its header isn't a journal header, or the board in it fails the BoardValidator.
+     */
+    public static GameBoard resume(String strFileName) throws IOException {
+        byte[] bytFile = Files.readAllBytes(Paths.get(strFileName));
+
+        // Check the header
+        if (bytFile.length < 8 || !Arrays.equals(Arrays.copyOf(bytFile, 4), BYT_MAGIC)) {
+            throw new IOException("Not a move journal: " + strFileName);
+        }
+        if (bytFile[4] != VERSION && bytFile[4] != VERSION_NO_ELAPSED) {
+            throw new IOException("Unsupported move journal version " + bytFile[4] + ": " + strFileName);
+        }
+
+        // A version 1 header has no seconds played
+        int intHeaderBytes = bytFile[4] == VERSION ? HEADER_BYTES : HEADER_BYTES - 2;
+        byte bytFlags = bytFile[5];
+        int intOffset = intHeaderBytes + ((bytFlags & FLAG_PUZZLE_ID) != 0 ? PuzzleId.BYTES : 81);
+        if (bytFile.length < intOffset) {
+            throw new IOException("Move journal header is incomplete: " + strFileName);
+        }
+
+        // Rebuild the puzzle from its ID or its answer cells, starting from the cells the journal began with
+        byte[] bytCells = Arrays.copyOfRange(bytFile, intHeaderBytes - 81, intHeaderBytes);
+        Puzzle puzzle;
+        try {
+            if ((bytFlags & FLAG_PUZZLE_ID) != 0) {
+                PuzzleId puzzleId = PuzzleId.fromBytes(Arrays.copyOfRange(bytFile, intHeaderBytes, intOffset));
+                puzzle = new Puzzle(bytCells, PuzzleCache.getShared().getPuzzle(puzzleId));
+            } else {
+                puzzle = new Puzzle(bytCells, Arrays.copyOfRange(bytFile, intHeaderBytes, intOffset), null);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("Cannot rebuild the puzzle of move journal " + strFileName + ", " + e.getMessage());
+        }
+
+        // Check the starting board against its answer before replaying anything onto it
+        byte[] bytAnswer = new byte[81];
+        for (int i = 0; i < 81; i++) {
+            bytAnswer[i] = puzzle.getAnswer(i);
+        }
+        BoardValidator validator = BoardValidator.get();
+        if (validator.validate(bytCells, bytAnswer) != BoardValidator.VALID) {
+            throw new IOException("Move journal board is invalid, " + validator.getStrProblem() + ": " + strFileName);
+        }
+
+        GameBoard board = (bytFlags & FLAG_SPECIAL) != 0 ? new SpecialBoard(puzzle) : new GameBoard(puzzle);
+        board.bytMistakes = bytFile[6];
+        if (board instanceof SpecialBoard) {
+            ((SpecialBoard) board).setBytHints(bytFile[7]);
+
+            // Carry on the clock from where the game was left
+            if (bytFile[4] == VERSION) {
+                ((SpecialBoard) board).setShrElapsedTime((short) (((bytFile[ELAPSED_OFFSET] & 0xFF) << 8) | (bytFile[ELAPSED_OFFSET + 1] & 0xFF)));
+            }
+        }
+
+        // Replay the records into the board and the history
+        MoveJournal journal = new MoveJournal();
+        while (intOffset + RECORD_BYTES <= bytFile.length && journal.replay(board, bytFile, intOffset)) {
+            intOffset += RECORD_BYTES;
+            journal.intRecords++;
+        }
+
+        // Cut off anything after the last good record, then carry on appending
+        if (intOffset < bytFile.length) {
+            try (RandomAccessFile file = new RandomAccessFile(strFileName, "rw")) {
+                file.setLength(intOffset);
+            }
+        }
+        journal.strFileName = strFileName;
+        journal.out = new FileOutputStream(strFileName, true);
+        board.setJournal(journal);
+        return board;
+    }
+
+    /**
+     * Description: Replays the record at intOffset of the file into the board and the history.
+     * Returns false (changing nothing) if the record is damaged or doesn't fit the board.
+     */
+    private boolean replay(GameBoard board, byte[] bytFile, int intOffset) {
+        byte bytType = bytFile[intOffset];
+        byte bytCell = bytFile[intOffset + 1];
+        byte bytDigit = bytFile[intOffset + 2];
+
+        if (bytFile[intOffset + 3] != checkByte(bytType, bytCell, bytDigit)) {
+            return false;
+        }
+
+        if (bytType == UNDO) {
+            int intRecord = undoInMemory();
+            if (intRecord == -1) {
+                return false;
+            }
+            board.undoRecord(intRecord);
+        } else if (bytType == REDO) {
+            int intRecord = redoInMemory();
+            if (intRecord == -1) {
+                return false;
+            }
+            board.applyRecord(intRecord);
+        } else {
+            if (bytCell < 0 || bytCell >= 81 || bytDigit < 1 || bytDigit > 9 || board.bytPlayingCells[bytCell] != 0) {
+                return false;
+            }
+
+            // A reveal or hint must be the answer, and a mistake must not be
+            boolean bolAnswer = board.getAnswer(bytCell) == bytDigit;
+            boolean bolValid = bytType == MISTAKE ? !bolAnswer : (bytType == REVEAL || bytType == HINT) && bolAnswer;
+            if (!bolValid) {
+                return false;
+            }
+
+            int intRecord = pack(bytType, bytCell, bytDigit);
+            push(intRecord);
+            board.applyRecord(intRecord);
+        }
+        return true;
+    }
+
+    /**
+     * Description: Records a move, hint or mistake that has just been made on the board.
+     * Anything that had been undone can no longer be redone. The record is appended to the file, if there is one.
+     */
+    public void append(byte bytType, int intCell, byte bytDigit) {
+        push(pack(bytType, intCell, bytDigit));
+        write(bytType, intCell, bytDigit);
+    }
+
+    /**
+     * Description: Steps back to the last move or hint, over any mistakes made since, and records the undo.
+     * Returns the record the board has to undo, or -1 if there is nothing to undo.
+     */
+    public int undo() {
+        int intRecord = undoInMemory();
+        if (intRecord != -1) {
+            write(UNDO, 0, (byte) 0);
+        }
+        return intRecord;
+    }
+
+    /**
+     * Description: Steps forward one undone move or hint, and over the mistakes after it, and records the redo.
+     * Returns the record the board has to apply again, or -1 if there is nothing to redo.
+     */
+    public int redo() {
+        int intRecord = redoInMemory();
+        if (intRecord != -1) {
+            write(REDO, 0, (byte) 0);
+        }
+        return intRecord;
+    }
+
+    /**
+     * Description: Return true if there is a move or hint to undo, or an undone one to redo.
+     */
+    public boolean canUndo() {
+        return lastUndoable() != -1;
+    }
+
+    public boolean canRedo() {
+        return intApplied < intSize;
+    }
+
+    /**
+     * Description: Returns the number of records in the file (0 for a journal kept in memory).
+     */
+    public int getIntRecords() {
+        return intRecords;
+    }
+
+    /**
+     * Description: Updates the seconds played stored in the header of the file, if the journal still has one open.
+     * Called by SpecialBoard when it leaves the board, so resuming the game doesn't restart its clock. A failure is
+     * printed and otherwise ignored, as the moves themselves are already safe.
+     */
+    public void writeElapsedTime(short shrSeconds) {
+        if (out == null) {
+            return;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(strFileName, "rw")) {
+            file.seek(ELAPSED_OFFSET);
+            file.writeShort(shrSeconds);
+        } catch (IOException e) {
+            System.out.println("Error: Cannot write the time played to the move journal");
+        }
+    }
+
+    /**
+     * Description: Sets whether every record is forced to disk before append returns.
+     * Off by default: a record handed to the operating system survives the game crashing, and only a power cut can
+     * lose it, which isn't worth a disk flush on every move for most games.
+     */
+    public void setBolSync(boolean bolSync) {
+        this.bolSync = bolSync;
+    }
+
+    /**
+     * Description: Closes the file. The history stays in memory, so undo and redo still work.
+     */
+    public void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.out.println("Error: Cannot close the move journal");
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Description: Closes and deletes the file, for a game that has finished and can't be resumed.
+     */
+    public void delete() {
+        close();
+        if (strFileName != null) {
+            new File(strFileName).delete();
+        }
+    }
+
+    /**
+     * Description: Unpack the type, cell (0-80) and digit of a record.
+     */
+    public static byte getType(int intRecord) {
+        return (byte) (intRecord >> 16);
+    }
+
+    public static int getCell(int intRecord) {
+        return (intRecord >> 8) & 0xFF;
+    }
+
+    public static byte getDigit(int intRecord) {
+        return (byte) intRecord;
+    }
+
+    /**
+     * Description: Packs a record into one int.
+     */
+    private static int pack(byte bytType, int intCell, byte bytDigit) {
+        return (bytType << 16) | (intCell << 8) | bytDigit;
+    }
+
+    /**
+     * Description: Returns the check byte stored after a record, which catches a record damaged on disk.
+     */
+    private static byte checkByte(byte bytType, int intCell, byte bytDigit) {
+        return (byte) ((bytType * 31 + intCell) * 31 + bytDigit ^ 0x5A);
+    }
+
+    /**
+     * Description: Adds a record to the history, dropping any moves and hints that had been undone. Mistakes stepped
+     * over by an undo are still counted on the board, so they are kept, moved in front of the new record.
+     */
+    private void push(int intRecord) {
+        for (int i = intApplied; i < intSize; i++) {
+            if (getType(intHistory[i]) == MISTAKE) {
+                intHistory[intApplied++] = intHistory[i];
+            }
+        }
+
+        if (intApplied == intHistory.length) {
+            intHistory = Arrays.copyOf(intHistory, intHistory.length * 2);
+        }
+        intHistory[intApplied++] = intRecord;
+        intSize = intApplied;
+    }
+
+    /**
+     * Description: Step back or forward through the history without writing anything, stepping over mistakes.
+     * Return the move or hint stepped over, or -1 (changing nothing) if there is nothing to undo or redo.
+     */
+    private int undoInMemory() {
+        int intIndex = lastUndoable();
+        if (intIndex == -1) {
+            return -1;
+        }
+        intApplied = intIndex;
+        return intHistory[intIndex];
+    }
+
+    private int redoInMemory() {
+        if (intApplied == intSize) {
+            return -1;
+        }
+        int intRecord = intHistory[intApplied++];
+
+        // The mistakes after it were never taken off the board, so step over them too
+        while (intApplied < intSize && getType(intHistory[intApplied]) == MISTAKE) {
+            intApplied++;
+        }
+        return intRecord;
+    }
+
+    /**
+     * Description: Returns the index of the last move or hint on the board, or -1 if there are only mistakes.
+     */
+    private int lastUndoable() {
+        for (int i = intApplied - 1; i >= 0; i--) {
+            if (getType(intHistory[i]) != MISTAKE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Description: Appends one record to the file in a single write, if the journal has a file.
+     * If the write fails the error is printed and the file is closed, so the game carries on with undo and redo in memory.
+     */
+    private void write(byte bytType, int intCell, byte bytDigit) {
+        if (out == null) {
+            return;
+        }
+
+        bytRecord[0] = bytType;
+        bytRecord[1] = (byte) intCell;
+        bytRecord[2] = bytDigit;
+        bytRecord[3] = checkByte(bytType, intCell, bytDigit);
+
+        try {
+            out.write(bytRecord);
+            if (bolSync) {
+                out.getFD().sync();
+            }
+            intRecords++;
+        } catch (IOException e) {
+            System.out.println("Error: Cannot write to the move journal, autosave is off for this game");
+            close();
+        }
+    }
+}
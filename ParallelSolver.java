@@ -0,0 +1,175 @@
+/**
+ * Description: ParallelSolver class counts the solutions of a 9x9 board across every core, for the puzzles a single
+ * Solver takes too long on: proving a sparse puzzle (17-22 givens) unique, or counting the solutions of a grid with
+ * even fewer. It searches the same way Solver does (row, column and box bitmasks, branching on the cell with the
+ * fewest candidates), but the first few branching cells are split into SolutionCountTasks run by a ForkJoinPool,
+ * whose work stealing keeps every core busy however uneven the branches are. Each task returns its own count and the
+ * counts are added up as the tasks are joined.
+ * Every solution found is also added to one shared counter, and once that reaches the caller's limit an abort flag
+ * stops every task at its next node, so proving uniqueness (limit 2) stops as soon as a second solution turns up.
+ * Boards are taken either as 9x9 grids or as one flat array of 81 cells, row by row, like GameBoard's
+ * bytPlayingCells (0 means an empty cell), and are never changed.
+ * A ParallelSolver runs one count at a time; counts on different threads need their own ParallelSolver.
+ *
+ * Usage: java ParallelSolver <puzzle line> [limit] [threads]
+ *
+ * Methods:
+ * - ParallelSolver(): Creates a solver that runs on the common ForkJoinPool.
+ * - ParallelSolver(ForkJoinPool pool): Creates a solver that runs on the given pool.
+ * - countSolutions(byte[][] bytBoard, long lngLimit): Counts the solutions of a 9x9 board, up to the limit.
+ * - countSolutions(byte[] bytBoard, long lngLimit): Counts the solutions of a flat 81-cell board, up to the limit.
+ * - getLngNodes(): Returns the number of cells branched on by the last count, over every task.
+ * - main(String[] args): Counts the solutions of a puzzle line and prints the count and time taken.
+ */
+
+// Import the fork-join pool and the counters shared between its tasks
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelSolver {
+    // Tasks to aim for per thread of the pool, so work stealing can even out branches of very different sizes
+    private static final int TASKS_PER_THREAD = 16;
+
+    // Pool the tasks run on
+    private final ForkJoinPool pool;
+
+    // Limit of the current count, the solutions found so far over every task, and the flag that stops them all
+    private long lngLimit;
+    private final AtomicLong lngFound = new AtomicLong();
+    private volatile boolean bolAbort;
+
+    // Cells branched on by the current count, over every task
+    private final LongAdder lngNodes = new LongAdder();
+
+    /**
+     * Description: Constructor for ParallelSolver class. Runs on the common ForkJoinPool, which has a thread per core.
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Description: Constructor for ParallelSolver class. Takes in the pool to run the tasks on.
+     */
+    public ParallelSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Description: Counts the solutions of the given 9x9 board across the pool, stopping every task once lngLimit are found.
+     * Returns the number of solutions found, at most lngLimit.
+     */
+    public long countSolutions(byte[][] bytBoard, long lngLimit) {
+        byte[] bytCells = new byte[81];
+        for (int i = 0; i < 81; i++) {
+            bytCells[i] = bytBoard[i / 9][i % 9];
+        }
+        return count(bytCells, lngLimit);
+    }
+
+    /**
+     * Description: Counts the solutions of the given flat board (81 cells, row by row) across the pool, stopping
+     * every task once lngLimit are found.
+     * Returns the number of solutions found, at most lngLimit.
+     */
+    public long countSolutions(byte[] bytBoard, long lngLimit) {
+        return count(bytBoard.clone(), lngLimit);
+    }
+
+    /**
+     * Description: Counts the solutions of the board in bytCells, which the root task takes over.
+     * A board whose givens already break the Sudoku rules has 0 solutions.
+     * Returns the number of solutions found, at most lngLimit.
+     */
+    private long count(byte[] bytCells, long lngLimit) {
+        short[] shrMasks = new short[27];
+
+        // Mark every given digit as used in its row (0-8), column (9-17) and box (18-26)
+        for (int i = 0; i < 81; i++) {
+            byte bytNumber = bytCells[i];
+            if (bytNumber != 0) {
+                int intBit = 1 << (bytNumber - 1);
+                int intRow = i / 9;
+                int intCol = 9 + i % 9;
+                int intBox = 18 + (i / 27) * 3 + (i % 9) / 3;
+
+                // A digit repeated in a row, column or box means there can't be a solution
+                if (((shrMasks[intRow] | shrMasks[intCol] | shrMasks[intBox]) & intBit) != 0) {
+                    return 0;
+                }
+                shrMasks[intRow] |= intBit;
+                shrMasks[intCol] |= intBit;
+                shrMasks[intBox] |= intBit;
+            }
+        }
+
+        this.lngLimit = lngLimit;
+        lngFound.set(0);
+        lngNodes.reset();
+        bolAbort = false;
+
+        long lngCount = pool.invoke(new SolutionCountTask(this, bytCells, shrMasks, pool.getParallelism() * TASKS_PER_THREAD));
+        return Math.min(lngCount, lngLimit);
+    }
+
+    /**
+     * Description: Returns the number of cells branched on by the last count, over every task.
+     */
+    public long getLngNodes() {
+        return lngNodes.sum();
+    }
+
+    /**
+     * Description: Called by a task for every solution it finds. Raises the abort flag once the limit is reached.
+     */
+    void addSolution() {
+        if (lngFound.incrementAndGet() >= lngLimit) {
+            bolAbort = true;
+        }
+    }
+
+    /**
+     * Description: Called by a task when it finishes, with the number of cells it branched on.
+     */
+    void addNodes(long lngTaskNodes) {
+        lngNodes.add(lngTaskNodes);
+    }
+
+    /**
+     * Description: Returns true once the limit has been reached and every task should stop.
+     */
+    boolean isAborted() {
+        return bolAbort;
+    }
+
+    /**
+     * Description: Counts the solutions of the puzzle line given as the first argument (81 characters, '0' or '.' for
+     * empty cells), up to the limit given as the second (unlimited by default), on as many threads as the third
+     * (every core by default), and prints the count, nodes and time taken.
+     */
+    public static void main(String[] args) {
+        byte[][] bytBoard = new byte[9][9];
+        if (args.length < 1 || !Solver.parseLine(args[0], bytBoard)) {
+            System.out.println("Usage: java ParallelSolver <puzzle line> [limit] [threads]");
+            return;
+        }
+
+        long lngLimit = args.length > 1 ? Long.parseLong(args[1]) : Long.MAX_VALUE;
+        ForkJoinPool pool = args.length > 2 ? new ForkJoinPool(Integer.parseInt(args[2])) : ForkJoinPool.commonPool();
+        ParallelSolver solver = new ParallelSolver(pool);
+
+        long lngStartTime = System.nanoTime();
+        long lngCount = solver.countSolutions(bytBoard, lngLimit);
+        double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+
+        System.out.println("Solutions: " + lngCount + (lngCount == lngLimit ? " (limit reached)" : ""));
+        System.out.println("Nodes: " + solver.getLngNodes());
+        System.out.println("Threads: " + pool.getParallelism());
+        System.out.println("Time: " + String.format("%.3f", dblSeconds) + "s");
+
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+}
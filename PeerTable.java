@@ -0,0 +1,96 @@
+/**
+ * Description: PeerTable class holds the fixed geometry of a 9x9 board, worked out once when the class loads, so
+ * code that walks rows, columns, boxes or a cell's peers can read it from a table instead of redoing the maths.
+ * Cells are numbered 0-80, row by row. Units are numbered 0-26: rows 0-8, then columns 9-17, then boxes 18-26.
+ * All methods are static.
+ *
+ * Methods:
+ * - getRow(int intCell), getCol(int intCell), getBox(int intCell): Return the row, column or box (0-8) of a cell.
+ * - getUnit(int intUnit): Returns the 9 cells of a unit.
+ * - getPeers(int intCell): Returns the 20 cells that share a row, column or box with a cell.
+ * - getCellUnits(int intCell): Returns the 3 units (row, column, box) a cell belongs to.
+ */
+public class PeerTable {
+    // Number of units, and where the column and box units start
+    public static final int UNITS = 27;
+    public static final int COL_UNITS = 9;
+    public static final int BOX_UNITS = 18;
+
+    // Number of peers of every cell: 8 in its row, 8 in its column and 4 more in its box
+    public static final int PEERS = 20;
+
+    // Row, column and box of every cell
+    private static final byte[] BYT_ROW = new byte[81];
+    private static final byte[] BYT_COL = new byte[81];
+    private static final byte[] BYT_BOX = new byte[81];
+
+    // Cells of every unit, peers of every cell, and units of every cell
+    private static final byte[][] BYT_UNITS = new byte[UNITS][9];
+    private static final byte[][] BYT_PEERS = new byte[81][PEERS];
+    private static final byte[][] BYT_CELL_UNITS = new byte[81][3];
+
+    // Build the tables once
+    static {
+        byte[] bytUnitSizes = new byte[UNITS];
+
+        for (int i = 0; i < 81; i++) {
+            BYT_ROW[i] = (byte) (i / 9);
+            BYT_COL[i] = (byte) (i % 9);
+            BYT_BOX[i] = (byte) ((i / 27) * 3 + (i % 9) / 3);
+
+            BYT_CELL_UNITS[i][0] = BYT_ROW[i];
+            BYT_CELL_UNITS[i][1] = (byte) (COL_UNITS + BYT_COL[i]);
+            BYT_CELL_UNITS[i][2] = (byte) (BOX_UNITS + BYT_BOX[i]);
+
+            for (byte bytUnit : BYT_CELL_UNITS[i]) {
+                BYT_UNITS[bytUnit][bytUnitSizes[bytUnit]++] = (byte) i;
+            }
+        }
+
+        // Peers are every other cell sharing a row, column or box
+        for (int i = 0; i < 81; i++) {
+            int intPeers = 0;
+            for (int j = 0; j < 81; j++) {
+                if (j != i && (BYT_ROW[i] == BYT_ROW[j] || BYT_COL[i] == BYT_COL[j] || BYT_BOX[i] == BYT_BOX[j])) {
+                    BYT_PEERS[i][intPeers++] = (byte) j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Description: Return the row, column and 3x3 box (each 0-8) of a cell.
+     */
+    public static int getRow(int intCell) {
+        return BYT_ROW[intCell];
+    }
+
+    public static int getCol(int intCell) {
+        return BYT_COL[intCell];
+    }
+
+    public static int getBox(int intCell) {
+        return BYT_BOX[intCell];
+    }
+
+    /**
+     * Description: Returns the 9 cells of a unit (0-26). The array is shared, so it must not be changed.
+     */
+    public static byte[] getUnit(int intUnit) {
+        return BYT_UNITS[intUnit];
+    }
+
+    /**
+     * Description: Returns the 20 peers of a cell. The array is shared, so it must not be changed.
+     */
+    public static byte[] getPeers(int intCell) {
+        return BYT_PEERS[intCell];
+    }
+
+    /**
+     * Description: Returns the row, column and box units of a cell, in that order. The array is shared, so it must not be changed.
+     */
+    public static byte[] getCellUnits(int intCell) {
+        return BYT_CELL_UNITS[intCell];
+    }
+}
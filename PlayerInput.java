@@ -2,20 +2,40 @@
  * Author: Ibraheem Dawod
  * Date: 01/17/2024
  * Description: Utility class for handling player input in a Sudoku game.
- * All methods are static
+ * All methods are static. Input is read from one shared InputSource (System.in by default), so input that has
+ * been read ahead, such as the rest of a piped replay script, is kept between prompts.
  * 
  * Methods:
+ * - setInputSource(InputSource input): Sets where input is read from.
+ * - getInputSource(): Returns where input is read from.
  * - getNumInput(String strMessage): Obtains a byte input from the user.
  * - getNumInput(String strMessage, byte bytMin, byte bytMax): Obtains a byte input within a specified range from the user.
  * - getStringInput(String strMessage): Obtains a string input from the user.
  * - getFileInput(String strMessage): Displays available text files and returns the selected file name.
  */
 
-// Import the Scanner and all of File IO
-import java.util.Scanner;
+// Import all of File IO and the exceptions thrown for non-numeric input and the end of input
 import java.io.*;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
 
 public class PlayerInput {
+    // Where every prompt reads its input from
+    private static InputSource input = new InputSource(System.in);
+
+    /**
+     * Description: Sets where input is read from, such as a replay script or a socket.
+     */
+    public static void setInputSource(InputSource input) {
+        PlayerInput.input = input;
+    }
+
+    /**
+     * Description: Returns where input is read from.
+     */
+    public static InputSource getInputSource() {
+        return input;
+    }
 
     /**
      * Author: Ibraheem Dawod
@@ -34,11 +54,11 @@ public class PlayerInput {
         do {
             System.out.println(strMessage);
 
-            // Attempt to read a byte from the user's input
+            // Attempt to read a number from the user's input
             try {
-                bytInput = new Scanner(System.in).nextByte();
+                bytInput = toByte(input.nextInt());
                 bolTryCatch = true; // Set true to end loop, input is valid
-            } catch (Exception e) {
+            } catch (InputMismatchException e) {
                 // Handle the exception if the user enters non-numeric input
                 System.out.println("Please enter in a number value.");
             }
@@ -76,10 +96,10 @@ public class PlayerInput {
             // Attempt to read a byte from the user's input
             try {
                 
-                // Take a byte input of the user
-                bytInput = new Scanner(System.in).nextByte();
+                // Take a number input of the user
+                bytInput = toByte(input.nextInt());
                 bolTryCatch = true; // Set true to break loop, input is valid
-            } catch (Exception e) {
+            } catch (InputMismatchException e) {
                 // Handle the exception if the user enters non-numeric input
                 System.out.println("Please enter in a number value.");
             }
@@ -106,7 +126,21 @@ public class PlayerInput {
         System.out.println(strMessage);
 
         // Get a String input from the user
-        return new Scanner(System.in).nextLine();
+        String strInput = input.readLine();
+        if (strInput == null) {
+            throw new NoSuchElementException("End of input");
+        }
+        return strInput;
+    }
+
+    /**
+     * Description: Narrows a number to a byte, treating numbers outside the byte range as non-numeric input.
+     */
+    private static byte toByte(int intInput) {
+        if (intInput > Byte.MAX_VALUE || intInput < Byte.MIN_VALUE) {
+            throw new InputMismatchException("Out of range");
+        }
+        return (byte) intInput;
     }
 
     /**
@@ -0,0 +1,118 @@
+/**
+ * Description: Puzzle class holds one finished Sudoku puzzle (playing board and answer board).
+ * A Puzzle is immutable once created: the arrays are copied on the way in and on the way out, so the same
+ * Puzzle can be handed between threads (for example from the PuzzlePool producers to the game) safely.
+ * Puzzles made by CreateBoard also carry the PuzzleId that rebuilds them.
+ * Both boards are packed into one 81-byte array (the playing digit in the high four bits of each byte and the
+ * answer digit in the low four), so a Puzzle is small enough to keep thousands of them in the PuzzleCache.
+ * Because it never changes, one Puzzle can also serve as the shared answer for every GameBoard playing it.
+ *
+ * Methods:
+ * - Puzzle(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard): Creates a puzzle from copies of the given boards.
+ * - Puzzle(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard, PuzzleId puzzleId): Creates a puzzle with the ID that rebuilds it.
+ * - Puzzle(byte[] bytPlayingCells, byte[] bytAnswerCells, PuzzleId puzzleId): Creates a puzzle from two flat 81-cell boards.
+ * - Puzzle(byte[] bytPlayingCells, Puzzle solution): Creates a puzzle with new playing cells and another puzzle's answer and ID.
+ * - getAnswer(int intCell), getGiven(int intCell): Return one cell (0-80) of the answer or playing board.
+ * - copyPlayingCells(byte[] bytTarget): Copies the playing board into a flat 81-cell array.
+ * - getPuzzleId(): Returns the ID that rebuilds this puzzle, or null if it wasn't generated.
+ * - copyPlayingBoard(byte[][] bytTarget): Copies the playing board into the given array.
+ * - copyAnswerBoard(byte[][] bytTarget): Copies the answer board into the given array.
+ */
+public class Puzzle {
+    // Approximate memory used by one Puzzle (object, packed cells array and ID), for sizing caches
+    public static final int ESTIMATED_BYTES = 160;
+
+    // Both boards, one byte per cell: playing digit (0 means empty) << 4 | answer digit
+    private final byte[] bytCells = new byte[81];
+
+    // ID that rebuilds this puzzle, or null if it came from somewhere other than CreateBoard
+    private final PuzzleId puzzleId;
+
+    /**
+     * Description: Constructor for Puzzle class.
+     * Takes in the playing board and the answer board, both of which are copied.
+     */
+    public Puzzle(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard) {
+        this(bytPlayingBoard, bytAnswerBoard, null);
+    }
+
+    /**
+     * Description: Constructor for Puzzle class with an ID.
+     * Takes in the playing board, the answer board (both copied) and the PuzzleId that rebuilds them.
+     */
+    public Puzzle(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard, PuzzleId puzzleId) {
+        for (int i = 0; i < 81; i++) {
+            bytCells[i] = (byte) (bytPlayingBoard[i / 9][i % 9] << 4 | bytAnswerBoard[i / 9][i % 9]);
+        }
+        this.puzzleId = puzzleId;
+    }
+
+    /**
+     * Description: Constructor for Puzzle class with flat boards.
+     * Takes in the playing board and the answer board as 81 cells each, row by row (both copied), and the PuzzleId
+     * that rebuilds them (or null).
+     */
+    public Puzzle(byte[] bytPlayingCells, byte[] bytAnswerCells, PuzzleId puzzleId) {
+        for (int i = 0; i < 81; i++) {
+            bytCells[i] = (byte) (bytPlayingCells[i] << 4 | bytAnswerCells[i]);
+        }
+        this.puzzleId = puzzleId;
+    }
+
+    /**
+     * Description: Constructor for Puzzle class with new playing cells for an existing puzzle.
+     * Takes in the playing board as 81 cells (copied) and the puzzle whose answer board and ID are kept, such as a
+     * game in progress on that puzzle.
+     */
+    public Puzzle(byte[] bytPlayingCells, Puzzle solution) {
+        for (int i = 0; i < 81; i++) {
+            bytCells[i] = (byte) (bytPlayingCells[i] << 4 | solution.getAnswer(i));
+        }
+        this.puzzleId = solution.puzzleId;
+    }
+
+    /**
+     * Description: Returns one cell (0-80, row by row) of the answer board, or of the playing board (0 if empty).
+     */
+    public byte getAnswer(int intCell) {
+        return (byte) (bytCells[intCell] & 0xF);
+    }
+
+    public byte getGiven(int intCell) {
+        return (byte) ((bytCells[intCell] & 0xFF) >> 4);
+    }
+
+    /**
+     * Description: Returns the ID that rebuilds this puzzle, or null if it wasn't made by CreateBoard.
+     */
+    public PuzzleId getPuzzleId() {
+        return puzzleId;
+    }
+
+    /**
+     * Description: Copies the playing board of this puzzle into bytTarget.
+     */
+    public void copyPlayingBoard(byte[][] bytTarget) {
+        for (int i = 0; i < 81; i++) {
+            bytTarget[i / 9][i % 9] = (byte) ((bytCells[i] & 0xFF) >> 4);
+        }
+    }
+
+    /**
+     * Description: Copies the playing board of this puzzle into bytTarget as 81 cells, row by row.
+     */
+    public void copyPlayingCells(byte[] bytTarget) {
+        for (int i = 0; i < 81; i++) {
+            bytTarget[i] = (byte) ((bytCells[i] & 0xFF) >> 4);
+        }
+    }
+
+    /**
+     * Description: Copies the answer board of this puzzle into bytTarget.
+     */
+    public void copyAnswerBoard(byte[][] bytTarget) {
+        for (int i = 0; i < 81; i++) {
+            bytTarget[i / 9][i % 9] = (byte) (bytCells[i] & 0xF);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Description: PuzzleBank class reads and writes banks of puzzles stored in a compact binary format, for collections
+ * far too large for the two-grid .txt files used by GameBoard.saveGame.
+ *
+ * File layout: a 16-byte header followed by fixed-width 82-byte records.
+ * - Header: the bytes "SDKB", the format version (short), the record size (short) and the number of puzzles (long).
+ * - Record: the 81 cells of the playing board as nibbles (41 bytes, the high nibble first, last nibble unused),
+ *   followed by the 81 cells of the answer board packed the same way (41 bytes).
+ * Because every record is the same size, puzzle N is found at 16 + N * 82 with no parsing. The file is
+ * memory-mapped through a FileChannel in segments of whole records, so banks bigger than 2GB can be read too.
+ * An open PuzzleBank is read-only and can be shared between threads.
+ *
+ * Methods:
+ * - PuzzleBank(String strFileName): Opens and maps a bank file.
+ * - getLngCount(): Returns the number of puzzles in the bank.
+ * - readPuzzle(long lngIndex, byte[][] bytPlayingBoard, byte[][] bytAnswerBoard): Copies puzzle N into the given boards.
+ * - getPuzzle(long lngIndex): Returns puzzle N as a Puzzle.
+ * - writeBank(String strFileName, Iterator<Puzzle> puzzles): Writes puzzles to a new bank file.
+ * - main(String[] args): Generates a bank of new puzzles.
+ */
+
+// Import the NIO classes for mapping and writing the file
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+public class PuzzleBank {
+    // Header values
+    private static final byte[] BYT_MAGIC = {'S', 'D', 'K', 'B'};
+    private static final short SHR_VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+
+    // Size of one packed board and of one record (playing board plus answer board)
+    private static final int BOARD_SIZE = 41;
+    public static final int RECORD_SIZE = BOARD_SIZE * 2;
+
+    // Largest number of records mapped by a single buffer, keeping each mapping under 2GB
+    private static final long RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    // Mapped segments of the file and the number of puzzles in it
+    private final MappedByteBuffer[] segments;
+    private final long lngCount;
+
+    /**
+     * Description: Constructor for PuzzleBank class. Opens the bank file, checks its header and maps its records.
+     * The mappings stay valid after the channel is closed, so no file handle is kept open.
+     * Throws IOException if the file can't be read or isn't a puzzle bank.
+     */
+    public PuzzleBank(String strFileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(strFileName), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is full or the file ends
+            }
+            header.flip();
+
+            // Check the magic bytes, version and record size
+            if (header.remaining() < HEADER_SIZE) {
+                throw new IOException("Not a puzzle bank: " + strFileName);
+            }
+            for (int i = 0; i < BYT_MAGIC.length; i++) {
+                if (header.get() != BYT_MAGIC[i]) {
+                    throw new IOException("Not a puzzle bank: " + strFileName);
+                }
+            }
+            if (header.getShort() != SHR_VERSION || header.getShort() != RECORD_SIZE) {
+                throw new IOException("Unsupported puzzle bank version: " + strFileName);
+            }
+            lngCount = header.getLong();
+
+            // Compare by records rather than bytes, so a huge count can't overflow past the check
+            if (lngCount < 0) {
+                throw new IOException("Puzzle bank has a negative puzzle count: " + strFileName);
+            }
+            if (lngCount > (channel.size() - HEADER_SIZE) / RECORD_SIZE) {
+                throw new IOException("Puzzle bank is truncated: " + strFileName);
+            }
+
+            // Map the records in segments of whole records
+            segments = new MappedByteBuffer[(int) ((lngCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT)];
+            for (int i = 0; i < segments.length; i++) {
+                long lngFirst = i * RECORDS_PER_SEGMENT;
+                long lngRecords = Math.min(RECORDS_PER_SEGMENT, lngCount - lngFirst);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + lngFirst * RECORD_SIZE, lngRecords * RECORD_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the number of puzzles in the bank.
+     */
+    public long getLngCount() {
+        return lngCount;
+    }
+
+    /**
+     * Description: Copies puzzle number lngIndex (starting at 0) into the given playing and answer boards.
+     * Reads the record straight out of the mapped file with absolute gets, so nothing is allocated.
+     */
+    public void readPuzzle(long lngIndex, byte[][] bytPlayingBoard, byte[][] bytAnswerBoard) {
+        if (lngIndex < 0 || lngIndex >= lngCount) {
+            throw new IndexOutOfBoundsException("Puzzle " + lngIndex + " is not in the bank (" + lngCount + " puzzles)");
+        }
+
+        MappedByteBuffer segment = segments[(int) (lngIndex / RECORDS_PER_SEGMENT)];
+        int intOffset = (int) (lngIndex % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+
+        unpack(segment, intOffset, bytPlayingBoard);
+        unpack(segment, intOffset + BOARD_SIZE, bytAnswerBoard);
+    }
+
+    /**
+     * Description: Returns puzzle number lngIndex (starting at 0) as a Puzzle.
+     */
+    public Puzzle getPuzzle(long lngIndex) {
+        byte[][] bytPlayingBoard = new byte[9][9];
+        byte[][] bytAnswerBoard = new byte[9][9];
+
+        readPuzzle(lngIndex, bytPlayingBoard, bytAnswerBoard);
+        return new Puzzle(bytPlayingBoard, bytAnswerBoard);
+    }
+
+    /**
+     * Description: Writes the given puzzles to a new bank file, replacing any file with that name.
+     * Records are packed into one reusable buffer and written in large blocks. The count in the header is
+     * filled in once every puzzle has been written.
+     * Returns the number of puzzles written.
+     */
+    public static long writeBank(String strFileName, Iterator<Puzzle> puzzles) throws IOException {
+        byte[][] bytPlayingBoard = new byte[9][9];
+        byte[][] bytAnswerBoard = new byte[9][9];
+        long lngWritten = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(strFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Room for the header plus a batch of records
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * 1024);
+
+            // Header, with a count of 0 until the end
+            buffer.put(BYT_MAGIC).putShort(SHR_VERSION).putShort((short) RECORD_SIZE).putLong(0);
+
+            while (puzzles.hasNext()) {
+                Puzzle puzzle = puzzles.next();
+                puzzle.copyPlayingBoard(bytPlayingBoard);
+                puzzle.copyAnswerBoard(bytAnswerBoard);
+
+                // Write out the buffer when the next record won't fit
+                if (buffer.remaining() < RECORD_SIZE) {
+                    flush(channel, buffer);
+                }
+                pack(bytPlayingBoard, buffer);
+                pack(bytAnswerBoard, buffer);
+                lngWritten++;
+            }
+            flush(channel, buffer);
+
+            // Go back and write the real count into the header
+            ByteBuffer count = ByteBuffer.allocate(8).putLong(lngWritten);
+            count.flip();
+            channel.write(count, HEADER_SIZE - 8);
+        }
+        return lngWritten;
+    }
+
+    /**
+     * Description: Generates a bank of new puzzles.
+     * Usage: java PuzzleBank <file> <count> [difficulty 1-3]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java PuzzleBank <file> <count> [difficulty 1-3]");
+            return;
+        }
+
+        long lngTarget = Long.parseLong(args[1]);
+        CreateBoard generator = new CreateBoard(args.length > 2 ? Byte.parseByte(args[2]) : CreateBoard.MEDIUM);
+
+        // Generate each puzzle only when the writer asks for it, so memory use stays flat
+        long lngWritten = writeBank(args[0], new Iterator<Puzzle>() {
+            private long lngMade = 0;
+
+            public boolean hasNext() {
+                return lngMade < lngTarget;
+            }
+
+            public Puzzle next() {
+                lngMade++;
+                return generator.createPuzzle();
+            }
+        });
+
+        System.out.println("Wrote " + lngWritten + " puzzles to " + args[0]);
+    }
+
+    /**
+     * Description: Packs the 81 cells of a board into 41 bytes, two cells per byte with the first cell in the high nibble.
+     */
+    private static void pack(byte[][] bytBoard, ByteBuffer buffer) {
+        for (int i = 0; i < 81; i += 2) {
+            int intHigh = bytBoard[i / 9][i % 9];
+            int intLow = i + 1 < 81 ? bytBoard[(i + 1) / 9][(i + 1) % 9] : 0;
+            buffer.put((byte) ((intHigh << 4) | intLow));
+        }
+    }
+
+    /**
+     * Description: Unpacks 41 bytes starting at intOffset in the buffer into the 81 cells of a board.
+     */
+    private static void unpack(ByteBuffer buffer, int intOffset, byte[][] bytBoard) {
+        for (int i = 0; i < 81; i += 2) {
+            int intPacked = buffer.get(intOffset + i / 2);
+
+            bytBoard[i / 9][i % 9] = (byte) ((intPacked >> 4) & 0xF);
+            if (i + 1 < 81) {
+                bytBoard[(i + 1) / 9][(i + 1) % 9] = (byte) (intPacked & 0xF);
+            }
+        }
+    }
+
+    /**
+     * Description: Writes everything in the buffer to the channel and empties the buffer for reuse.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Description: PuzzleCache class keeps recently used puzzles in memory so loading the same puzzle again never has to
+ * reparse a file or rerun the generator. Entries are immutable, packed Puzzles, keyed by PuzzleId or by file (see
+ * fileKey). Only the latest key of each file is kept, so older versions of a file don't pile up. The cache is
+ * bounded both by the number of entries and by their approximate size in bytes; when either limit is passed, the
+ * least recently used entries are evicted first. Hits, misses and evictions are counted so
+ * the hit rate can be monitored.
+ * All methods are synchronized, so one cache can be shared by every thread; loading a missing puzzle happens outside
+ * the lock, so a slow load never blocks other threads.
+ *
+ * Methods:
+ * - PuzzleCache(int intMaxEntries, long lngMaxBytes): Creates a cache with the given limits.
+ * - getShared(), setShared(PuzzleCache cache): Get or replace the cache the GameBoard constructors use.
+ * - get(Object key): Returns the cached puzzle for a key, or null.
+ * - put(Object key, Puzzle puzzle): Adds a puzzle, evicting old entries if needed.
+ * - getPuzzle(PuzzleId puzzleId): Returns the puzzle for an ID, generating and caching it on a miss.
+ * - fileKey(String strFileName): Returns the key for a file's current contents.
+ * - removeFile(String strFileName): Removes the puzzle cached for a file, after the file is written.
+ * - getLngHits(), getLngMisses(), getLngEvictions(), getIntSize(), getLngBytes(): Return the cache metrics.
+ * - clear(): Removes every entry.
+ */
+
+// Import File for the file keys, and the linked hash map used for least-recently-used ordering
+import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PuzzleCache {
+    // Limits of the shared cache: about 1 MB of puzzles
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final long DEFAULT_MAX_BYTES = 1L << 20;
+
+    // Approximate memory used by a map entry and a PuzzleId key, on top of the puzzle itself
+    private static final int ENTRY_OVERHEAD_BYTES = 48;
+    private static final int ID_KEY_BYTES = 40;
+
+    // Cache used by the GameBoard constructors
+    private static volatile PuzzleCache shared = new PuzzleCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+
+    // Entries in access order, so the first one is always the least recently used
+    private final LinkedHashMap<Object, Puzzle> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Key of the entry cached for each file, by the file's full path
+    private final HashMap<String, String> fileKeys = new HashMap<>();
+
+    // Limits on the number of entries and their total size
+    private final int intMaxEntries;
+    private final long lngMaxBytes;
+
+    // Total approximate size of the entries, and the metrics
+    private long lngBytes;
+    private long lngHits;
+    private long lngMisses;
+    private long lngEvictions;
+
+    /**
+     * Description: Constructor for PuzzleCache class. Takes in the most entries to keep and their largest total size in bytes.
+     */
+    public PuzzleCache(int intMaxEntries, long lngMaxBytes) {
+        this.intMaxEntries = intMaxEntries;
+        this.lngMaxBytes = lngMaxBytes;
+    }
+
+    /**
+     * Description: Getter and setter for the cache shared by the GameBoard constructors.
+     * Passing a cache with a limit of 0 entries turns caching off.
+     */
+    public static PuzzleCache getShared() {
+        return shared;
+    }
+
+    public static void setShared(PuzzleCache cache) {
+        shared = cache;
+    }
+
+    /**
+     * Description: Returns the puzzle cached under a key and marks it as recently used, or returns null (and counts
+     * a miss) if there isn't one. A null key is always a miss.
+     */
+    public synchronized Puzzle get(Object key) {
+        Puzzle puzzle = key == null ? null : entries.get(key);
+        if (puzzle == null) {
+            lngMisses++;
+        } else {
+            lngHits++;
+        }
+        return puzzle;
+    }
+
+    /**
+     * Description: Adds a puzzle under a key (replacing any puzzle already there), then evicts the least recently
+     * used entries until the cache is back within its limits.
+     */
+    public synchronized void put(Object key, Puzzle puzzle) {
+        Puzzle previous = entries.put(key, puzzle);
+        if (previous == null) {
+            lngBytes += getEntryBytes(key);
+        }
+
+        // A file's new key replaces the entry under its old one
+        if (key instanceof String) {
+            String strOldKey = fileKeys.put(pathOf((String) key), (String) key);
+            if (strOldKey != null && !strOldKey.equals(key)) {
+                removeEntry(strOldKey);
+            }
+        }
+
+        // Evict from the least recently used end
+        Iterator<Map.Entry<Object, Puzzle>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > intMaxEntries || lngBytes > lngMaxBytes) && iterator.hasNext()) {
+            Object eldestKey = iterator.next().getKey();
+            iterator.remove();
+            lngBytes -= getEntryBytes(eldestKey);
+            lngEvictions++;
+
+            if (eldestKey instanceof String) {
+                fileKeys.remove(pathOf((String) eldestKey), eldestKey);
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the puzzle a PuzzleId names, from the cache if possible.
+     * On a miss the puzzle is rebuilt by the generator (outside the lock) and cached.
+     */
+    public Puzzle getPuzzle(PuzzleId puzzleId) {
+        Puzzle puzzle = get(puzzleId);
+        if (puzzle == null) {
+            puzzle = puzzleId.createPuzzle();
+            put(puzzleId, puzzle);
+        }
+        return puzzle;
+    }
+
+    /**
+     * Description: Returns the cache key for a file as it is now: its full path with its last-modified time and length.
+     * Only the file's attributes are read, never its contents, so a hit costs no disk read. Saving over the file
+     * normally changes the key; a save of the same length within the file system's timestamp resolution doesn't,
+     * which is why SaveQueue calls removeFile after every write. Returns null if the file doesn't exist.
+     */
+    public static String fileKey(String strFileName) {
+        String strPath = filePath(strFileName);
+        File file = new File(strFileName);
+        long lngModified = file.lastModified();
+        if (strPath == null || lngModified == 0) {
+            return null;
+        }
+        return strPath + '@' + lngModified + ':' + file.length();
+    }
+
+    /**
+     * Description: Removes the puzzle cached for a file, whatever its key. Called whenever the file is written.
+     */
+    public synchronized void removeFile(String strFileName) {
+        String strKey = fileKeys.remove(filePath(strFileName));
+        if (strKey != null) {
+            removeEntry(strKey);
+        }
+    }
+
+    /**
+     * Description: Getter methods for the number of hits, misses and evictions, the number of entries and their
+     * approximate total size in bytes.
+     */
+    public synchronized long getLngHits() {
+        return lngHits;
+    }
+
+    public synchronized long getLngMisses() {
+        return lngMisses;
+    }
+
+    public synchronized long getLngEvictions() {
+        return lngEvictions;
+    }
+
+    public synchronized int getIntSize() {
+        return entries.size();
+    }
+
+    public synchronized long getLngBytes() {
+        return lngBytes;
+    }
+
+    /**
+     * Description: Removes every entry. The metrics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        fileKeys.clear();
+        lngBytes = 0;
+    }
+
+    /**
+     * Description: Overrides the toString method to summarize the cache and its hit rate on one line.
+     */
+    @Override
+    public synchronized String toString() {
+        long lngLookups = lngHits + lngMisses;
+        return "entries=" + entries.size() + " bytes=" + lngBytes + " hits=" + lngHits + " misses=" + lngMisses + " evictions=" + lngEvictions
+            + " hitRate=" + (lngLookups == 0 ? 0 : lngHits * 100 / lngLookups) + "%";
+    }
+
+    /**
+     * Description: Removes the entry under a key, if there is one, keeping the size up to date.
+     */
+    private void removeEntry(Object key) {
+        if (entries.remove(key) != null) {
+            lngBytes -= getEntryBytes(key);
+        }
+    }
+
+    /**
+     * Description: Returns the full, normalized path of a file, as used in its key, or null if the name can't be a path.
+     */
+    private static String filePath(String strFileName) {
+        try {
+            return new File(strFileName).toPath().toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Description: Returns the path part of a file key (everything before the last '@').
+     */
+    private static String pathOf(String strKey) {
+        return strKey.substring(0, strKey.lastIndexOf('@'));
+    }
+
+    /**
+     * Description: Returns the approximate memory used by an entry with the given key.
+     * A file key is counted twice, as its path is also kept in fileKeys.
+     */
+    private static long getEntryBytes(Object key) {
+        long lngKeyBytes = key instanceof String ? 2 * (40 + ((String) key).length()) : ID_KEY_BYTES;
+        return Puzzle.ESTIMATED_BYTES + ENTRY_OVERHEAD_BYTES + lngKeyBytes;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Description: PuzzleConverter class imports and exports whole puzzle collections in the one-puzzle-per-line
+ * 81-character format, using PuzzleLineReader and PuzzleLineWriter so files of any size are streamed in constant memory.
+ * It can also convert between that format and the two-grid .txt layout GameBoard loads and saves (9 lines for the
+ * playing board followed by 9 lines for the answer board). Every command prints its throughput in puzzles per second.
+ *
+ * Usage:
+ * - java PuzzleConverter check <in>: Validates every line and counts the valid and invalid puzzles.
+ * - java PuzzleConverter copy <in> <out>: Copies the valid puzzles to a new file, dropping invalid records.
+ * - java PuzzleConverter totxt <in> <directory>: Solves every puzzle and saves each uniquely solvable one as a two-grid .txt file.
+ * - java PuzzleConverter fromtxt <out> <file.txt>...: Writes the playing boards of two-grid .txt files as lines.
+ */
+
+// Import the file classes used for the two-grid files
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class PuzzleConverter {
+    // Usage line printed when the arguments are missing
+    private static final String USAGE = "Usage: java PuzzleConverter check <in> | copy <in> <out> | totxt <in> <directory> | fromtxt <out> <file.txt>...";
+
+    /**
+     * Description: Runs the command given in the arguments and prints the number of puzzles handled and the throughput.
+     */
+    public static void main(String[] args) throws IOException {
+        // check takes one file, and copy, totxt and fromtxt at least two
+        boolean bolTwoFiles = args.length > 0 && (args[0].equals("copy") || args[0].equals("totxt") || args[0].equals("fromtxt"));
+        if (args.length < 2 || (bolTwoFiles && args.length < 3)) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        long lngStartTime = System.nanoTime();
+        long lngPuzzles;
+
+        switch (args[0]) {
+            case "check":
+                lngPuzzles = check(args[1]);
+                break;
+            case "copy":
+                lngPuzzles = copy(args[1], args[2]);
+                break;
+            case "totxt":
+                lngPuzzles = toTwoGrid(args[1], args[2]);
+                break;
+            case "fromtxt":
+                lngPuzzles = fromTwoGrid(args[1], args, 2);
+                break;
+            default:
+                System.out.println("Unknown command: " + args[0]);
+                return;
+        }
+
+        // Report the throughput
+        double dblSeconds = (System.nanoTime() - lngStartTime) / 1e9;
+        System.out.println(lngPuzzles + " puzzles in " + String.format("%.2f", dblSeconds) + "s (" + Math.round(lngPuzzles / dblSeconds) + " puzzles/s)");
+    }
+
+    /**
+     * Description: Reads every line of the file and prints how many valid and invalid puzzles it holds.
+     * Returns the number of valid puzzles.
+     */
+    public static long check(String strInFile) throws IOException {
+        byte[][] bytBoard = new byte[9][9];
+
+        try (PuzzleLineReader reader = new PuzzleLineReader(strInFile)) {
+            while (reader.next(bytBoard)) {
+                // Validation happens inside the reader
+            }
+
+            System.out.println("Valid: " + reader.getLngPuzzles() + "\tInvalid: " + reader.getLngInvalid() + "\tLines: " + reader.getLngLines());
+            return reader.getLngPuzzles();
+        }
+    }
+
+    /**
+     * Description: Copies every valid puzzle from one line file to another, in the writer's normalized format.
+     * Returns the number of puzzles copied.
+     */
+    public static long copy(String strInFile, String strOutFile) throws IOException {
+        byte[][] bytBoard = new byte[9][9];
+
+        try (PuzzleLineReader reader = new PuzzleLineReader(strInFile); PuzzleLineWriter writer = new PuzzleLineWriter(strOutFile)) {
+            while (reader.next(bytBoard)) {
+                writer.write(bytBoard);
+            }
+
+            System.out.println("Invalid records dropped: " + reader.getLngInvalid());
+            return writer.getLngPuzzles();
+        }
+    }
+
+    /**
+     * Description: Solves every puzzle in a line file and saves each one that has a single solution as a two-grid
+     * .txt file named puzzle1.txt, puzzle2.txt and so on in the given directory.
+     * Returns the number of files written.
+     */
+    public static long toTwoGrid(String strInFile, String strDirectory) throws IOException {
+        byte[][] bytBoard = new byte[9][9];
+        Solver solver = new Solver();
+        long lngWritten = 0;
+        long lngSkipped = 0;
+
+        Files.createDirectories(Paths.get(strDirectory));
+
+        try (PuzzleLineReader reader = new PuzzleLineReader(strInFile)) {
+            while (reader.next(bytBoard)) {
+                SolverResult result = solver.solve(bytBoard, 2);
+
+                // The answer board is only meaningful if the puzzle has exactly one solution
+                if (result.isUnique()) {
+                    lngWritten++;
+                    writeTwoGrid(Paths.get(strDirectory, "puzzle" + lngWritten + ".txt").toString(), bytBoard, result.getBytSolution());
+                } else {
+                    lngSkipped++;
+                }
+            }
+        }
+
+        System.out.println("Skipped (no single solution): " + lngSkipped);
+        return lngWritten;
+    }
+
+    /**
+     * Description: Reads two-grid .txt files with BoardValidator.validateFile and writes their playing boards to a line file.
+     * The files are read directly rather than through GameBoard, and puzzles rebuilt from IDs go into a cache of the
+     * conversion's own, so a bulk conversion never fills the shared PuzzleCache. Files that don't pass the validator
+     * are skipped, with the reason printed.
+     * Takes in the output file, the array of file names and the index of the first .txt file in it.
+     * Returns the number of puzzles written.
+     */
+    public static long fromTwoGrid(String strOutFile, String[] strFileNames, int intFirst) throws IOException {
+        byte[][] bytPlayingBoard = new byte[9][9];
+        BoardValidator validator = BoardValidator.get();
+        PuzzleCache cache = new PuzzleCache(PuzzleCache.DEFAULT_MAX_ENTRIES, PuzzleCache.DEFAULT_MAX_BYTES);
+        long lngSkipped = 0;
+
+        try (PuzzleLineWriter writer = new PuzzleLineWriter(strOutFile)) {
+            for (int i = intFirst; i < strFileNames.length; i++) {
+                if (validator.validateFile(Paths.get(strFileNames[i]), cache) == BoardValidator.VALID) {
+                    validator.getFilePuzzle().copyPlayingBoard(bytPlayingBoard);
+                    writer.write(bytPlayingBoard);
+                } else {
+                    System.out.println(strFileNames[i] + ": " + validator.getStrProblem());
+                    lngSkipped++;
+                }
+            }
+
+            System.out.println("Skipped (could not be loaded): " + lngSkipped);
+            return writer.getLngPuzzles();
+        }
+    }
+
+    /**
+     * Description: Writes a playing board and an answer board to a file in the two-grid .txt layout.
+     */
+    private static void writeTwoGrid(String strFileName, byte[][] bytPlayingBoard, byte[][] bytAnswerBoard) throws IOException {
+        // 18 lines of 9 digits and a newline
+        byte[] bytOutput = new byte[180];
+        int intPos = 0;
+
+        for (byte[][] bytBoard : new byte[][][] {bytPlayingBoard, bytAnswerBoard}) {
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    bytOutput[intPos++] = (byte) ('0' + bytBoard[i][j]);
+                }
+                bytOutput[intPos++] = '\n';
+            }
+        }
+
+        Files.write(Paths.get(strFileName), bytOutput);
+    }
+}
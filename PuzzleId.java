@@ -0,0 +1,186 @@
+/**
+ * Description: PuzzleId class is a compact, 16-byte name for a generated puzzle.
+ * CreateBoard is deterministic for a given seed and difficulty, so the seed, the difficulty and the version of the
+ * generator are enough to rebuild the exact same playing and answer boards. A PuzzleId can be stored or sent in
+ * place of the two 81-cell grids, and used as the key when puzzles are cached.
+ * The ID also carries a checksum of the boards it was made from, so if the generator ever changes without its
+ * version being raised, rebuilding fails loudly instead of quietly giving a different puzzle.
+ *
+ * Layout of the 16 bytes (big-endian):
+ * - 8 bytes: seed
+ * - 2 bytes: generator version (CreateBoard.ALGORITHM_VERSION)
+ * - 1 byte: difficulty (0 for the default generator, or EASY, MEDIUM, HARD)
+ * - 1 byte: reserved (0)
+ * - 4 bytes: checksum of the playing and answer boards (0 if unknown)
+ * As text, a PuzzleId is the same 16 bytes written as 32 hex digits.
+ *
+ * Methods:
+ * - PuzzleId(long lngSeed, byte bytDifficulty): Creates an ID for a seed and difficulty with the current generator.
+ * - PuzzleId(long lngSeed, byte bytDifficulty, short shrVersion, int intChecksum): Creates an ID from all its fields.
+ * - getLngSeed(), getBytDifficulty(), getShrVersion(), getIntChecksum(): Getters for the fields.
+ * - createPuzzle(): Rebuilds the puzzle the ID names.
+ * - toBytes(), fromBytes(byte[] bytId): Convert the ID to and from its 16 bytes.
+ * - toString(), parse(String strId): Convert the ID to and from 32 hex digits.
+ * - checksum(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard): Computes the checksum of a pair of boards.
+ */
+
+// Import the buffer used to lay out the bytes
+import java.nio.ByteBuffer;
+
+public class PuzzleId {
+    // Number of bytes in an ID
+    public static final int BYTES = 16;
+
+    // Seed, generator version, difficulty and board checksum
+    private final long lngSeed;
+    private final short shrVersion;
+    private final byte bytDifficulty;
+    private final int intChecksum;
+
+    /**
+     * Description: Constructor for PuzzleId class with a seed and difficulty.
+     * Uses the current generator version and no checksum, for naming a puzzle that hasn't been generated yet.
+     */
+    public PuzzleId(long lngSeed, byte bytDifficulty) {
+        this(lngSeed, bytDifficulty, CreateBoard.ALGORITHM_VERSION, 0);
+    }
+
+    /**
+     * Description: Constructor for PuzzleId class with every field.
+     * Throws IllegalArgumentException if the difficulty isn't 0, EASY, MEDIUM or HARD.
+     */
+    public PuzzleId(long lngSeed, byte bytDifficulty, short shrVersion, int intChecksum) {
+        if (bytDifficulty < 0 || bytDifficulty > CreateBoard.HARD) {
+            throw new IllegalArgumentException("Unknown difficulty: " + bytDifficulty);
+        }
+        this.lngSeed = lngSeed;
+        this.bytDifficulty = bytDifficulty;
+        this.shrVersion = shrVersion;
+        this.intChecksum = intChecksum;
+    }
+
+    /**
+     * Description: Getter methods for the seed, difficulty, generator version and checksum.
+     */
+    public long getLngSeed() {
+        return lngSeed;
+    }
+
+    public byte getBytDifficulty() {
+        return bytDifficulty;
+    }
+
+    public short getShrVersion() {
+        return shrVersion;
+    }
+
+    public int getIntChecksum() {
+        return intChecksum;
+    }
+
+    /**
+     * Description: Rebuilds the puzzle this ID names by running the generator with its seed and difficulty.
+     * Throws IllegalStateException if the ID was made by a different generator version, or if the rebuilt boards
+     * don't match the checksum.
+     */
+    public Puzzle createPuzzle() {
+        if (shrVersion != CreateBoard.ALGORITHM_VERSION) {
+            throw new IllegalStateException("Puzzle " + this + " was made by generator version " + shrVersion + ", not " + CreateBoard.ALGORITHM_VERSION);
+        }
+
+        Puzzle puzzle = new CreateBoard(bytDifficulty).createPuzzle(lngSeed);
+        if (intChecksum != 0 && puzzle.getPuzzleId().getIntChecksum() != intChecksum) {
+            throw new IllegalStateException("Puzzle " + this + " did not rebuild to the same boards");
+        }
+        return puzzle;
+    }
+
+    /**
+     * Description: Returns the 16 bytes of this ID.
+     */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(BYTES).putLong(lngSeed).putShort(shrVersion).put(bytDifficulty).put((byte) 0).putInt(intChecksum).array();
+    }
+
+    /**
+     * Description: Reads an ID back from its 16 bytes.
+     * Throws IllegalArgumentException if there aren't exactly 16 bytes or the difficulty is unknown.
+     */
+    public static PuzzleId fromBytes(byte[] bytId) {
+        if (bytId.length != BYTES) {
+            throw new IllegalArgumentException("A puzzle ID is " + BYTES + " bytes, not " + bytId.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytId);
+        long lngSeed = buffer.getLong();
+        short shrVersion = buffer.getShort();
+        byte bytDifficulty = buffer.get();
+        buffer.get(); // Reserved
+        return new PuzzleId(lngSeed, bytDifficulty, shrVersion, buffer.getInt());
+    }
+
+    /**
+     * Description: Reads an ID back from its 32 hex digits.
+     * Throws IllegalArgumentException if the text isn't 32 hex digits.
+     */
+    public static PuzzleId parse(String strId) {
+        if (strId.length() != BYTES * 2) {
+            throw new IllegalArgumentException("A puzzle ID is " + BYTES * 2 + " hex digits: " + strId);
+        }
+
+        byte[] bytId = new byte[BYTES];
+        for (int i = 0; i < BYTES; i++) {
+            int intHigh = Character.digit(strId.charAt(i * 2), 16);
+            int intLow = Character.digit(strId.charAt(i * 2 + 1), 16);
+            if (intHigh < 0 || intLow < 0) {
+                throw new IllegalArgumentException("A puzzle ID is " + BYTES * 2 + " hex digits: " + strId);
+            }
+            bytId[i] = (byte) (intHigh << 4 | intLow);
+        }
+        return fromBytes(bytId);
+    }
+
+    /**
+     * Description: Computes the checksum of a playing board and answer board, as stored in an ID.
+     * Never returns 0, which is kept to mean "no checksum".
+     */
+    public static int checksum(byte[][] bytPlayingBoard, byte[][] bytAnswerBoard) {
+        int intChecksum = 1;
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                intChecksum = 31 * intChecksum + bytPlayingBoard[i][j];
+                intChecksum = 31 * intChecksum + bytAnswerBoard[i][j];
+            }
+        }
+        return intChecksum == 0 ? 1 : intChecksum;
+    }
+
+    /**
+     * Description: Overrides the toString method to write the ID as 32 hex digits.
+     */
+    @Override
+    public String toString() {
+        StringBuilder strOutput = new StringBuilder(BYTES * 2);
+        for (byte bytValue : toBytes()) {
+            strOutput.append(Character.forDigit((bytValue >> 4) & 0xF, 16)).append(Character.forDigit(bytValue & 0xF, 16));
+        }
+        return strOutput.toString();
+    }
+
+    /**
+     * Description: Two IDs are equal when all their fields are, so IDs can be used as map keys.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PuzzleId)) {
+            return false;
+        }
+        PuzzleId id = (PuzzleId) other;
+        return lngSeed == id.lngSeed && shrVersion == id.shrVersion && bytDifficulty == id.bytDifficulty && intChecksum == id.intChecksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(lngSeed) * 31 + (shrVersion << 8 | bytDifficulty);
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Description: PuzzleLineReader class streams puzzles out of a file in the common one-puzzle-per-line format:
+ * 81 characters per line, row by row, with digits 1-9 for givens and '0' or '.' for empty cells. The cells may be
+ * followed by a space or tab and then anything (such as a rating or comment), which is ignored; anything else right
+ * after the 81st cell (a longer line of cells, or two puzzles run together) makes the record invalid. Spaces before
+ * the cells, '\r' characters and blank lines are ignored. Solver.parseLine follows the same rule.
+ * The file is read through a FileChannel into a single reusable buffer and decoded byte by byte straight into the
+ * caller's board, so no String is created per line and memory use stays the same for a file of any size.
+ * Every record is validated (length, characters and no repeated digit in a row, column or box); invalid
+ * records are skipped and counted.
+ *
+ * Methods:
+ * - PuzzleLineReader(String strFileName): Opens the file for reading.
+ * - next(byte[][] bytBoard): Reads the next valid puzzle into the board.
+ * - getLngPuzzles(), getLngInvalid(), getLngLines(): Counts of valid puzzles, invalid records and lines read so far.
+ * - close(): Closes the file.
+ */
+
+// Import the NIO classes used to read the file
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class PuzzleLineReader implements AutoCloseable {
+    // Size of the read buffer
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // File being read and the buffer its bytes are read into
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // True once the end of the file has been reached
+    private boolean bolEndOfFile = false;
+
+    // Digit masks reused to check every record for repeated digits
+    private final short[] shrRowMasks = new short[9];
+    private final short[] shrColMasks = new short[9];
+    private final short[] shrBoxMasks = new short[9];
+
+    // Counts of valid puzzles returned, invalid records skipped and lines read
+    private long lngPuzzles;
+    private long lngInvalid;
+    private long lngLines;
+
+    /**
+     * Description: Constructor for PuzzleLineReader class. Opens the file for reading.
+     */
+    public PuzzleLineReader(String strFileName) throws IOException {
+        channel = FileChannel.open(Paths.get(strFileName), StandardOpenOption.READ);
+
+        // Start with an empty buffer so the first read fills it
+        buffer.flip();
+    }
+
+    /**
+     * Description: Reads the next valid puzzle in the file into bytBoard, skipping blank lines and invalid records.
+     * Returns true if a puzzle was read, or false once the end of the file is reached.
+     */
+    public boolean next(byte[][] bytBoard) throws IOException {
+        // Number of cells read on the current line, and whether the line has gone wrong
+        int intCells = 0;
+        boolean bolBad = false;
+        boolean bolLineStarted = false;
+
+        while (true) {
+            // Refill the buffer when it runs out
+            if (!buffer.hasRemaining() && !fill()) {
+                // End of file: a last line without a newline still counts
+                if (bolLineStarted) {
+                    lngLines++;
+                    if (finishRecord(bytBoard, intCells, bolBad)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            byte bytChar = buffer.get();
+
+            if (bytChar == '\n') {
+                lngLines++;
+                if (bolLineStarted && finishRecord(bytBoard, intCells, bolBad)) {
+                    return true;
+                }
+
+                // Start again on the next line
+                intCells = 0;
+                bolBad = false;
+                bolLineStarted = false;
+            } else if (bytChar != '\r') {
+                // Skip spaces before the cells
+                if (intCells == 0 && !bolBad && (bytChar == ' ' || bytChar == '\t')) {
+                    continue;
+                }
+                bolLineStarted = true;
+
+                // The 81 cells must end the line or be followed by a space or tab; anything after that is ignored
+                if (intCells == 81 && !bolBad) {
+                    if (bytChar != ' ' && bytChar != '\t') {
+                        bolBad = true;
+                    }
+                    intCells++;
+                } else if (intCells < 81 && !bolBad) {
+                    if (bytChar == '.' || bytChar == '0') {
+                        bytBoard[intCells / 9][intCells % 9] = 0;
+                    } else if (bytChar >= '1' && bytChar <= '9') {
+                        bytBoard[intCells / 9][intCells % 9] = (byte) (bytChar - '0');
+                    } else {
+                        bolBad = true;
+                    }
+                    intCells++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Description: Getter methods for the number of valid puzzles read, invalid records skipped and lines read.
+     */
+    public long getLngPuzzles() {
+        return lngPuzzles;
+    }
+
+    public long getLngInvalid() {
+        return lngInvalid;
+    }
+
+    public long getLngLines() {
+        return lngLines;
+    }
+
+    /**
+     * Description: Closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Description: Checks a finished line and counts it as a valid puzzle or an invalid record.
+     * A line is valid if it had 81 cells of allowed characters, ending the line or followed by a space or tab, and no
+     * digit repeats in a row, column or box.
+     * Returns true if the line held a valid puzzle.
+     */
+    private boolean finishRecord(byte[][] bytBoard, int intCells, boolean bolBad) {
+        if (!bolBad && intCells >= 81 && hasNoRepeats(bytBoard)) {
+            lngPuzzles++;
+            return true;
+        }
+
+        // Anything else on a non-blank line is an invalid record
+        lngInvalid++;
+        return false;
+    }
+
+    /**
+     * Description: Returns true if no digit appears twice in any row, column or 3x3 box of the board.
+     */
+    private boolean hasNoRepeats(byte[][] bytBoard) {
+        for (int i = 0; i < 9; i++) {
+            shrRowMasks[i] = 0;
+            shrColMasks[i] = 0;
+            shrBoxMasks[i] = 0;
+        }
+
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                if (bytBoard[i][j] != 0) {
+                    short shrBit = (short) (1 << (bytBoard[i][j] - 1));
+                    int intBox = (i / 3) * 3 + j / 3;
+
+                    if (((shrRowMasks[i] | shrColMasks[j] | shrBoxMasks[intBox]) & shrBit) != 0) {
+                        return false;
+                    }
+                    shrRowMasks[i] |= shrBit;
+                    shrColMasks[j] |= shrBit;
+                    shrBoxMasks[intBox] |= shrBit;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Reads the next block of the file into the buffer.
+     * Returns false if the end of the file has been reached.
+     */
+    private boolean fill() throws IOException {
+        if (bolEndOfFile) {
+            return false;
+        }
+
+        buffer.clear();
+        int intRead = 0;
+        while (intRead == 0) {
+            intRead = channel.read(buffer);
+        }
+        buffer.flip();
+
+        if (intRead < 0) {
+            bolEndOfFile = true;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Description: PuzzleLineWriter class streams puzzles into a file in the one-puzzle-per-line format read by
+ * PuzzleLineReader: 81 characters per line, with '.' for empty cells.
+ * Lines are encoded straight into a single reusable buffer that is written through a FileChannel when full,
+ * so no String is created per puzzle and memory use stays the same however many puzzles are written.
+ *
+ * Methods:
+ * - PuzzleLineWriter(String strFileName): Creates (or replaces) the file for writing.
+ * - write(byte[][] bytBoard): Writes one board as a line.
+ * - getLngPuzzles(): Returns the number of puzzles written.
+ * - close(): Writes anything left in the buffer and closes the file.
+ */
+
+// Import the NIO classes used to write the file
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class PuzzleLineWriter implements AutoCloseable {
+    // Size of the write buffer and of one line (81 cells and a newline)
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int LINE_SIZE = 82;
+
+    // File being written and the buffer lines are encoded into
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // Number of puzzles written
+    private long lngPuzzles;
+
+    /**
+     * Description: Constructor for PuzzleLineWriter class. Creates the file, replacing any file with that name.
+     */
+    public PuzzleLineWriter(String strFileName) throws IOException {
+        channel = FileChannel.open(Paths.get(strFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Description: Writes one 9x9 board as a line of 81 characters.
+     */
+    public void write(byte[][] bytBoard) throws IOException {
+        // Write out the buffer when the next line won't fit
+        if (buffer.remaining() < LINE_SIZE) {
+            flush();
+        }
+
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                buffer.put(bytBoard[i][j] == 0 ? (byte) '.' : (byte) ('0' + bytBoard[i][j]));
+            }
+        }
+        buffer.put((byte) '\n');
+        lngPuzzles++;
+    }
+
+    /**
+     * Description: Returns the number of puzzles written.
+     */
+    public long getLngPuzzles() {
+        return lngPuzzles;
+    }
+
+    /**
+     * Description: Writes anything left in the buffer and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Description: Writes everything in the buffer to the file and empties the buffer for reuse.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Description: PuzzlePool class generates puzzles in the background so a new game never waits on CreateBoard.
+ * It keeps one bounded queue of ready-made puzzles per difficulty (EASY, MEDIUM, HARD). A small set of daemon
+ * producer threads, each with its own CreateBoard per difficulty, fill a queue back up to capacity whenever it
+ * drops below the low-water mark. Taking a puzzle is a single queue poll unless the queue has run dry.
+ *
+ * Methods:
+ * - PuzzlePool(int intCapacity, int intLowWater, int intThreads): Creates the queues and starts the producer threads.
+ * - takePuzzle(byte bytDifficulty): Takes a ready-made puzzle, waiting only if none are ready.
+ * - getQueueDepth(byte bytDifficulty): Returns how many puzzles are ready for a difficulty.
+ * - getPuzzlesGenerated(), getRefillRate(), getTakes(), getWaits(): Metrics about the pool.
+ * - shutdown(): Stops the producer threads.
+ */
+
+// Import the concurrent queue and counters
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PuzzlePool {
+    // Most seeds tried for a puzzle that reaches its grade; about 1 in 100 HARD seeds falls short, so this is never reached in practice
+    private static final int MAX_GRADE_RETRIES = 20;
+
+    // One queue of ready-made puzzles per difficulty (index 0 is unused)
+    private final ArrayBlockingQueue<Puzzle>[] puzzleQueues;
+
+    // True while the queue for a difficulty is being filled back up to capacity
+    private final boolean[] bolRefilling = new boolean[4];
+
+    // Queue sizes that control refilling
+    private final int intCapacity;
+    private final int intLowWater;
+
+    // Producer threads
+    private final Thread[] producers;
+
+    // Lock the producers wait on while no queue needs refilling
+    private final Object lock = new Object();
+
+    // Metrics: puzzles generated, puzzles taken and takes that had to wait for a puzzle to be generated
+    private final AtomicLong lngPuzzlesGenerated = new AtomicLong();
+    private final AtomicLong lngTakes = new AtomicLong();
+    private final AtomicLong lngWaits = new AtomicLong();
+
+    // Time the pool was started, used for the refill rate
+    private final long lngStartTime = System.nanoTime();
+
+    /**
+     * Description: Constructor for PuzzlePool class.
+     * Creates a queue per difficulty, marks every queue as needing a refill and starts the producer threads.
+     * Takes in intCapacity (queue size), intLowWater (queue size below which a refill starts) and intThreads (number of producers).
+     */
+    public PuzzlePool(int intCapacity, int intLowWater, int intThreads) {
+        this.intCapacity = intCapacity;
+        this.intLowWater = intLowWater;
+
+        // Java can't create an array of a generic type, so the raw array is created and cast here
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayBlockingQueue<Puzzle>[] queues = new ArrayBlockingQueue[4];
+        puzzleQueues = queues;
+        for (byte i = CreateBoard.EASY; i <= CreateBoard.HARD; i++) {
+            puzzleQueues[i] = new ArrayBlockingQueue<Puzzle>(intCapacity);
+            bolRefilling[i] = true;
+        }
+
+        // Start the producers as daemon threads so they never keep the program running
+        producers = new Thread[intThreads];
+        for (int i = 0; i < intThreads; i++) {
+            producers[i] = new Thread(this::produce, "puzzle-producer-" + i);
+            producers[i].setDaemon(true);
+            producers[i].start();
+        }
+    }
+
+    /**
+     * Description: Takes a ready-made puzzle of the given difficulty.
+     * If the queue is empty the caller waits for a producer and the wait is counted. If the queue drops below
+     * the low-water mark, the producers are woken up to refill it.
+     * Returns the puzzle taken from the queue.
+     */
+    public Puzzle takePuzzle(byte bytDifficulty) {
+        Puzzle puzzle = puzzleQueues[bytDifficulty].poll();
+        lngTakes.incrementAndGet();
+
+        if (puzzle == null) {
+            // No puzzle ready, so make sure a refill is running and wait for one
+            lngWaits.incrementAndGet();
+            startRefill(bytDifficulty);
+
+            try {
+                puzzle = puzzleQueues[bytDifficulty].take();
+            } catch (InterruptedException e) {
+                // Generate on this thread instead of waiting
+                Thread.currentThread().interrupt();
+                puzzle = createGradedPuzzle(new CreateBoard(bytDifficulty), bytDifficulty);
+            }
+        }
+
+        if (puzzleQueues[bytDifficulty].size() < intLowWater) {
+            startRefill(bytDifficulty);
+        }
+
+        return puzzle;
+    }
+
+    /**
+     * Description: Getter methods for the pool metrics.
+     * getQueueDepth returns the number of ready puzzles for a difficulty, getPuzzlesGenerated the total number of puzzles
+     * made by the producers, getRefillRate the puzzles generated per second since the pool started, getTakes the number of
+     * puzzles taken, and getWaits how many of those takes found the queue empty and had to wait.
+     */
+    public int getQueueDepth(byte bytDifficulty) {
+        return puzzleQueues[bytDifficulty].size();
+    }
+
+    public long getPuzzlesGenerated() {
+        return lngPuzzlesGenerated.get();
+    }
+
+    public double getRefillRate() {
+        return lngPuzzlesGenerated.get() / ((System.nanoTime() - lngStartTime) / 1e9);
+    }
+
+    public long getTakes() {
+        return lngTakes.get();
+    }
+
+    public long getWaits() {
+        return lngWaits.get();
+    }
+
+    /**
+     * Description: Stops the producer threads. Puzzles already in the queues can still be taken.
+     */
+    public void shutdown() {
+        for (int i = 0; i < producers.length; i++) {
+            producers[i].interrupt();
+        }
+    }
+
+    /**
+     * Description: Marks the queue for a difficulty as needing a refill and wakes up the producers.
+     */
+    private void startRefill(byte bytDifficulty) {
+        synchronized (lock) {
+            bolRefilling[bytDifficulty] = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Description: Loop run by each producer thread.
+     * Waits until a queue needs refilling, generates a puzzle for it with the producer's own generator and adds it.
+     * Once a queue is full its refill is finished. Runs until the thread is interrupted.
+     */
+    private void produce() {
+        // Each producer keeps its own generator per difficulty, as CreateBoard isn't thread-safe
+        CreateBoard[] generators = new CreateBoard[4];
+        for (byte i = CreateBoard.EASY; i <= CreateBoard.HARD; i++) {
+            generators[i] = new CreateBoard(i);
+        }
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                byte bytDifficulty = waitForRefill();
+
+                // offer fails only if another producer filled the last slot first
+                if (!puzzleQueues[bytDifficulty].offer(createGradedPuzzle(generators[bytDifficulty], bytDifficulty))) {
+                    finishRefill(bytDifficulty);
+                } else {
+                    lngPuzzlesGenerated.incrementAndGet();
+
+                    if (puzzleQueues[bytDifficulty].size() >= intCapacity) {
+                        finishRefill(bytDifficulty);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by shutdown, so let the thread end
+        }
+    }
+
+    /**
+     * Description: Generates a puzzle that grades at the requested difficulty. Now and then no grid CreateBoard tries
+     * reaches the grade and it settles for an easier puzzle; those are thrown away and a new seed is tried, so a
+     * queue only holds puzzles of its own difficulty. After MAX_GRADE_RETRIES seeds the last puzzle is used anyway,
+     * with a warning, so a producer can never loop forever.
+     */
+    private static Puzzle createGradedPuzzle(CreateBoard generator, byte bytDifficulty) {
+        Puzzle puzzle = generator.createPuzzle();
+        for (int i = 1; generator.getBytGrade() < bytDifficulty; i++) {
+            // Give up after MAX_GRADE_RETRIES seeds rather than spin, and serve the last puzzle as it is
+            if (i == MAX_GRADE_RETRIES) {
+                System.out.println("Warning: No puzzle reached grade " + bytDifficulty + " in " + MAX_GRADE_RETRIES + " tries, using one of grade " + generator.getBytGrade());
+                break;
+            }
+            puzzle = generator.createPuzzle();
+        }
+        return puzzle;
+    }
+
+    /**
+     * Description: Blocks until some queue is being refilled and returns its difficulty.
+     * The emptiest queue is chosen so a drained difficulty is served first.
+     */
+    private byte waitForRefill() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                byte bytChoice = 0;
+
+                for (byte i = CreateBoard.EASY; i <= CreateBoard.HARD; i++) {
+                    if (bolRefilling[i] && (bytChoice == 0 || puzzleQueues[i].size() < puzzleQueues[bytChoice].size())) {
+                        bytChoice = i;
+                    }
+                }
+
+                if (bytChoice != 0) {
+                    return bytChoice;
+                }
+                lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Description: Marks the refill of a difficulty as finished, unless the queue has already dropped below the low-water mark again.
+     */
+    private void finishRefill(byte bytDifficulty) {
+        synchronized (lock) {
+            if (puzzleQueues[bytDifficulty].size() >= intLowWater) {
+                bolRefilling[bytDifficulty] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Description: SaveQueue class writes saved games to disk on one background thread, so the thread playing a game
+ * never waits on the disk. A save is handed in as a ready-made snapshot of the file's bytes, taken on the game thread,
+ * and the caller gets a CompletableFuture that completes with the file's path once it is on disk, or exceptionally
+ * if it couldn't be written.
+ * Saves wait in the queue by file: if a file is saved again before the writer has reached it, the newer snapshot
+ * simply replaces the older one and both callers share one future, so a game saved many times in a burst is written
+ * once, with its latest state. The writer takes every file waiting at once and writes them as a batch.
+ * Each file is written to a temporary file next to it and then renamed over it, so a save file on disk is always a
+ * whole save, old or new, even if the JVM stops halfway through a write. Once written, the file's old puzzle is
+ * removed from the shared PuzzleCache, so loading it again always reads the new save.
+ * The writer is a daemon thread, so it doesn't keep the JVM running, but saves still waiting when the JVM exits are
+ * finished first (for up to EXIT_WAIT_MILLIS).
+ *
+ * Methods:
+ * - SaveQueue(): Creates a queue and starts its writer thread.
+ * - getShared(): Returns the queue GameBoard saves through.
+ * - submit(Path file, byte[] bytContent): Queues a snapshot to be written to a file and returns its future.
+ * - getIntPending(): Returns the number of saves queued or being written.
+ * - getLngWrites(), getLngCoalesced(): Return the number of files written and of saves merged into a newer one.
+ * - awaitIdle(long lngTimeoutMillis): Waits until every queued save has been written.
+ */
+
+// Import the file classes, the queue and the futures saves complete through
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SaveQueue {
+    // Longest time the JVM waits at exit for queued saves to be written
+    public static final long EXIT_WAIT_MILLIS = 5000;
+
+    // Most files the writer takes from the queue in one batch
+    private static final int MAX_BATCH = 64;
+
+    // Queue every GameBoard saves through, made the first time it is needed
+    private static SaveQueue shared;
+
+    // Files waiting to be written, in the order they were first queued, and the save waiting for each
+    private final BlockingQueue<Path> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Path, PendingSave> pending = new ConcurrentHashMap<>();
+
+    // Saves queued or being written, and the metrics
+    private final AtomicInteger intPending = new AtomicInteger();
+    private final LongAdder lngWrites = new LongAdder();
+    private final LongAdder lngCoalesced = new LongAdder();
+
+    /**
+     * Description: A save waiting in the queue: the latest snapshot of the file and the future its callers wait on.
+     * The snapshot is only replaced while the save is still in the pending map, so the writer always sees the last one.
+     */
+    private static final class PendingSave {
+        private byte[] bytContent;
+        private final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        private PendingSave(byte[] bytContent) {
+            this.bytContent = bytContent;
+        }
+    }
+
+    /**
+     * Description: Constructor for SaveQueue class. Starts the writer thread, and a shutdown hook that lets it
+     * finish the saves still queued when the JVM exits.
+     */
+    public SaveQueue() {
+        Thread writer = new Thread(this::run, "save-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitIdle(EXIT_WAIT_MILLIS), "save-flush"));
+    }
+
+    /**
+     * Description: Returns the queue GameBoard saves through, starting it the first time it is asked for.
+     */
+    public static synchronized SaveQueue getShared() {
+        if (shared == null) {
+            shared = new SaveQueue();
+        }
+        return shared;
+    }
+
+    /**
+     * Description: Queues bytContent to be written to file, replacing the snapshot of a save of the same file that
+     * is still waiting. The array must not be changed afterwards.
+     * Returns a future that completes with the file once it is on disk, or with the IOException if it couldn't be written.
+     */
+    public CompletableFuture<Path> submit(Path file, byte[] bytContent) {
+        // Key by the full path, so two names for the same file share a save
+        Path key = file.toAbsolutePath().normalize();
+        boolean[] bolQueued = new boolean[1];
+
+        // Either take over the waiting save's slot or add a new one; the map's lock keeps this atomic with the writer's remove
+        PendingSave save = pending.compute(key, (path, waiting) -> {
+            if (waiting != null) {
+                waiting.bytContent = bytContent;
+                return waiting;
+            }
+            bolQueued[0] = true;
+            return new PendingSave(bytContent);
+        });
+
+        if (bolQueued[0]) {
+            intPending.incrementAndGet();
+            queue.add(key);
+        } else {
+            lngCoalesced.increment();
+        }
+        return save.future;
+    }
+
+    /**
+     * Description: Returns the number of saves queued or being written.
+     */
+    public int getIntPending() {
+        return intPending.get();
+    }
+
+    /**
+     * Description: Return the number of files written, and the number of saves replaced by a newer save of the same file.
+     */
+    public long getLngWrites() {
+        return lngWrites.sum();
+    }
+
+    public long getLngCoalesced() {
+        return lngCoalesced.sum();
+    }
+
+    /**
+     * Description: Waits until every queued save has been written, or until the timeout passes.
+     * Returns true if nothing is left to write.
+     */
+    public boolean awaitIdle(long lngTimeoutMillis) {
+        long lngDeadline = System.currentTimeMillis() + lngTimeoutMillis;
+        while (intPending.get() > 0 && System.currentTimeMillis() < lngDeadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return intPending.get() == 0;
+    }
+
+    /**
+     * Description: Body of the writer thread. Waits for a save, takes every other file waiting along with it, and
+     * writes the batch, completing each save's future as it goes.
+     */
+    private void run() {
+        List<Path> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            for (Path file : batch) {
+                // Once removed, a new save of this file starts a new entry instead of changing this one
+                PendingSave save = pending.remove(file);
+                write(file, save);
+                intPending.decrementAndGet();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Description: Writes one save to a temporary file next to the file, renames it over the file and completes the
+     * save's future. Records the time, bytes and failures in Metrics when metrics are enabled.
+     */
+    private void write(Path file, PendingSave save) {
+        // Time the write if metrics are on
+        long lngStartTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            // Files.write closes the file even if the write fails
+            Files.write(temp, save.bytContent);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lngWrites.increment();
+
+            // The cache key may not change if the file keeps its length and timestamp, so drop the file's old puzzle
+            PuzzleCache.getShared().removeFile(file.toString());
+
+            if (Metrics.ENABLED) {
+                Metrics.SAVE_TIME.record(System.nanoTime() - lngStartTime);
+                Metrics.SAVE_BYTES.add(save.bytContent.length);
+            }
+            save.future.complete(file);
+        } catch (IOException | RuntimeException e) {
+            // Don't leave a half-written temporary file behind
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException eDelete) {
+                // The rename failed too; nothing more can be done
+            }
+
+            if (Metrics.ENABLED) {
+                Metrics.SAVE_ERRORS.increment();
+            }
+            save.future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Description: SolutionCountTask class is one piece of a ParallelSolver count: the subtree of the search below a
+ * partly filled board. While it still has a task budget above 1, it branches on the cell with the fewest candidates
+ * by forking one task per candidate, each with an equal share of the budget, and adds up their counts as it joins
+ * them. Cells with a single candidate are simply filled, as they don't split the work. Once the budget is spent, the
+ * task counts its subtree on its own thread with the same depth-first search as Solver.
+ * Every task checks the ParallelSolver's abort flag at each node, so they all stop soon after the limit is reached.
+ * Each task owns its copy of the board, so tasks never share anything but the ParallelSolver's counters.
+ *
+ * Methods:
+ * - SolutionCountTask(ParallelSolver solver, byte[] bytCells, short[] shrMasks, int intBudget): Creates a task for a board.
+ * - compute(): Counts the solutions below the task's board, splitting it first while the budget allows.
+ */
+
+// Import the fork-join task this extends
+import java.util.concurrent.RecursiveTask;
+
+public class SolutionCountTask extends RecursiveTask<Long> {
+    // RecursiveTask is Serializable, though tasks are never actually serialized
+    private static final long serialVersionUID = 1L;
+
+    // Solver whose counters and abort flag this task shares with the others
+    private final ParallelSolver solver;
+
+    // The task's own board: cells 0-80 (0 is empty) and the digit masks of rows (0-8), columns (9-17) and boxes (18-26)
+    private final byte[] bytCells;
+    private final short[] shrMasks;
+
+    // Number of tasks this task may still split into
+    private final int intBudget;
+
+    // Candidates of the cell last chosen by findMostConstrainedCell, and cells branched on by this task
+    private int intBestCandidates;
+    private long lngNodes;
+
+    /**
+     * Description: Constructor for SolutionCountTask class. Takes in the solver it belongs to, its own copy of the
+     * board and masks, and the number of tasks it may split into.
+     */
+    SolutionCountTask(ParallelSolver solver, byte[] bytCells, short[] shrMasks, int intBudget) {
+        this.solver = solver;
+        this.bytCells = bytCells;
+        this.shrMasks = shrMasks;
+        this.intBudget = intBudget;
+    }
+
+    /**
+     * Description: Counts the solutions below the task's board. Splits at the first cell with more than one candidate
+     * while the budget is above 1, otherwise searches on this thread.
+     * Returns the number of solutions found by this task and the tasks it forked.
+     */
+    @Override
+    protected Long compute() {
+        if (intBudget > 1) {
+            // Fill cells with a single candidate until there is a real choice to split on
+            while (!solver.isAborted()) {
+                int intCell = findMostConstrainedCell();
+
+                // No empty cells left means the board is solved; no candidates is a dead end
+                if (intCell == -1) {
+                    solver.addSolution();
+                    solver.addNodes(lngNodes);
+                    return 1L;
+                }
+                if (intBestCandidates == 0) {
+                    solver.addNodes(lngNodes);
+                    return 0L;
+                }
+
+                lngNodes++;
+                if (Integer.bitCount(intBestCandidates) == 1) {
+                    place(bytCells, shrMasks, intCell, intBestCandidates);
+                    continue;
+                }
+
+                // One task per candidate, sharing out the budget
+                SolutionCountTask[] tasks = new SolutionCountTask[Integer.bitCount(intBestCandidates)];
+                int intChildBudget = intBudget / tasks.length;
+                for (int i = 0; i < tasks.length; i++) {
+                    int intBit = Integer.lowestOneBit(intBestCandidates);
+                    intBestCandidates &= ~intBit;
+
+                    byte[] bytChildCells = bytCells.clone();
+                    short[] shrChildMasks = shrMasks.clone();
+                    place(bytChildCells, shrChildMasks, intCell, intBit);
+                    tasks[i] = new SolutionCountTask(solver, bytChildCells, shrChildMasks, intChildBudget);
+                }
+                solver.addNodes(lngNodes);
+
+                // Run the tasks (idle threads steal them) and add up their counts
+                invokeAll(tasks);
+                long lngFound = 0;
+                for (SolutionCountTask task : tasks) {
+                    lngFound += task.join();
+                }
+                return lngFound;
+            }
+            solver.addNodes(lngNodes);
+            return 0L;
+        }
+
+        long lngFound = search();
+        solver.addNodes(lngNodes);
+        return lngFound;
+    }
+
+    /**
+     * Description: Depth-first search on this thread, as in Solver: branches on the empty cell with the fewest
+     * candidates, trying each candidate digit and undoing it afterwards. Stops as soon as the abort flag is raised.
+     * Returns the number of solutions found below this point.
+     */
+    private long search() {
+        if (solver.isAborted()) {
+            return 0;
+        }
+        lngNodes++;
+
+        int intCell = findMostConstrainedCell();
+        if (intCell == -1) {
+            solver.addSolution();
+            return 1;
+        }
+
+        int intCandidates = intBestCandidates;
+        long lngFound = 0;
+        int intRow = intCell / 9;
+        int intCol = 9 + intCell % 9;
+        int intBox = 18 + (intCell / 27) * 3 + (intCell % 9) / 3;
+
+        while (intCandidates != 0 && !solver.isAborted()) {
+            int intBit = Integer.lowestOneBit(intCandidates);
+            intCandidates &= ~intBit;
+
+            place(bytCells, shrMasks, intCell, intBit);
+            lngFound += search();
+
+            // Undo the digit
+            bytCells[intCell] = 0;
+            shrMasks[intRow] &= ~intBit;
+            shrMasks[intCol] &= ~intBit;
+            shrMasks[intBox] &= ~intBit;
+        }
+
+        return lngFound;
+    }
+
+    /**
+     * Description: Finds the empty cell with the fewest candidates, keeping its candidates in intBestCandidates.
+     * Returns the cell, or -1 if every cell is filled.
+     */
+    private int findMostConstrainedCell() {
+        int intBestCell = -1;
+        int intBestCount = 10;
+
+        for (int i = 0; i < 81 && intBestCount > 1; i++) {
+            if (bytCells[i] == 0) {
+                int intCandidates = ~(shrMasks[i / 9] | shrMasks[9 + i % 9] | shrMasks[18 + (i / 27) * 3 + (i % 9) / 3]) & 0x1FF;
+                int intCount = Integer.bitCount(intCandidates);
+
+                if (intCount < intBestCount) {
+                    intBestCell = i;
+                    intBestCandidates = intCandidates;
+                    intBestCount = intCount;
+                }
+            }
+        }
+        return intBestCell;
+    }
+
+    /**
+     * Description: Places a digit (given as its bit) in a cell of the board and marks it used in the cell's row, column and box.
+     */
+    private static void place(byte[] bytCells, short[] shrMasks, int intCell, int intBit) {
+        bytCells[intCell] = (byte) (Integer.numberOfTrailingZeros(intBit) + 1);
+        shrMasks[intCell / 9] |= intBit;
+        shrMasks[9 + intCell % 9] |= intBit;
+        shrMasks[18 + (intCell / 27) * 3 + (intCell % 9) / 3] |= intBit;
+    }
+}
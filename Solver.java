@@ -0,0 +1,204 @@
+/**
+ * Description: Solver class solves any 9x9 Sudoku playing board (0 means an empty cell), in the same layout as
+ * GameBoard's bytPlayingBoard. It keeps a 9-bit mask of the digits used in every row, column and 3x3 box and always
+ * branches on the empty cell with the fewest candidates. Counting stops as soon as a caller-specified limit is reached,
+ * so proving a puzzle is unique only needs a limit of 2.
+ * A Solver reuses its working arrays between calls, so keep one per thread rather than sharing it.
+ * It is the BITMASK backend of SudokuSolver; DancingLinksSolver is the other.
+ *
+ * Methods:
+ * - solve(byte[][] bytBoard, int intLimit): Solves a board and returns the first solution, the capped solution count and search statistics.
+ * - countSolutions(byte[][] bytBoard, int intLimit): Counts the solutions of a board, up to the limit.
+ * - parseLine(String strLine, byte[][] bytBoard): Reads a puzzle written as one line of 81 characters.
+ */
+public class Solver implements SudokuSolver {
+    // Working cells (0-80) and the digit masks of every row, column and box
+    private byte[] bytCells = new byte[81];
+    private short[] shrRowMasks = new short[9];
+    private short[] shrColMasks = new short[9];
+    private short[] shrBoxMasks = new short[9];
+
+    // First solution found by the current search
+    private byte[] bytSolution = new byte[81];
+
+    // Statistics for the current search: solutions found, cells branched on, and dead ends reached
+    private long lngSolutions;
+    private long lngNodes;
+    private long lngBacktracks;
+
+    /**
+     * Description: Solves the given board without changing it.
+     * Takes in bytBoard (the 9x9 board to solve) and intLimit (the number of solutions after which the search stops).
+     * Returns a SolverResult with the first solution (or null), the number of solutions found (at most intLimit) and the search statistics.
+     */
+    @Override
+    public SolverResult solve(byte[][] bytBoard, int intLimit) {
+        long lngStartTime = System.nanoTime();
+        int intCount = countSolutions(bytBoard, intLimit);
+        byte[][] bytSolved = null;
+
+        // Copy out the first solution if there was one
+        if (intCount > 0) {
+            bytSolved = new byte[9][9];
+            for (int i = 0; i < 81; i++) {
+                bytSolved[i / 9][i % 9] = bytSolution[i];
+            }
+        }
+
+        return new SolverResult(bytSolved, intCount, lngNodes, lngBacktracks, System.nanoTime() - lngStartTime);
+    }
+
+    /**
+     * Description: Counts the solutions of the given board, stopping as soon as the limit is reached.
+     * A board whose givens already break the Sudoku rules has 0 solutions.
+     * Returns the number of solutions found, at most intLimit.
+     */
+    @Override
+    public int countSolutions(byte[][] bytBoard, int intLimit) {
+        lngSolutions = 0;
+        lngNodes = 0;
+        lngBacktracks = 0;
+
+        // Reset the masks
+        for (int i = 0; i < 9; i++) {
+            shrRowMasks[i] = 0;
+            shrColMasks[i] = 0;
+            shrBoxMasks[i] = 0;
+        }
+
+        // Copy the board in and mark every given digit as used
+        for (byte bytCell = 0; bytCell < 81; bytCell++) {
+            byte bytRowElement = (byte) (bytCell / 9);
+            byte bytColElement = (byte) (bytCell % 9);
+            byte bytBox = (byte) ((bytRowElement / 3) * 3 + bytColElement / 3);
+            byte bytNumber = bytBoard[bytRowElement][bytColElement];
+
+            bytCells[bytCell] = bytNumber;
+            if (bytNumber != 0) {
+                short shrBit = (short) (1 << (bytNumber - 1));
+
+                // A digit repeated in a row, column or box means there can't be a solution
+                if (((shrRowMasks[bytRowElement] | shrColMasks[bytColElement] | shrBoxMasks[bytBox]) & shrBit) != 0) {
+                    return 0;
+                }
+                shrRowMasks[bytRowElement] |= shrBit;
+                shrColMasks[bytColElement] |= shrBit;
+                shrBoxMasks[bytBox] |= shrBit;
+            }
+        }
+
+        return search(intLimit);
+    }
+
+    /**
+     * Description: Getter methods for the statistics of the last search.
+     */
+    @Override
+    public long getLngNodes() {
+        return lngNodes;
+    }
+
+    @Override
+    public long getLngBacktracks() {
+        return lngBacktracks;
+    }
+
+    /**
+     * Description: Reads a puzzle written as one line of 81 characters, row by row, into bytBoard.
+     * Digits 1-9 are givens, and '0' or '.' are empty cells. This is the same rule as PuzzleLineReader: spaces around
+     * the line are ignored, and the 81 cells may be followed by a space or tab and then anything (such as a rating),
+     * but anything else right after them (a longer line of cells, or two puzzles run together) is rejected.
+     * Returns true if the line is a valid puzzle line, false otherwise (bytBoard may then be partly filled).
+     */
+    public static boolean parseLine(String strLine, byte[][] bytBoard) {
+        strLine = strLine.trim();
+        if (strLine.length() < 81 || (strLine.length() > 81 && strLine.charAt(81) != ' ' && strLine.charAt(81) != '\t')) {
+            return false;
+        }
+
+        for (int i = 0; i < 81; i++) {
+            char chrCell = strLine.charAt(i);
+
+            if (chrCell == '.' || chrCell == '0') {
+                bytBoard[i / 9][i % 9] = 0;
+            } else if (chrCell >= '1' && chrCell <= '9') {
+                bytBoard[i / 9][i % 9] = (byte) (chrCell - '0');
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Depth-first search used by countSolutions.
+     * Branches on the empty cell with the fewest candidates, trying each candidate digit and undoing it afterwards.
+     * Each level fills one cell, so the recursion is never deeper than 81 calls.
+     * Returns the number of solutions found below this point, at most intLimit.
+     */
+    private int search(int intLimit) {
+        byte bytBestCell = -1;
+        int intBestCandidates = 0;
+        int intBestCount = 10;
+
+        lngNodes++;
+
+        // Find the empty cell with the fewest candidates
+        for (byte bytCell = 0; bytCell < 81 && intBestCount > 1; bytCell++) {
+            if (bytCells[bytCell] == 0) {
+                byte bytRowElement = (byte) (bytCell / 9);
+                byte bytColElement = (byte) (bytCell % 9);
+                int intCandidates = ~(shrRowMasks[bytRowElement] | shrColMasks[bytColElement] | shrBoxMasks[(bytRowElement / 3) * 3 + bytColElement / 3]) & 0x1FF;
+                int intCount = Integer.bitCount(intCandidates);
+
+                if (intCount < intBestCount) {
+                    bytBestCell = bytCell;
+                    intBestCandidates = intCandidates;
+                    intBestCount = intCount;
+                }
+            }
+        }
+
+        // No empty cells left means the board is solved; keep the first solution
+        if (bytBestCell == -1) {
+            if (lngSolutions == 0) {
+                System.arraycopy(bytCells, 0, bytSolution, 0, 81);
+            }
+            lngSolutions++;
+            return 1;
+        }
+
+        // A cell with no candidates is a dead end
+        if (intBestCandidates == 0) {
+            lngBacktracks++;
+            return 0;
+        }
+
+        byte bytRowElement = (byte) (bytBestCell / 9);
+        byte bytColElement = (byte) (bytBestCell % 9);
+        byte bytBox = (byte) ((bytRowElement / 3) * 3 + bytColElement / 3);
+        int intFound = 0;
+
+        // Try every candidate of the chosen cell
+        while (intBestCandidates != 0 && intFound < intLimit) {
+            int intBit = Integer.lowestOneBit(intBestCandidates);
+            intBestCandidates &= ~intBit;
+
+            // Place the digit
+            bytCells[bytBestCell] = (byte) (Integer.numberOfTrailingZeros(intBit) + 1);
+            shrRowMasks[bytRowElement] |= intBit;
+            shrColMasks[bytColElement] |= intBit;
+            shrBoxMasks[bytBox] |= intBit;
+
+            intFound += search(intLimit - intFound);
+
+            // Undo the digit
+            bytCells[bytBestCell] = 0;
+            shrRowMasks[bytRowElement] &= ~intBit;
+            shrColMasks[bytColElement] &= ~intBit;
+            shrBoxMasks[bytBox] &= ~intBit;
+        }
+
+        return intFound;
+    }
+}
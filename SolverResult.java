@@ -0,0 +1,66 @@
+/**
+ * Description: SolverResult class holds the outcome of one Solver.solve call: the first solution found, the number
+ * of solutions (capped at the limit given to the solver) and statistics about the search.
+ *
+ * Methods:
+ * - getBytSolution(): Returns the first solution found, or null if the board has none.
+ * - getIntSolutionCount(): Returns the number of solutions found, at most the limit passed to the solver.
+ * - isUnique(): Returns true if the board has exactly one solution.
+ * - getLngNodes(), getLngBacktracks(), getLngNanos(): Search statistics.
+ */
+public class SolverResult {
+    // First solution found (null if there is none) and the capped number of solutions
+    private final byte[][] bytSolution;
+    private final int intSolutionCount;
+
+    // Cells branched on, dead ends reached and time taken in nanoseconds
+    private final long lngNodes;
+    private final long lngBacktracks;
+    private final long lngNanos;
+
+    /**
+     * Description: Constructor for SolverResult class, called by Solver.
+     */
+    public SolverResult(byte[][] bytSolution, int intSolutionCount, long lngNodes, long lngBacktracks, long lngNanos) {
+        this.bytSolution = bytSolution;
+        this.intSolutionCount = intSolutionCount;
+        this.lngNodes = lngNodes;
+        this.lngBacktracks = lngBacktracks;
+        this.lngNanos = lngNanos;
+    }
+
+    /**
+     * Description: Getter methods to retrieve the solution, solution count and search statistics.
+     */
+    public byte[][] getBytSolution() {
+        return bytSolution;
+    }
+
+    public int getIntSolutionCount() {
+        return intSolutionCount;
+    }
+
+    public boolean isUnique() {
+        return intSolutionCount == 1;
+    }
+
+    public long getLngNodes() {
+        return lngNodes;
+    }
+
+    public long getLngBacktracks() {
+        return lngBacktracks;
+    }
+
+    public long getLngNanos() {
+        return lngNanos;
+    }
+
+    /**
+     * Description: Overrides the toString method to summarize the result on one line.
+     */
+    @Override
+    public String toString() {
+        return "Solutions: " + intSolutionCount + "\tNodes: " + lngNodes + "\tBacktracks: " + lngBacktracks + "\tTime: " + (lngNanos / 1000) + "us";
+    }
+}
@@ -4,25 +4,36 @@
  * Description: SpecialBoard class represents an extended version of a Sudoku game board, inheriting from the GameBoard class.
  * It introduces additional features such as a timer, hints, and associated functionalities. The timer enforces a 30-minute time limit 
  * for completing the game, and players can use hints to reveal random empty cells on the board. SpecialBoard overrides the parent 
- * class's toString method, providing a formatted string representation that includes the timer, hints remaining, mistakes, and the 
- * Sudoku board.
+ * class's board header, so the board is drawn with the timer, hints remaining and mistakes above it.
  * 
  * Methods:
  * - SpecialBoard(): Default constructor that initializes the number of hints, timer length, and start time.
+ * - SpecialBoard(CreateBoard generator): Constructor that populates the board using the given generator.
+ * - SpecialBoard(Puzzle puzzle): Constructor that copies the board from a ready-made puzzle.
+ * - SpecialBoard(PuzzleId puzzleId): Constructor that rebuilds a generated puzzle from its ID.
  * - SpecialBoard(String strFileName, byte bytHints, int startTime): Constructor with parameters for file name, hints, and start time.
  * - checkTimeLimit(): Checks if the time limit of 30 minutes has been reached.
  * - getHint(): Provides a hint to the player by revealing a random empty cell on the board.
- * - toString(): Overrides the parent class toString method to represent the SpecialBoard as a formatted string.
+ * - getSmartHint(): Provides a hint by revealing the most constrained empty cell on the board.
+ * - useHint(boolean bolSmart): Uses a hint without any console output and returns the cell revealed.
+ * - getShrElapsedTime(), setShrElapsedTime(short shrSeconds): Get or set the seconds played, so a resumed game keeps its clock.
+ * - closeJournal(): Overrides the parent's to store the seconds played in the journal before closing it.
+ * - applyRecord(int intRecord), undoRecord(int intRecord): Override the parent's to use up or give back a hint.
+ * - appendHeader(BoardRenderer renderer): Overrides the parent header to show the timer, hints remaining and mistakes.
  */
 
-// Import to allow us to reformat our text
-import java.text.DecimalFormat;
-
 public class SpecialBoard extends GameBoard {
 
     // Number of hints available. Length of timer in minutes
     private byte bytHints, bytTimer; 
     
+    // Results returned by useHint when no cell could be revealed
+    public static final int HINT_NONE_LEFT = -1;
+    public static final int HINT_BOARD_FULL = -2;
+
+    // Units completed by the last hint
+    private byte bytLastHintCompleted;
+
     // Variables to hold and calculate the time elapsed for the current game
     private short shrStartTime = 0;
     private short shrTimeElapsedSinceStart = 0;
@@ -34,22 +45,50 @@ public class SpecialBoard extends GameBoard {
      */
     public SpecialBoard() {
 
-        // Calls the default constructor of the GameBoard superclass
-        super(); 
+        // Calls the generator constructor with a new CreateBoard
+        this(new CreateBoard());
+    }
+
+    /**
+     * Description: Constructor for SpecialBoard class with a generator.
+     * Populates the board using the provided CreateBoard instance.
+     */
+    public SpecialBoard(CreateBoard generator) {
+
+        // Calls the puzzle constructor with a newly generated puzzle
+        this(generator.createPuzzle());
+    }
+
+    /**
+     * Description: Constructor for SpecialBoard class with a ready-made puzzle.
+     * Copies the boards from the puzzle and initializes the number of hints, timer length, and start time.
+     */
+    public SpecialBoard(Puzzle puzzle) {
+
+        // Calls the puzzle constructor of the GameBoard superclass
+        super(puzzle);
 
         // Initializes the number of hints to 3
         this.bytHints = 3;
 
         // Initializes the timer length to 30 minutes
-        this.bytTimer = 30;         
-        
+        this.bytTimer = 30;
+
         // Converts current time to seconds and sets as start time
-        this.shrStartTime =  (short) (System.currentTimeMillis() / 1000 - this.shrTimeElapsedSinceStart); 
-        
+        this.shrStartTime =  (short) (System.currentTimeMillis() / 1000 - this.shrTimeElapsedSinceStart);
+
         // Adds up every startTime so we can calculate the new start time for the next special game
         this.shrTimeElapsedSinceStart += this.shrStartTime;
     }
 
+    /**
+     * Description: Constructor for SpecialBoard class with a puzzle ID.
+     * Rebuilds the generated puzzle the ID names and starts a special game on it.
+     */
+    public SpecialBoard(PuzzleId puzzleId) {
+        this(PuzzleCache.getShared().getPuzzle(puzzleId));
+    }
+
     /**
      * Author: Ibraheem Dawod
      * Date: 01/17/2024
@@ -100,118 +139,142 @@ public class SpecialBoard extends GameBoard {
      * Date: 01/17/2024
      * Description: Provides a hint to the player by revealing a random empty cell on the board.
      * 
+     * The cell is picked in one step from the parent's index of empty cells, so this takes the same time however full the board is.
      * Decreases the number of available hints and prints the hint location and the value from the answer board.
      * If no hints are available, prints a message indicating so.
      */
     public void getHint() {
-        byte bytRandomRow, bytRandomCol;
-        if(bytHints > 0) {
+        printHint(useHint(false));
+    }
 
-            // Generate random row and column until an empty cell is found
-            do {
-                
-                // Random number between 1 and 9 for row and column
-                bytRandomRow = (byte)((Math.random() * 9) + 1); 
-                bytRandomCol  = (byte)((Math.random() * 9) + 1);
+    /**
+     * Description: Provides a smarter hint by revealing the empty cell with the fewest possible candidates,
+     * which is the cell a solver would fill next. Ties are broken at random.
+     * 
+     * Uses up a hint in the same way as getHint.
+     */
+    public void getSmartHint() {
+        printHint(useHint(true));
+    }
 
-                // Using the parents bytPlayingBoard variable, check if the current random coordinate is not equal to 0. If it isn't then generate another one
-            } while(super.bytPlayingBoard[bytRandomRow-1][bytRandomCol-1] != 0);
+    /**
+     * Description: Uses up a hint without printing anything, revealing either a random empty cell or (if bolSmart is true)
+     * the most constrained one. This is the part of getHint that doesn't touch the console.
+     * Returns the cell revealed (0-80), HINT_NONE_LEFT if no hints remain, or HINT_BOARD_FULL if there is no empty cell.
+     */
+    public int useHint(boolean bolSmart) {
+        if(bytHints <= 0) {
+            return HINT_NONE_LEFT;
+        }
 
-            // Set the playing board cell with the value from the answer board
-            super.bytPlayingBoard[bytRandomRow-1][bytRandomCol-1] = super.bytAnswerBoard[bytRandomRow-1][bytRandomCol-1];
+        int intCell = bolSmart ? getMostConstrainedEmptyCell() : getRandomEmptyCell();
+        if(intCell == -1) {
+            return HINT_BOARD_FULL;
+        }
 
-            bytHints--; // Decrease the number of available hints
+        // Set the playing board cell with the value from the answer board, keeping the parent's fill counters up to date
+        bytLastHintCompleted = revealCell(intCell / 9, intCell % 9);
 
-            // Print hint information
-            // Use the parent classes value of bytAnswerBoard coordinate to show hint being revealed
-            System.out.println("\nYou used a hint. You now have " + bytHints + " left! (" + bytRandomRow + ", " + bytRandomCol + ") has been revealed to be " + super.bytAnswerBoard[bytRandomRow-1][bytRandomCol-1] + ".");
-        } else {
-            System.out.println("\nUnfortunately, you have no more hints to use. :(");
+        bytHints--; // Decrease the number of available hints
+        recordMove(MoveJournal.HINT, intCell, getCell(intCell / 9, intCell % 9));
+        if (Metrics.ENABLED) {
+            Metrics.HINTS.increment();
         }
+        return intCell;
     }
 
     /**
-     * Author: Ibraheem Dawod
-     * Date: 01/17/2024
-     * Description: Overrides the toString method to represent the SpecialBoard as a string.
-     * 
-     * Formats the output with a timer, hints remaining, mistakes, and the Sudoku board. Overrides the parent class toString.
-     * Returns String representation of the SpecialBoard.
+     * Description: Getter method for the number of hints remaining.
      */
-    @Override
-    public String toString() {
-        // Calculate the elapsed time in seconds by subtracting the start time from the current time
-        short shrElapsedTime = (short)((System.currentTimeMillis() / 1000) - shrStartTime); // Convert to seconds
+    public byte getBytHints() {
+        return bytHints;
+    }
+
+    /**
+     * Description: Sets the number of hints remaining. Used by MoveJournal to restore a game it replays.
+     */
+    void setBytHints(byte bytHints) {
+        this.bytHints = bytHints;
+    }
+
+    /**
+     * Description: Returns the number of seconds played since the timer started.
+     */
+    public short getShrElapsedTime() {
+        return (short) ((System.currentTimeMillis() / 1000) - shrStartTime);
+    }
 
-        // Calculate minutes and seconds from the elapsed time
-        byte bytMinutes = (byte)(shrElapsedTime / 60);
-        short shrSeconds = (short)(shrElapsedTime % 60);
-
-        // Create a decimal format for formatting minutes and seconds with leading zeros, using DecimalFormat input
-        DecimalFormat decimalFormat = new DecimalFormat("00");
-
-        // Create a string to represent the output, including timer, hints remaining, and mistakes
-        String strOutput = "\nTimer: " + decimalFormat.format(bytMinutes) + ":" + decimalFormat.format(shrSeconds) + "\tHints Remaining: " + bytHints + "\tMistakes: " + bytMistakes + "/3\n\n";
-
-        // Add spaces and column numbers to the output string
-        strOutput += "    ";
-        for(int i = 0; i < 9; i++){
-            
-            // Add extra space every 3 columns
-            if(i%3 == 0 && i!=0) {
-                strOutput += "  ";
-            }
-            
-            // Add the column number to the output
-            strOutput += (i+1) + " ";
+    /**
+     * Description: Sets the number of seconds already played by moving the start time back. Used by MoveJournal to
+     * carry on the clock of a game it replays.
+     */
+    void setShrElapsedTime(short shrSeconds) {
+        this.shrStartTime = (short) (System.currentTimeMillis() / 1000 - shrSeconds);
+    }
+
+    /**
+     * Description: Stores the seconds played in the journal's file, then closes the journal as the parent does.
+     * Resuming the game from the journal then carries on the clock instead of restarting it.
+     */
+    @Override
+    public void closeJournal() {
+        if (getJournal() != null) {
+            getJournal().writeElapsedTime(getShrElapsedTime());
         }
-        strOutput += "\n   ";
+        super.closeJournal();
+    }
 
-        // Add horizontal lines to the output
-        for(int i=0; i<12; i++){
-            strOutput += "--";
+    /**
+     * Description: Applies a MoveJournal record as the parent does, and uses up a hint again if the record is one.
+     */
+    @Override
+    protected void applyRecord(int intRecord) {
+        super.applyRecord(intRecord);
+        if (MoveJournal.getType(intRecord) == MoveJournal.HINT) {
+            bytHints--;
         }
-        strOutput += "\n";
-
-        // Loop through each row of the playing board
-        for (int i = 0; i < bytPlayingBoard.length; i++) {
-            
-            // Add extra space and horizontal line every 3 rows
-            if((i)%3 == 0 && i!=0) {
-                strOutput += "    ";
-                for(int k=0; k<21; k++){
-                    strOutput += "-";
-                }
-                strOutput += "\n" + (i+1) + " | ";
-            } else {
-                
-                // Add row number and separator to the output
-                strOutput += (i+1) + " | ";
-            }
-            
-            // Loop through each cell in the row
-            for (int j = 0; j < bytPlayingBoard[i].length; j++) {
-                
-                // Add vertical separator every 3 columns
-                if((j)%3 == 0 && j!=0) {
-                    strOutput += "| ";
-                }
-                
-                // Add cell value (or "●" if the cell is empty(0)) to the output
-                strOutput += (bytPlayingBoard[i][j] == 0 ? "●" : bytPlayingBoard[i][j])  + " ";
-            }
-            
-            // Add the closing vertical separator and new line to the output
-            strOutput += " |\n";
+    }
+
+    /**
+     * Description: Undoes a MoveJournal record as the parent does, and gives the hint back if the record is one.
+     */
+    @Override
+    protected void undoRecord(int intRecord) {
+        super.undoRecord(intRecord);
+        if (MoveJournal.getType(intRecord) == MoveJournal.HINT) {
+            bytHints++;
         }
+    }
+
+    /**
+     * Description: Prints the outcome of useHint: the revealed cell and its value, or why no hint was given.
+     */
+    private void printHint(int intCell) {
+        if(intCell == HINT_NONE_LEFT) {
+            System.out.println("\nUnfortunately, you have no more hints to use. :(");
+        } else if(intCell == HINT_BOARD_FULL) {
+            System.out.println("\nThere are no empty cells left to reveal!");
+        } else {
+            byte bytRow = (byte)(intCell / 9 + 1);
+            byte bytCol = (byte)(intCell % 9 + 1);
 
-        // Add horizontal lines to the bottom of the output
-        strOutput += "   ";
-        for(int i=0; i<12; i++){
-            strOutput += "--";
+            // Print hint information
+            // Use the revealed cell of the playing board to show the hint
+            System.out.println("\nYou used a hint. You now have " + bytHints + " left! (" + bytRow + ", " + bytCol + ") has been revealed to be " + getCell(bytRow - 1, bytCol - 1) + ".");
+            printCompletedUnits(bytLastHintCompleted, bytRow-1, bytCol-1);
         }
+    }
+
+    /**
+     * Description: Overrides the parent header to show the timer, hints remaining and mistakes above the board.
+     */
+    @Override
+    public void appendHeader(BoardRenderer renderer) {
+        // Calculate the elapsed time in seconds by subtracting the start time from the current time
+        short shrElapsedTime = (short)((System.currentTimeMillis() / 1000) - shrStartTime); // Convert to seconds
 
-        // Return the final string representation of the SpecialBoard
-        return strOutput;
+        // Add the timer as minutes and seconds with leading zeros, then the hints remaining and mistakes
+        renderer.append("\nTimer: ").appendTwoDigits(shrElapsedTime / 60).append(":").appendTwoDigits(shrElapsedTime % 60);
+        renderer.append("\tHints Remaining: ").append(bytHints).append("\tMistakes: ").append(bytMistakes).append("/3\n\n");
     }
 }
@@ -0,0 +1,66 @@
+/**
+ * Description: SudokuSolver interface is implemented by every search strategy that can solve a 9x9 board, so callers
+ * can pick one per call: Solver (bitmask backtracking, the default) or DancingLinksSolver (exact cover with Knuth's
+ * Dancing Links). Both take boards in GameBoard's bytPlayingBoard layout (0 means an empty cell), stop counting as
+ * soon as the limit is reached and reuse their working state between calls, so keep one per thread.
+ *
+ * Methods:
+ * - create(byte bytBackend): Creates a solver for a backend (BITMASK or DANCING_LINKS).
+ * - parseBackend(String strName): Returns the backend with the given name.
+ * - solve(byte[][] bytBoard, int intLimit): Solves a board and returns the first solution, the capped solution count and search statistics.
+ * - countSolutions(byte[][] bytBoard, int intLimit): Counts the solutions of a board, up to the limit.
+ * - getLngNodes(), getLngBacktracks(): Statistics of the last search.
+ */
+public interface SudokuSolver {
+    // Backends that can be chosen with create
+    byte BITMASK = 0;
+    byte DANCING_LINKS = 1;
+
+    /**
+     * Description: Creates a new solver for a backend.
+     * Throws IllegalArgumentException for an unknown backend.
+     */
+    static SudokuSolver create(byte bytBackend) {
+        switch (bytBackend) {
+            case BITMASK:
+                return new Solver();
+            case DANCING_LINKS:
+                return new DancingLinksSolver();
+            default:
+                throw new IllegalArgumentException("unknown solver backend " + bytBackend);
+        }
+    }
+
+    /**
+     * Description: Returns the backend named "bitmask" or "dlx" (ignoring case), or -1 if the name isn't known.
+     */
+    static byte parseBackend(String strName) {
+        if (strName.equalsIgnoreCase("bitmask")) {
+            return BITMASK;
+        } else if (strName.equalsIgnoreCase("dlx")) {
+            return DANCING_LINKS;
+        }
+        return -1;
+    }
+
+    /**
+     * Description: Solves the given board without changing it.
+     * Takes in bytBoard (the 9x9 board to solve) and intLimit (the number of solutions after which the search stops).
+     * Returns a SolverResult with the first solution (or null), the number of solutions found (at most intLimit) and the search statistics.
+     */
+    SolverResult solve(byte[][] bytBoard, int intLimit);
+
+    /**
+     * Description: Counts the solutions of the given board without changing it, stopping as soon as the limit is reached.
+     * A board whose givens already break the Sudoku rules has 0 solutions.
+     * Returns the number of solutions found, at most intLimit.
+     */
+    int countSolutions(byte[][] bytBoard, int intLimit);
+
+    /**
+     * Description: Getter methods for the statistics of the last search: choices branched on and dead ends reached.
+     */
+    long getLngNodes();
+
+    long getLngBacktracks();
+}
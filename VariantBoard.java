@@ -0,0 +1,171 @@
+/**
+ * Description: VariantBoard class holds a game on a board of any size (4x4, 9x9, 16x16 or 25x25), generated by a
+ * VariantGenerator. It plays like a GameBoard (guess a cell, three mistakes and the game is lost) but keeps its cells
+ * in flat arrays sized by its Geometry instead of the fixed 81 cells, and draws itself with BoardRenderer.
+ * Saving, hints, pencil marks and the move journal stay with the classic 9x9 GameBoard, whose formats hold 9x9 cells.
+ *
+ * Methods:
+ * - VariantBoard(int intBoxSize): Generates a new game for the box size.
+ * - VariantBoard(Geometry geometry, byte[] bytPlayingCells, byte[] bytAnswerCells): Creates a game from given boards.
+ * - getGeometry(): Returns the layout of the board.
+ * - getCell(int intRow, int intCol): Returns the digit shown in a cell, or 0 if it is empty.
+ * - getBytMistakes(): Returns the number of mistakes made.
+ * - isBoardFilled(): Returns true once every cell has been revealed.
+ * - getBolGameWon(): Returns true if the board was filled without running out of mistakes.
+ * - makeMove(byte bytUserRow, byte bytUserCol, byte bytAns): Applies a guess and returns one of GameBoard's MOVE_ results.
+ * - validateMove(byte bytUserRow, byte bytUserCol, byte bytAns): Makes a guess and tells the player how it went.
+ * - appendHeader(BoardRenderer renderer): Appends the mistakes header shown above the board.
+ * - print(PrintStream out): Prints the board to a stream without building a String.
+ * - toString(): Returns the board as a formatted string.
+ */
+
+// Import the stream boards are printed to
+import java.io.PrintStream;
+
+public class VariantBoard implements BoardHeader {
+    // Layout of the board
+    private final Geometry geometry;
+
+    // Cells shown to the player and the answer grid, row by row (0 is an empty cell)
+    private final byte[] bytPlayingCells;
+    private final byte[] bytAnswerCells;
+
+    // Number of mistakes made and number of cells still empty
+    private byte bytMistakes;
+    private int intEmptyCells;
+
+    /**
+     * Description: Constructor for VariantBoard class. Generates a new unique puzzle for the box size
+     * (2 for 4x4, 3 for 9x9, 4 for 16x16, 5 for 25x25).
+     */
+    public VariantBoard(int intBoxSize) {
+        VariantGenerator generator = new VariantGenerator(intBoxSize);
+        generator.generate();
+
+        geometry = generator.getGeometry();
+        bytPlayingCells = generator.getBytPlayingBoard().clone();
+        bytAnswerCells = generator.getBytAnswerBoard().clone();
+        countEmptyCells();
+    }
+
+    /**
+     * Description: Constructor for VariantBoard class. Takes in the geometry and copies of the playing and answer boards.
+     */
+    public VariantBoard(Geometry geometry, byte[] bytPlayingCells, byte[] bytAnswerCells) {
+        this.geometry = geometry;
+        this.bytPlayingCells = bytPlayingCells.clone();
+        this.bytAnswerCells = bytAnswerCells.clone();
+        countEmptyCells();
+    }
+
+    /**
+     * Description: Counts the empty cells of the playing board.
+     */
+    private void countEmptyCells() {
+        intEmptyCells = 0;
+        for (byte bytCell : bytPlayingCells) {
+            if (bytCell == 0) {
+                intEmptyCells++;
+            }
+        }
+    }
+
+    /**
+     * Description: Getter methods for the layout, a cell (row and column counting from 0) and the number of mistakes made.
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public byte getCell(int intRow, int intCol) {
+        return bytPlayingCells[intRow * geometry.getIntSize() + intCol];
+    }
+
+    public byte getBytMistakes() {
+        return bytMistakes;
+    }
+
+    /**
+     * Description: Returns true once every cell has been revealed.
+     */
+    public boolean isBoardFilled() {
+        return intEmptyCells == 0;
+    }
+
+    /**
+     * Description: Returns true if the board was filled without running out of mistakes.
+     */
+    public boolean getBolGameWon() {
+        return intEmptyCells == 0 && bytMistakes < 3;
+    }
+
+    /**
+     * Description: Applies a guess without printing anything. Row and column count from 1.
+     * Returns GameBoard.MOVE_CORRECT, MOVE_ALREADY_REVEALED, MOVE_WRONG, or MOVE_OUT_OF_MISTAKES when the guess was the third mistake.
+     */
+    public byte makeMove(byte bytUserRow, byte bytUserCol, byte bytAns) {
+        int intCell = (bytUserRow - 1) * geometry.getIntSize() + bytUserCol - 1;
+
+        if (bytPlayingCells[intCell] != 0) {
+            return GameBoard.MOVE_ALREADY_REVEALED;
+        }
+
+        // Correct guess, so reveal it
+        if (bytAnswerCells[intCell] == bytAns) {
+            bytPlayingCells[intCell] = bytAns;
+            intEmptyCells--;
+            return GameBoard.MOVE_CORRECT;
+        }
+
+        // Wrong guess, so count the mistake (3 is the maximum allowed)
+        bytMistakes++;
+        return bytMistakes == 3 ? GameBoard.MOVE_OUT_OF_MISTAKES : GameBoard.MOVE_WRONG;
+    }
+
+    /**
+     * Description: Makes a guess and tells the player how it went, like GameBoard.validateMove.
+     * Returns false once the third mistake has been made, and true otherwise.
+     */
+    public boolean validateMove(byte bytUserRow, byte bytUserCol, byte bytAns) {
+        byte bytResult = makeMove(bytUserRow, bytUserCol, bytAns);
+
+        if (bytResult == GameBoard.MOVE_CORRECT) {
+            System.out.println("\nYour guess is correct! (" + bytUserRow + ", " + bytUserCol + ") has been revealed to be " + bytAns + ".");
+            return true;
+        } else if (bytResult == GameBoard.MOVE_ALREADY_REVEALED) {
+            System.out.println("That number has already been revealed - you can't guess it again!");
+            return true;
+        } else if (bytResult == GameBoard.MOVE_OUT_OF_MISTAKES) {
+            System.out.println("\nUnfortunately, that guess is incorrect, and you're out of mistakes. Better luck next time!");
+            return false;
+        } else {
+            System.out.println("\nUnfortunately, that guess is incorrect. You have " + (3 - bytMistakes) + " mistakes remaining.");
+            return true;
+        }
+    }
+
+    /**
+     * Description: Appends the header shown above the board: its size and the number of mistakes.
+     */
+    @Override
+    public void appendHeader(BoardRenderer renderer) {
+        renderer.append("\n").append(geometry.getIntSize()).append("x").append(geometry.getIntSize());
+        renderer.append("    Mistakes: ").append(bytMistakes).append("/3\n\n");
+    }
+
+    /**
+     * Description: Prints the board (with its header) followed by a new line to the given stream.
+     */
+    public void print(PrintStream out) {
+        BoardRenderer.get().render(geometry, bytPlayingCells, this).writeTo(out);
+        out.println();
+    }
+
+    /**
+     * Description: Overrides the toString method to represent the VariantBoard as a string, drawn by the shared BoardRenderer.
+     */
+    @Override
+    public String toString() {
+        return BoardRenderer.get().render(geometry, bytPlayingCells, this).toString();
+    }
+}
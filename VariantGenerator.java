@@ -0,0 +1,163 @@
+/**
+ * Description: VariantGenerator class generates unique puzzles for boards of any size, from 4x4 to 25x25,
+ * the way CreateBoard does for the classic 9x9 board: fill a complete answer grid, then remove digits in a random
+ * order, keeping each removal only if the board still has exactly one solution. Since the answer grid is already one
+ * solution, a removal is checked by searching for a solution with a different digit in that cell.
+ * The grid is filled by first placing shuffled digits in the boxes on the main diagonal (which never share a row,
+ * column or box, so any digits fit) and letting a VariantSolver with randomly ordered guesses finish the rest.
+ * Every uniqueness check runs with a guess limit. A check that hits it is treated as not unique and the digit is kept,
+ * so one hard board can't stall generation; a fill that hits it starts over.
+ * Every random choice comes from one seeded java.util.Random, so the same seed and size always give the same puzzle.
+ * A generator reuses its solver, so each thread should have its own.
+ *
+ * Methods:
+ * - VariantGenerator(int intBoxSize): Creates a generator for the box size, seeded from the clock.
+ * - VariantGenerator(int intBoxSize, long lngSeed): Creates a generator whose sequence of puzzles is fixed by the seed.
+ * - generate(): Generates a new puzzle, returning the answer grid and setting the playing board.
+ * - getGeometry(): Returns the layout of the boards generated.
+ * - getBytPlayingBoard(): Returns the playing board of the last puzzle generated.
+ * - getBytAnswerBoard(): Returns the answer grid of the last puzzle generated.
+ */
+
+// Import the array helpers and the seedable random number generator
+import java.util.Arrays;
+import java.util.Random;
+
+public class VariantGenerator {
+    // Share of the cells to try removing (the rest always stay as givens)
+    private static final double REMOVE_FRACTION = 0.6;
+
+    // Guesses allowed while filling a grid, and while checking a removal leaves one solution
+    private static final long FILL_NODE_LIMIT = 20000;
+    private static final long CHECK_NODE_LIMIT = 200;
+
+    // Layout of the boards, the solver used to fill and check them, and the source of every random choice
+    private final Geometry geometry;
+    private final VariantSolver solver;
+    private final Random random;
+
+    // Answer grid and playing board of the last puzzle generated
+    private final byte[] bytAnswerBoard;
+    private final byte[] bytPlayingBoard;
+
+    /**
+     * Description: Constructor for VariantGenerator class. Takes in the box size (2 for 4x4 up to 5 for 25x25).
+     */
+    public VariantGenerator(int intBoxSize) {
+        this(intBoxSize, System.nanoTime());
+    }
+
+    /**
+     * Description: Constructor for VariantGenerator class. Takes in the box size and the seed for every random choice.
+     */
+    public VariantGenerator(int intBoxSize, long lngSeed) {
+        geometry = Geometry.of(intBoxSize);
+        solver = new VariantSolver(geometry);
+        random = new Random(lngSeed);
+        bytAnswerBoard = new byte[geometry.getIntCells()];
+        bytPlayingBoard = new byte[geometry.getIntCells()];
+    }
+
+    /**
+     * Description: Getter methods for the layout and the boards of the last puzzle generated.
+     * The arrays are the generator's own and are overwritten by the next generate().
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public byte[] getBytPlayingBoard() {
+        return bytPlayingBoard;
+    }
+
+    public byte[] getBytAnswerBoard() {
+        return bytAnswerBoard;
+    }
+
+    /**
+     * Description: Generates a new puzzle: fills the answer grid, then removes digits while the solution stays unique.
+     * Returns the answer grid; the puzzle itself is in getBytPlayingBoard().
+     */
+    public byte[] generate() {
+        fillGrid();
+        removeDigits();
+        return bytAnswerBoard;
+    }
+
+    /**
+     * Description: Fills the answer grid with a random complete grid, starting over whenever the solver hits its guess limit.
+     */
+    private void fillGrid() {
+        int intSize = geometry.getIntSize();
+        int intBoxSize = geometry.getIntBoxSize();
+        byte[] bytDigits = new byte[intSize];
+
+        solver.setLngNodeLimit(FILL_NODE_LIMIT);
+        do {
+            Arrays.fill(bytAnswerBoard, (byte) 0);
+
+            // Shuffle the digits into each box on the main diagonal
+            for (int intBox = 0; intBox < intSize; intBox += intBoxSize + 1) {
+                for (int i = 0; i < intSize; i++) {
+                    bytDigits[i] = (byte) (i + 1);
+                }
+                shuffle(bytDigits);
+
+                int[] intBoxCells = geometry.getUnit(2 * intSize + intBox);
+                for (int i = 0; i < intSize; i++) {
+                    bytAnswerBoard[intBoxCells[i]] = bytDigits[i];
+                }
+            }
+        } while (!solver.solve(bytAnswerBoard, random));
+    }
+
+    /**
+     * Description: Copies the answer grid to the playing board, then tries removing cells in a random order,
+     * putting a digit back whenever its removal can't be shown to leave a single solution.
+     */
+    private void removeDigits() {
+        int intCells = geometry.getIntCells();
+        System.arraycopy(bytAnswerBoard, 0, bytPlayingBoard, 0, intCells);
+
+        // Visit the cells in a random order
+        int[] intOrder = new int[intCells];
+        for (int i = 0; i < intCells; i++) {
+            intOrder[i] = i;
+        }
+        for (int i = intCells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int intTemp = intOrder[i];
+            intOrder[i] = intOrder[j];
+            intOrder[j] = intTemp;
+        }
+
+        int intToRemove = (int) (intCells * REMOVE_FRACTION);
+        solver.setLngNodeLimit(CHECK_NODE_LIMIT);
+
+        for (int i = 0; i < intCells && intToRemove > 0; i++) {
+            int intCell = intOrder[i];
+            byte bytDigit = bytPlayingBoard[intCell];
+            bytPlayingBoard[intCell] = 0;
+
+            // The answer grid is one solution, so the board stays unique if no solution puts another digit here
+            // UNKNOWN (the check gave up) counts as not unique, so the digit goes back
+            if (solver.countSolutionsExcluding(bytPlayingBoard, intCell, bytDigit, 1) == 0) {
+                intToRemove--;
+            } else {
+                bytPlayingBoard[intCell] = bytDigit;
+            }
+        }
+    }
+
+    /**
+     * Description: Shuffles an array of digits in place (Fisher-Yates).
+     */
+    private void shuffle(byte[] bytDigits) {
+        for (int i = bytDigits.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte bytTemp = bytDigits[i];
+            bytDigits[i] = bytDigits[j];
+            bytDigits[j] = bytTemp;
+        }
+    }
+}
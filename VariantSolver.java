@@ -0,0 +1,338 @@
+/**
+ * Description: VariantSolver class solves and counts the solutions of a board of any size, from 4x4 to 25x25,
+ * laid out by a Geometry. Solver stays as the faster fixed solver for the classic 9x9 board.
+ * Each cell keeps an int mask of the digits it could still hold. Placing a digit strikes it from every peer, and
+ * two rules are applied until nothing changes: a cell with one digit left gets it (naked single), and a digit with
+ * one cell left in a row, column or box goes there (hidden single). Only then does the search guess, at the cell
+ * with the fewest digits left. Each guess works on a copy of the masks one level down an explicit stack, so
+ * backtracking is just stepping back a level, and the search never recurses.
+ * Boards are given as one byte per cell, row by row, 0 meaning empty.
+ * A solver reuses its stack, so each thread should have its own.
+ *
+ * Methods:
+ * - VariantSolver(Geometry geometry): Creates a solver for boards of the given size.
+ * - countSolutions(byte[] bytCells, int intLimit): Counts solutions, stopping once intLimit are found.
+ * - countSolutionsExcluding(byte[] bytCells, int intCell, byte bytDigit, int intLimit): Counts the solutions that
+ *   don't put the digit in the cell.
+ * - solve(byte[] bytCells, Random random): Fills the board with a solution, guessing in a random order if given a Random.
+ * - setLngNodeLimit(long lngNodeLimit): Sets how many guesses a search may make before giving up.
+ * - getLngNodes(): Returns the number of guesses the last search made.
+ */
+
+// Import the random number generator used to fill boards in a random order
+import java.util.Random;
+
+public class VariantSolver {
+    // Returned by countSolutions when the search gave up before it could finish
+    public static final int UNKNOWN = -1;
+
+    // Flag set in a cell's mask once its digit has been placed and struck from its peers
+    private static final int PLACED = 1 << 30;
+
+    // Layout of the boards solved, and the mask with every digit set
+    private final Geometry geometry;
+    private final int intAllDigits;
+
+    // Masks of every cell at each level of the search, made as the search first reaches each level
+    private final int[][] intFrames;
+
+    // Cell guessed at each level and the digits not yet tried there
+    private final int[] intStackCells;
+    private final int[] intStackRemaining;
+
+    // Cells with a single digit left that are waiting to be placed
+    private final int[] intQueue;
+    private int intQueueLength;
+
+    // First solution found by the last search
+    private final byte[] bytSolution;
+
+    // Guesses made by the last search, and the most it may make
+    private long lngNodes;
+    private long lngNodeLimit = Long.MAX_VALUE;
+
+    /**
+     * Description: Constructor for VariantSolver class. Takes in the geometry of the boards it will solve.
+     */
+    public VariantSolver(Geometry geometry) {
+        this.geometry = geometry;
+        this.intAllDigits = geometry.getIntAllDigits();
+
+        int intCells = geometry.getIntCells();
+        intFrames = new int[intCells + 1][];
+        intStackCells = new int[intCells + 1];
+        intStackRemaining = new int[intCells + 1];
+        intQueue = new int[intCells];
+        bytSolution = new byte[intCells];
+    }
+
+    /**
+     * Description: Sets how many guesses a search may make before giving up (no limit by default).
+     * Generators use this so one unlucky board can't hold them up: a search that gives up is treated as unproven.
+     */
+    public void setLngNodeLimit(long lngNodeLimit) {
+        this.lngNodeLimit = lngNodeLimit;
+    }
+
+    /**
+     * Description: Returns the number of guesses the last search made.
+     */
+    public long getLngNodes() {
+        return lngNodes;
+    }
+
+    /**
+     * Description: Counts the solutions of a board, stopping as soon as intLimit have been found.
+     * The board isn't changed. Returns the count (at most intLimit), or UNKNOWN if the node limit was reached first.
+     */
+    public int countSolutions(byte[] bytCells, int intLimit) {
+        return search(bytCells, -1, 0, intLimit, null);
+    }
+
+    /**
+     * Description: Counts the solutions of a board that don't put bytDigit in the (empty) cell intCell, stopping as
+     * soon as intLimit have been found. Returns the count, or UNKNOWN if the node limit was reached first.
+     * When bytDigit is the known answer of a cell that was just emptied, a count of 0 proves the board still has
+     * exactly one solution. That is usually much quicker than countSolutions(bytCells, 2), which must find the known
+     * solution as well and then search everything else.
+     */
+    public int countSolutionsExcluding(byte[] bytCells, int intCell, byte bytDigit, int intLimit) {
+        return search(bytCells, intCell, 1 << (bytDigit - 1), intLimit, null);
+    }
+
+    /**
+     * Description: Fills the empty cells of a board with a solution.
+     * If random isn't null the digits are guessed in a random order, which gives a random complete grid from an empty board.
+     * Returns true if the board was solved, or false (leaving it unchanged) if it has no solution or the node limit was reached.
+     */
+    public boolean solve(byte[] bytCells, Random random) {
+        if (search(bytCells, -1, 0, 1, random) != 1) {
+            return false;
+        }
+        System.arraycopy(bytSolution, 0, bytCells, 0, bytCells.length);
+        return true;
+    }
+
+    /**
+     * Description: Runs the search, keeping the first solution found in bytSolution.
+     * If intExcludeCell isn't -1, the digits in intExcludeBit are struck from that cell before the search starts.
+     * Returns the number of solutions found (at most intLimit), or UNKNOWN if the node limit was reached.
+     */
+    private int search(byte[] bytCells, int intExcludeCell, int intExcludeBit, int intLimit, Random random) {
+        int intCells = geometry.getIntCells();
+        int intCount = 0;
+        lngNodes = 0;
+
+        // Level 0 holds the givens with everything that follows from them
+        int[] intStart = frame(0);
+        for (int i = 0; i < intCells; i++) {
+            intStart[i] = intAllDigits;
+        }
+        if (intExcludeCell != -1) {
+            intStart[intExcludeCell] &= ~intExcludeBit;
+        }
+        intQueueLength = 0;
+        for (int i = 0; i < intCells; i++) {
+            if (bytCells[i] != 0 && !assign(intStart, i, 1 << (bytCells[i] - 1))) {
+                return 0;
+            }
+        }
+        if (!propagate(intStart)) {
+            return 0;
+        }
+
+        int intDepth = 0;
+        boolean bolNewLevel = true;
+
+        while (true) {
+            if (bolNewLevel) {
+                bolNewLevel = false;
+                int[] intCurrent = intFrames[intDepth];
+                int intCell = findMostConstrainedCell(intCurrent);
+
+                if (intCell == -1) {
+                    // Every cell is placed, so this is a solution
+                    if (intCount++ == 0) {
+                        for (int i = 0; i < intCells; i++) {
+                            bytSolution[i] = (byte) (Integer.numberOfTrailingZeros(intCurrent[i] & ~PLACED) + 1);
+                        }
+                    }
+                    if (intCount >= intLimit || --intDepth < 0) {
+                        return intCount;
+                    }
+                    continue;
+                }
+
+                intStackCells[intDepth] = intCell;
+                intStackRemaining[intDepth] = intCurrent[intCell];
+            }
+
+            // Out of digits at this level, so step back to the level above
+            int intRemaining = intStackRemaining[intDepth];
+            if (intRemaining == 0) {
+                if (--intDepth < 0) {
+                    return intCount;
+                }
+                continue;
+            }
+
+            // Guess the next digit on a copy of this level
+            int intBit = random == null ? Integer.lowestOneBit(intRemaining) : pickRandomBit(intRemaining, random);
+            intStackRemaining[intDepth] = intRemaining & ~intBit;
+            if (++lngNodes > lngNodeLimit) {
+                return UNKNOWN;
+            }
+
+            int[] intNext = frame(intDepth + 1);
+            System.arraycopy(intFrames[intDepth], 0, intNext, 0, intCells);
+            intQueueLength = 0;
+            if (assign(intNext, intStackCells[intDepth], intBit) && propagate(intNext)) {
+                intDepth++;
+                bolNewLevel = true;
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the masks for a level of the search, making them the first time the level is reached.
+     */
+    private int[] frame(int intDepth) {
+        if (intFrames[intDepth] == null) {
+            intFrames[intDepth] = new int[geometry.getIntCells()];
+        }
+        return intFrames[intDepth];
+    }
+
+    /**
+     * Description: Places a digit (given as its bit) in a cell and strikes it from every peer.
+     * Peers left with a single digit are queued to be placed by propagate.
+     * Returns false if the digit can't go there or a peer is left with no digits.
+     */
+    private boolean assign(int[] intMasks, int intCell, int intBit) {
+        if ((intMasks[intCell] & intBit) == 0) {
+            return false;
+        }
+        intMasks[intCell] = intBit | PLACED;
+
+        for (int intPeer : geometry.getPeers(intCell)) {
+            int intMask = intMasks[intPeer];
+            if ((intMask & intBit) != 0) {
+                if ((intMask & PLACED) != 0) {
+                    return false;
+                }
+                intMask &= ~intBit;
+                intMasks[intPeer] = intMask;
+                if (intMask == 0) {
+                    return false;
+                }
+                if ((intMask & (intMask - 1)) == 0) {
+                    intQueue[intQueueLength++] = intPeer;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Applies naked singles (the queued cells) and hidden singles until neither places anything.
+     * Returns false if the board turns out to have no solution.
+     */
+    private boolean propagate(int[] intMasks) {
+        boolean bolChanged = true;
+
+        while (bolChanged) {
+            // Naked singles: place every queued cell that is still waiting
+            while (intQueueLength > 0) {
+                int intCell = intQueue[--intQueueLength];
+                int intMask = intMasks[intCell];
+                if ((intMask & PLACED) == 0 && !assign(intMasks, intCell, intMask)) {
+                    return false;
+                }
+            }
+
+            // Hidden singles: in each unit, find the digits that fit in only one cell
+            bolChanged = false;
+            for (int intUnit = 0; intUnit < geometry.getIntUnits(); intUnit++) {
+                int[] intUnitCells = geometry.getUnit(intUnit);
+                int intOnce = 0;
+                int intTwice = 0;
+                int intPlaced = 0;
+
+                for (int intCell : intUnitCells) {
+                    int intMask = intMasks[intCell];
+                    if ((intMask & PLACED) != 0) {
+                        intPlaced |= intMask;
+                    } else {
+                        intTwice |= intOnce & intMask;
+                        intOnce |= intMask;
+                    }
+                }
+
+                // Every digit must be placed or have somewhere to go
+                if (((intOnce | intPlaced) & intAllDigits) != intAllDigits) {
+                    return false;
+                }
+
+                int intSingles = intOnce & ~intTwice;
+                while (intSingles != 0) {
+                    int intBit = Integer.lowestOneBit(intSingles);
+                    intSingles &= intSingles - 1;
+
+                    for (int intCell : intUnitCells) {
+                        if ((intMasks[intCell] & (intBit | PLACED)) == intBit) {
+                            if (!assign(intMasks, intCell, intBit)) {
+                                return false;
+                            }
+                            bolChanged = true;
+                            break;
+                        }
+                    }
+                }
+
+                // Place anything the hidden singles left with one digit before moving on
+                while (intQueueLength > 0) {
+                    int intCell = intQueue[--intQueueLength];
+                    int intMask = intMasks[intCell];
+                    if ((intMask & PLACED) == 0 && !assign(intMasks, intCell, intMask)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Description: Finds the cell not yet placed with the fewest digits left, stopping early at a cell with two.
+     * Returns the cell, or -1 if every cell is placed.
+     */
+    private int findMostConstrainedCell(int[] intMasks) {
+        int intBestCell = -1;
+        int intBestCount = Integer.MAX_VALUE;
+
+        for (int i = 0; i < intMasks.length; i++) {
+            if ((intMasks[i] & PLACED) == 0) {
+                int intCount = Integer.bitCount(intMasks[i]);
+                if (intCount < intBestCount) {
+                    intBestCell = i;
+                    intBestCount = intCount;
+                    if (intCount <= 2) {
+                        return intBestCell;
+                    }
+                }
+            }
+        }
+        return intBestCell;
+    }
+
+    /**
+     * Description: Picks one set bit of the mask at random and returns a mask with only that bit set.
+     */
+    private static int pickRandomBit(int intMask, Random random) {
+        int intSkip = random.nextInt(Integer.bitCount(intMask));
+        for (int i = 0; i < intSkip; i++) {
+            intMask &= intMask - 1;
+        }
+        return Integer.lowestOneBit(intMask);
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Description: Benchmarks class times the hot paths of the game so a change can be checked for regressions.
+ * It covers full-grid generation, puzzle dig-out, 16x16 puzzle generation, grading, loading a board from a file (parsed, and through the PuzzleCache),
+ * saving a board, move validation, win detection and rendering of both GameBoard and SpecialBoard. Every benchmark runs once per difficulty and seed,
+ * and the seed fixes the puzzle and every generator run, so results are comparable between runs.
+ * The two SudokuSolver backends (bitmask and Dancing Links) are also compared once on a fixed corpus of well-known hard
+ * puzzles, and ParallelSolver with the single-threaded Solver on a sparse grid, recorded with difficulty and seed 0.
+ * Each one is warmed up first, then measured over several timed iterations, and the results are written as JSON
+ * (one entry per benchmark and parameter set, with the mean time per operation, its standard deviation and the raw
+ * iteration scores) so trends can be tracked between runs.
+ * Anything the game prints while being measured is thrown away.
+ *
+ * Usage: java Benchmarks [--seeds 1,2,3] [--warmup 3] [--iterations 5] [--time 200] [--filter name] [--out results.json]
+ *
+ * Methods:
+ * - main(String[] args): Runs every benchmark and writes the results.
+ * - runSolverCorpus(): Compares the solver backends on the hard-puzzle corpus, and ParallelSolver with Solver on a sparse grid.
+ * - measure(String strName, byte bytDifficulty, long lngSeed, LongSupplier operation): Times one benchmark.
+ */
+
+// Import the classes for file output, random numbers and the operation being measured
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+public class Benchmarks {
+    // Number of warmup and measured iterations, and the length of each iteration in nanoseconds
+    private static int intWarmupIterations = 3;
+    private static int intIterations = 5;
+    private static long lngIterationNanos = 200_000_000L;
+
+    // Seeds to run every benchmark with, and an optional filter on benchmark names
+    private static long[] lngSeeds = {1, 2, 3};
+    private static String strFilter = "";
+
+    // Operations run between checks of the clock, so timing doesn't dominate the fast benchmarks
+    private static final int BATCH_SIZE = 16;
+
+    // Hard puzzles often used to compare solvers (including Inkala's 2012 puzzle, AI Escargot and Easter Monster, and
+    // the first puzzles of the top95 set), one line of 81 characters each with '.' or '0' for empty cells
+    private static final String[] HARD_PUZZLES = {
+        "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+        "100007090030020008009600500005300900010080002600004000300000010040000007007000300",
+        "1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1",
+        "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+        "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+        "6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+        "48.3............71.2.......7.5....6....2..8.............1.76...3.....4......5...."
+    };
+
+    // Results are added to this so the JIT can't remove the work being measured
+    private static volatile long lngSink;
+
+    // Console for progress output, as System.out is silenced while measuring
+    private static final PrintStream console = System.out;
+
+    // JSON results
+    private static StringBuilder json = new StringBuilder("[\n");
+    private static boolean bolFirstResult = true;
+
+    /**
+     * Description: Entry point for the benchmarks. Reads the options, runs every benchmark for each difficulty and seed,
+     * and writes the JSON results to the output file (results.json by default).
+     */
+    public static void main(String[] args) throws IOException {
+        String strOutFile = "results.json";
+
+        // Read the options
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--seeds":
+                    String[] strSeeds = args[i + 1].split(",");
+                    lngSeeds = new long[strSeeds.length];
+                    for (int j = 0; j < strSeeds.length; j++) {
+                        lngSeeds[j] = Long.parseLong(strSeeds[j].trim());
+                    }
+                    break;
+                case "--warmup":
+                    intWarmupIterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iterations":
+                    intIterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--time":
+                    lngIterationNanos = Long.parseLong(args[i + 1]) * 1_000_000L;
+                    break;
+                case "--filter":
+                    strFilter = args[i + 1];
+                    break;
+                case "--out":
+                    strOutFile = args[i + 1];
+                    break;
+                default:
+                    console.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        // Silence everything the game prints while it is being measured
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        for (byte bytDifficulty = CreateBoard.EASY; bytDifficulty <= CreateBoard.HARD; bytDifficulty++) {
+            for (long lngSeed : lngSeeds) {
+                runAll(bytDifficulty, lngSeed);
+            }
+        }
+        runSolverCorpus();
+
+        json.append("\n]\n");
+        Files.write(Paths.get(strOutFile), json.toString().getBytes("UTF-8"));
+        System.setOut(console);
+        console.println("Results written to " + Paths.get(strOutFile).toAbsolutePath());
+    }
+
+    /**
+     * Description: Sets up the fixtures for one difficulty and seed, and runs every benchmark with them.
+     * The seed picks the puzzle (so every run measures the same boards) and the order in which cells are guessed in
+     * the move validation benchmark.
+     */
+    private static void runAll(byte bytDifficulty, long lngSeed) {
+        Random random = new Random(lngSeed);
+        CreateBoard generator = new CreateBoard(bytDifficulty, lngSeed);
+        Puzzle puzzle = generator.createPuzzle(lngSeed);
+
+        GameBoard gameboard = new GameBoard(puzzle);
+        SpecialBoard specialboard = new SpecialBoard(puzzle);
+
+        // Save the fixture once so there is a file to load
+        String strFileName = "bench-" + bytDifficulty + "-" + lngSeed;
+        gameboard.saveGame(strFileName);
+
+        // Empty cells of the puzzle in a seeded random order, with their answers, for the move validation benchmark
+        byte[][] bytPlayingBoard = new byte[9][9];
+        byte[][] bytAnswerBoard = new byte[9][9];
+        puzzle.copyPlayingBoard(bytPlayingBoard);
+        puzzle.copyAnswerBoard(bytAnswerBoard);
+        int[] intEmptyCells = new int[81];
+        int intEmptyCount = 0;
+        for (int i = 0; i < 81; i++) {
+            if (bytPlayingBoard[i / 9][i % 9] == 0) {
+                intEmptyCells[intEmptyCount++] = i;
+            }
+        }
+        for (int i = intEmptyCount - 1; i > 0; i--) {
+            int intSwap = random.nextInt(i + 1);
+            int intTemp = intEmptyCells[i];
+            intEmptyCells[i] = intEmptyCells[intSwap];
+            intEmptyCells[intSwap] = intTemp;
+        }
+        final int intEmpty = intEmptyCount;
+
+        measure("generateGrid", bytDifficulty, lngSeed, () -> {
+            generator.createBoard();
+            return generator.getBytAnswerBoard()[8][8];
+        });
+
+        measure("digOut", bytDifficulty, lngSeed, () -> {
+            generator.removeDigits();
+            return generator.getIntSolverCalls();
+        });
+
+        // A whole 16x16 puzzle (fill and dig out) from the generalized engine
+        VariantGenerator variantgenerator = new VariantGenerator(4, lngSeed);
+        measure("generateVariant16", bytDifficulty, lngSeed, () -> variantgenerator.generate()[0]);
+
+        Grader grader = new Grader();
+        measure("gradePuzzle", bytDifficulty, lngSeed, () -> grader.grade(bytPlayingBoard));
+
+        // Parsing the file every time, and loading it through the PuzzleCache as the GameBoard constructor does
+        GameBoard loadBoard = new GameBoard(puzzle);
+        measure("populateBoardFromFile", bytDifficulty, lngSeed, () -> loadBoard.populateBoard(strFileName + ".txt") ? 1 : 0);
+
+        measure("loadBoardCached", bytDifficulty, lngSeed, () -> new GameBoard(strFileName + ".txt").getBytEmptyCells());
+
+        measure("saveGame", bytDifficulty, lngSeed, () -> {
+            gameboard.saveGame(strFileName);
+            return 1;
+        });
+
+        // Each operation guesses the next empty cell correctly; the board is replaced once every cell is guessed
+        GameBoard[] validationBoard = {new GameBoard(puzzle)};
+        int[] intNext = {0};
+        measure("validateMove", bytDifficulty, lngSeed, () -> {
+            if (intNext[0] == intEmpty) {
+                validationBoard[0] = new GameBoard(puzzle);
+                intNext[0] = 0;
+            }
+            int intCell = intEmptyCells[intNext[0]++];
+            return validationBoard[0].validateMove((byte) (intCell / 9 + 1), (byte) (intCell % 9 + 1), bytAnswerBoard[intCell / 9][intCell % 9]) ? 1 : 0;
+        });
+
+        measure("isBoardFilled", bytDifficulty, lngSeed, () -> gameboard.isBoardFilled() ? 1 : 0);
+
+        measure("renderGameBoard", bytDifficulty, lngSeed, () -> gameboard.toString().length());
+
+        measure("renderSpecialBoard", bytDifficulty, lngSeed, () -> specialboard.toString().length());
+    }
+
+    /**
+     * Description: Compares the solver backends on the hard-puzzle corpus. Each operation proves every puzzle in the
+     * corpus unique (counting up to 2 solutions) with one reused solver, as BatchSolver does. Then times counting every
+     * solution of a sparse grid with Solver and with ParallelSolver.
+     */
+    private static void runSolverCorpus() {
+        byte[][][] bytCorpus = new byte[HARD_PUZZLES.length][9][9];
+        for (int i = 0; i < HARD_PUZZLES.length; i++) {
+            Solver.parseLine(HARD_PUZZLES[i], bytCorpus[i]);
+        }
+
+        String[] strNames = {"solveHardCorpusBitmask", "solveHardCorpusDancingLinks"};
+        for (byte bytBackend = SudokuSolver.BITMASK; bytBackend <= SudokuSolver.DANCING_LINKS; bytBackend++) {
+            SudokuSolver solver = SudokuSolver.create(bytBackend);
+            measure(strNames[bytBackend], (byte) 0, 0, () -> {
+                long lngSolutions = 0;
+                for (byte[][] bytBoard : bytCorpus) {
+                    lngSolutions += solver.countSolutions(bytBoard, 2);
+                }
+                return lngSolutions;
+            });
+        }
+
+        // Counting every solution of a sparse grid (the fourth corpus puzzle with its last given removed, 47688 solutions)
+        // on one thread, and split across every core with ParallelSolver
+        byte[][] bytSparse = new byte[9][9];
+        Solver.parseLine(HARD_PUZZLES[3].substring(0, 73) + "........", bytSparse);
+        Solver solver = new Solver();
+        measure("countSparseSolver", (byte) 0, 0, () -> solver.countSolutions(bytSparse, Integer.MAX_VALUE));
+        ParallelSolver parallelsolver = new ParallelSolver();
+        measure("countSparseParallel", (byte) 0, 0, () -> parallelsolver.countSolutions(bytSparse, Long.MAX_VALUE));
+    }
+
+    /**
+     * Description: Times one benchmark and adds its result to the JSON output.
+     * Runs the warmup iterations (not recorded), then the measured iterations. Each iteration runs the operation in
+     * batches until the iteration time is up, and its score is the mean time per operation in microseconds.
+     */
+    private static void measure(String strName, byte bytDifficulty, long lngSeed, LongSupplier operation) {
+        if (!strName.contains(strFilter)) {
+            return;
+        }
+
+        double[] dblScores = new double[intIterations];
+
+        for (int i = 0; i < intWarmupIterations + intIterations; i++) {
+            long lngOps = 0;
+            long lngStartTime = System.nanoTime();
+            long lngElapsed;
+
+            do {
+                for (int j = 0; j < BATCH_SIZE; j++) {
+                    lngSink += operation.getAsLong();
+                }
+                lngOps += BATCH_SIZE;
+                lngElapsed = System.nanoTime() - lngStartTime;
+            } while (lngElapsed < lngIterationNanos);
+
+            // Only the iterations after warmup are recorded
+            if (i >= intWarmupIterations) {
+                dblScores[i - intWarmupIterations] = lngElapsed / 1000.0 / lngOps;
+            }
+        }
+
+        // Mean and standard deviation of the iteration scores
+        double dblMean = 0;
+        for (double dblScore : dblScores) {
+            dblMean += dblScore;
+        }
+        dblMean /= dblScores.length;
+
+        double dblVariance = 0;
+        for (double dblScore : dblScores) {
+            dblVariance += (dblScore - dblMean) * (dblScore - dblMean);
+        }
+        double dblError = dblScores.length > 1 ? Math.sqrt(dblVariance / (dblScores.length - 1)) : 0;
+
+        console.println(String.format("%-22s difficulty=%d seed=%d  %12.3f us/op  +- %.3f", strName, bytDifficulty, lngSeed, dblMean, dblError));
+        addResult(strName, bytDifficulty, lngSeed, dblMean, dblError, dblScores);
+    }
+
+    /**
+     * Description: Adds one result to the JSON output, using the same field names as JMH's JSON results.
+     */
+    private static void addResult(String strName, byte bytDifficulty, long lngSeed, double dblMean, double dblError, double[] dblScores) {
+        if (!bolFirstResult) {
+            json.append(",\n");
+        }
+        bolFirstResult = false;
+
+        json.append("  {\n");
+        json.append("    \"benchmark\": \"").append(strName).append("\",\n");
+        json.append("    \"mode\": \"avgt\",\n");
+        json.append("    \"warmupIterations\": ").append(intWarmupIterations).append(",\n");
+        json.append("    \"measurementIterations\": ").append(intIterations).append(",\n");
+        json.append("    \"params\": { \"difficulty\": \"").append(bytDifficulty).append("\", \"seed\": \"").append(lngSeed).append("\" },\n");
+        json.append("    \"primaryMetric\": {\n");
+        json.append("      \"score\": ").append(dblMean).append(",\n");
+        json.append("      \"scoreError\": ").append(dblError).append(",\n");
+        json.append("      \"scoreUnit\": \"us/op\",\n");
+        json.append("      \"rawData\": [[");
+        for (int i = 0; i < dblScores.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(dblScores[i]);
+        }
+        json.append("]]\n");
+        json.append("    }\n");
+        json.append("  }");
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Description: Footprint class measures how many bytes of heap each live board takes, so changes to the board
+ * layout can be compared. Like a JOL footprint test, it reports retained bytes per instance, but it measures them
+ * directly: it fills the heap with many boards, forces garbage collection, and divides the growth in used heap by
+ * the number of boards kept alive.
+ * Two cases are measured for GameBoard and SpecialBoard: boards that all play the same puzzle (such as a daily
+ * puzzle shared by every session) and boards that each play their own puzzle (which includes the Puzzle itself).
+ *
+ * Usage: java Footprint [boards] (100000 by default)
+ *
+ * Methods:
+ * - main(String[] args): Runs every measurement and prints the bytes per board.
+ * - measure(String strName, IntFunction<Object> factory): Measures the bytes per object made by the factory.
+ */
+
+// Import the factory used to make each board
+import java.util.function.IntFunction;
+
+public class Footprint {
+    // Number of boards kept alive in each measurement
+    private static int intBoards = 100_000;
+
+    /**
+     * Description: Entry point for the footprint test. Measures each kind of board and prints the bytes per board.
+     */
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            intBoards = Integer.parseInt(args[0]);
+        }
+
+        // A small set of distinct puzzles, reused round-robin for the "own puzzle" cases
+        Puzzle[] puzzles = new Puzzle[64];
+        for (int i = 0; i < puzzles.length; i++) {
+            puzzles[i] = new CreateBoard(CreateBoard.MEDIUM, i).createPuzzle(i);
+        }
+        Puzzle shared = puzzles[0];
+
+        measure("Puzzle", i -> new Puzzle(bytPlayingBoard(shared), bytAnswerBoard(shared), shared.getPuzzleId()));
+        measure("GameBoard (shared puzzle)", i -> new GameBoard(shared));
+        measure("SpecialBoard (shared puzzle)", i -> new SpecialBoard(shared));
+        measure("GameBoard (own puzzle)", i -> {
+            Puzzle puzzle = puzzles[i % puzzles.length];
+            return new GameBoard(new Puzzle(bytPlayingBoard(puzzle), bytAnswerBoard(puzzle), puzzle.getPuzzleId()));
+        });
+    }
+
+    /**
+     * Description: Keeps intBoards objects from the factory alive and prints the heap they use, in bytes per object.
+     */
+    private static void measure(String strName, IntFunction<Object> factory) {
+        Object[] objects = new Object[intBoards];
+
+        long lngBefore = usedHeap();
+        for (int i = 0; i < intBoards; i++) {
+            objects[i] = factory.apply(i);
+        }
+        long lngAfter = usedHeap();
+
+        System.out.println(String.format("%-30s %8.1f bytes per board", strName, (lngAfter - lngBefore) / (double) intBoards));
+
+        // Keep the objects reachable until after the measurement
+        if (objects[intBoards - 1] == null) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Description: Returns the bytes of heap in use after collecting as much garbage as possible.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long lngUsed = Long.MAX_VALUE;
+
+        // Collect until the used heap stops shrinking
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long lngNow = runtime.totalMemory() - runtime.freeMemory();
+            if (lngNow >= lngUsed) {
+                break;
+            }
+            lngUsed = lngNow;
+        }
+        return lngUsed;
+    }
+
+    /**
+     * Description: Returns copies of a puzzle's playing and answer boards.
+     */
+    private static byte[][] bytPlayingBoard(Puzzle puzzle) {
+        byte[][] bytBoard = new byte[9][9];
+        puzzle.copyPlayingBoard(bytBoard);
+        return bytBoard;
+    }
+
+    private static byte[][] bytAnswerBoard(Puzzle puzzle) {
+        byte[][] bytBoard = new byte[9][9];
+        puzzle.copyAnswerBoard(bytBoard);
+        return bytBoard;
+    }
+}